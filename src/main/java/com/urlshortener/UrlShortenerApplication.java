@@ -1,11 +1,16 @@
 package com.urlshortener;
 
+import com.urlshortener.config.UrlShortenerRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableScheduling
+@ImportRuntimeHints(UrlShortenerRuntimeHints.class)
 public class UrlShortenerApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,86 @@
+package com.urlshortener.bulkload;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Checkpoint of a bulk load, stored as a properties file next to the loaded file.
+ * It is replaced atomically after every committed batch, so a restarted load skips exactly the committed records.
+ */
+public class BulkLoadCheckpoint {
+    private final Path file;
+
+    /**
+     * Creates the checkpoint stored in the given file.
+     *
+     * @param file the checkpoint file
+     */
+    public BulkLoadCheckpoint(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the counts of the load so far.
+     *
+     * @return the counts, all zero if there is no checkpoint
+     * @throws IOException if the checkpoint cannot be read
+     */
+    public BulkLoadReport read() throws IOException {
+        if (!Files.exists(file)) {
+            return new BulkLoadReport();
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return new BulkLoadReport(count(properties, "records"), count(properties, "loaded"), count(properties, "existing"),
+                count(properties, "rejected"), count(properties, "expired"));
+    }
+
+    /**
+     * Replaces the checkpoint with the given counts.
+     *
+     * @param report the counts of the load so far
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void save(BulkLoadReport report) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("records", Long.toString(report.getRecords()));
+        properties.setProperty("loaded", Long.toString(report.getLoaded()));
+        properties.setProperty("existing", Long.toString(report.getExisting()));
+        properties.setProperty("rejected", Long.toString(report.getRejected()));
+        properties.setProperty("expired", Long.toString(report.getExpired()));
+
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaryFile)) {
+            properties.store(writer, "Bulk load checkpoint");
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes the checkpoint once the load has completed.
+     *
+     * @throws IOException if the checkpoint cannot be deleted
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Reads a count from the checkpoint properties.
+     *
+     * @param properties the checkpoint properties
+     * @param name       the name of the count
+     * @return the count, or 0 if missing
+     */
+    private static long count(Properties properties, String name) {
+        return Long.parseLong(properties.getProperty(name, "0"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.urlshortener.bulkload;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counts of a bulk load. The counts include those of earlier runs resumed from the checkpoint.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLoadReport {
+    /**
+     * The number of records processed, in file order; records up to this number are not read again on restart.
+     */
+    private long records;
+
+    /**
+     * The number of links inserted.
+     */
+    private long loaded;
+
+    /**
+     * The number of valid links skipped because their short URL or original URL is already stored.
+     */
+    private long existing;
+
+    /**
+     * The number of records rejected as invalid.
+     */
+    private long rejected;
+
+    /**
+     * The number of valid links skipped because they have already expired.
+     */
+    private long expired;
+
+    /**
+     * Records that the file has been processed up to the given record.
+     *
+     * @param records the number of the last processed record
+     */
+    void processedUpTo(long records) {
+        this.records = records;
+    }
+
+    /**
+     * Adds the outcome of an inserted batch.
+     *
+     * @param loaded   the number of inserted links
+     * @param existing the number of links already stored
+     */
+    void addBatch(long loaded, long existing) {
+        this.loaded += loaded;
+        this.existing += existing;
+    }
+
+    /**
+     * Counts a rejected record.
+     */
+    void addRejected() {
+        rejected++;
+    }
+
+    /**
+     * Counts an expired link.
+     */
+    void addExpired() {
+        expired++;
+    }
+}
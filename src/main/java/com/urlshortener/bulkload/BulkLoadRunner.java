@@ -0,0 +1,113 @@
+package com.urlshortener.bulkload;
+
+import com.urlshortener.export.ExportFormat;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Runs the {@link BulkLoader} and exits when the application is started with --bulk-load=&lt;file&gt;.
+ * Files are read in the formats of the export, so exported files can be loaded as they are; files ending in .gz are
+ * gzip-compressed. The format is taken from --bulk-load-format, or else from the file name.
+ * With --prime-cache, loaded links are also written to the cache.
+ * Rejected records are written to &lt;file&gt;.rejects and progress is kept in &lt;file&gt;.checkpoint,
+ * so running the same command again after an interruption resumes the load.
+ */
+@Slf4j
+@AllArgsConstructor
+public class BulkLoadRunner implements ApplicationRunner {
+    static final String OPTION = "bulk-load";
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BulkLoader bulkLoader;
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Loads the file if the bulk load option is present.
+     *
+     * @param args the application arguments
+     * @throws IOException if the file cannot be read or the checkpoint or rejects cannot be written
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        Path file = Path.of(requiredOption(args, OPTION));
+        String fileName = file.getFileName().toString();
+        boolean gzip = fileName.endsWith(GZIP_EXTENSION);
+        ExportFormat format = args.containsOption("bulk-load-format")
+                ? ExportFormat.fromName(requiredOption(args, "bulk-load-format"))
+                : fileName.replace(GZIP_EXTENSION, "").endsWith("." + ExportFormat.CSV.getFileExtension()) ? ExportFormat.CSV : ExportFormat.NDJSON;
+        BulkLoadCheckpoint checkpoint = new BulkLoadCheckpoint(file.resolveSibling(fileName + ".checkpoint"));
+        boolean resuming = checkpoint.read().getRecords() > 0;
+
+        log.info("Bulk loading urls from {} as {}.", file, format);
+        BulkLoadReport report;
+        try (LinkRecordReader reader = open(file, gzip, format);
+             Writer rejects = Files.newBufferedWriter(file.resolveSibling(fileName + ".rejects"), StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     resuming ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            report = bulkLoader.load(reader, checkpoint, rejects, args.containsOption("prime-cache"));
+        }
+        if (report.getRejected() > 0) {
+            log.warn("{} records were rejected, see {}.rejects.", report.getRejected(), file);
+        }
+
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    /**
+     * Opens a reader of the file in the given format.
+     *
+     * @param file   the file
+     * @param gzip   whether the file is gzip-compressed
+     * @param format the format
+     * @return the reader
+     * @throws IOException if the file cannot be opened
+     */
+    private static LinkRecordReader open(Path file, boolean gzip, ExportFormat format) throws IOException {
+        InputStream input = Files.newInputStream(file);
+        if (gzip) {
+            input = new GZIPInputStream(input, BUFFER_SIZE);
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return switch (format) {
+            case CSV -> new CsvLinkRecordReader(reader);
+            case NDJSON -> new NdjsonLinkRecordReader(reader);
+        };
+    }
+
+    /**
+     * Reads the value of an option.
+     *
+     * @param args the application arguments
+     * @param name the option name
+     * @return the option value
+     * @throws IllegalArgumentException if the option has no value
+     */
+    private static String requiredOption(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.isEmpty() || values.getFirst().isBlank()) {
+            throw new IllegalArgumentException("Option --" + name + " requires a value");
+        }
+        return values.getFirst();
+    }
+}
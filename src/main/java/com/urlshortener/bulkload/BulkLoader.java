@@ -0,0 +1,328 @@
+package com.urlshortener.bulkload;
+
+import com.urlshortener.cache.CacheTtlPolicy;
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.config.BulkLoadProperties;
+import com.urlshortener.config.UrlNormalizationProperties;
+import com.urlshortener.model.Url;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.repository.UrlJdbcRepository;
+import com.urlshortener.util.UrlParser;
+import com.urlshortener.util.UrlUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Loads links from a bulk load file into the urls table, keeping their short URLs.
+ * Original URLs are validated with the same rules as shortening requests and normalized the same way;
+ * invalid records are rejected and links that have already expired are skipped. Links whose short URL or original URL
+ * is already stored are left as they are. Links are inserted in batches, one transaction each, and the checkpoint
+ * is advanced after every batch so an interrupted load can be resumed. Inserted links can also be written to the cache.
+ * <p>
+ * With sharding, links are stored on the shard of their short URL, whereas original URLs are looked up on the shard
+ * of the short URL generated from them. Inserted links whose short URL differs from the generated one are therefore
+ * also indexed by original URL, so shortening their original URL again returns the loaded short URL.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BulkLoader {
+    private static final int MAX_COLUMN_LENGTH = 255;
+    private static final Pattern SHORT_URL_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1," + MAX_COLUMN_LENGTH + "}");
+    private static final long PROGRESS_INTERVAL_NANOS = Duration.ofSeconds(10).toNanos();
+
+    private final UrlJdbcRepository urlJdbcRepository;
+    private final UrlCache urlCache;
+    private final CacheTtlPolicy cacheTtlPolicy;
+    private final UrlNormalizationProperties normalizationProperties;
+    private final BulkLoadProperties properties;
+    private final boolean sharded;
+
+    /**
+     * Loads the links of a file, resuming after the records the checkpoint marks as processed.
+     * The checkpoint is deleted once the whole file has been loaded.
+     *
+     * @param reader     the reader of the file
+     * @param checkpoint the checkpoint of the load
+     * @param rejects    the writer of rejected records, one line with record number and reason each
+     * @param primeCache whether inserted links are written to the cache
+     * @return the counts of the load, including those of resumed runs
+     * @throws IOException if reading the file or writing the checkpoint or rejects fails
+     */
+    public BulkLoadReport load(LinkRecordReader reader, BulkLoadCheckpoint checkpoint, Writer rejects, boolean primeCache) throws IOException {
+        BulkLoadReport report = checkpoint.read();
+        long resumeAfter = report.getRecords();
+        if (resumeAfter > 0) {
+            log.info("Resuming bulk load after record {}.", resumeAfter);
+        }
+
+        long startTime = System.nanoTime();
+        long lastProgress = startTime;
+        long lastRecord = resumeAfter;
+        List<Url> batch = new ArrayList<>(properties.getBatchSize());
+        while (true) {
+            LinkRecord linkRecord;
+            try {
+                linkRecord = reader.next();
+            } catch (InvalidLinkRecordException e) {
+                if (e.getNumber() > resumeAfter) {
+                    reject(rejects, report, e);
+                    lastRecord = e.getNumber();
+                }
+                continue;
+            }
+            if (linkRecord == null) {
+                break;
+            }
+            if (linkRecord.number() <= resumeAfter) {
+                continue;
+            }
+
+            lastRecord = linkRecord.number();
+            try {
+                Url url = toUrl(linkRecord);
+                if (url.getExpirationDate().isAfter(LocalDateTime.now())) {
+                    batch.add(url);
+                } else {
+                    report.addExpired();
+                }
+            } catch (InvalidLinkRecordException e) {
+                reject(rejects, report, e);
+            }
+
+            if (batch.size() >= properties.getBatchSize()) {
+                insertBatch(batch, primeCache, report);
+                commit(checkpoint, rejects, report, lastRecord);
+                batch.clear();
+                if (System.nanoTime() - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = System.nanoTime();
+                    logProgress(report, lastRecord - resumeAfter, lastProgress - startTime);
+                }
+            }
+        }
+        insertBatch(batch, primeCache, report);
+        commit(checkpoint, rejects, report, lastRecord);
+        checkpoint.delete();
+
+        long elapsedNanos = System.nanoTime() - startTime;
+        log.info("Bulk load finished in {} s: {} records read, {} loaded, {} already stored, {} rejected, {} expired, {} records/s.",
+                Duration.ofNanos(elapsedNanos).toSeconds(), report.getRecords(), report.getLoaded(), report.getExisting(),
+                report.getRejected(), report.getExpired(), perSecond(lastRecord - resumeAfter, elapsedNanos));
+        return report;
+    }
+
+    /**
+     * Inserts a batch of links, indexes the inserted ones by original URL when sharding is enabled,
+     * and writes them to the cache if requested.
+     *
+     * @param batch      the links
+     * @param primeCache whether inserted links are written to the cache
+     * @param report     the counts of the load
+     */
+    private void insertBatch(List<Url> batch, boolean primeCache, BulkLoadReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> inserted = urlJdbcRepository.bulkInsertIfAbsent(batch);
+        report.addBatch(inserted.size(), batch.size() - inserted.size());
+        if (sharded && !inserted.isEmpty()) {
+            indexOriginalUrls(batch, inserted);
+        }
+        if (primeCache && !inserted.isEmpty()) {
+            primeCache(batch, inserted);
+        }
+    }
+
+    /**
+     * Indexes the inserted links by original URL whose short URL is not the one generated from their original URL.
+     * The other links are found by original URL on the shard of their own short URL.
+     *
+     * @param batch    the links of the batch
+     * @param inserted the short URLs of the inserted links
+     */
+    private void indexOriginalUrls(List<Url> batch, List<String> inserted) {
+        Set<String> insertedShortUrls = new HashSet<>(inserted);
+        List<Url> urls = batch.stream()
+                .filter(url -> insertedShortUrls.contains(url.getShortUrl()))
+                .filter(url -> !url.getShortUrl().equals(UrlUtil.generateShortUrl(url.getOriginalUrl())))
+                .toList();
+        if (!urls.isEmpty()) {
+            urlJdbcRepository.indexOriginalUrls(urls);
+        }
+    }
+
+    /**
+     * Writes the inserted links to the cache, for the time to live chosen by the cache policy, in one pipeline.
+     *
+     * @param batch    the links of the batch
+     * @param inserted the short URLs of the inserted links
+     */
+    private void primeCache(List<Url> batch, List<String> inserted) {
+        Map<String, Url> urlsByShortUrl = new HashMap<>();
+        batch.forEach(url -> urlsByShortUrl.put(url.getShortUrl(), url));
+
+        Map<UrlMapping, Duration> mappings = new LinkedHashMap<>();
+        for (String shortUrl : inserted) {
+            Url url = urlsByShortUrl.get(shortUrl);
+            UrlMapping mapping = new UrlMapping(url.getShortUrl(), url.getOriginalUrl(), url.getExpirationDate());
+            cacheTtlPolicy.ttlFor(mapping).ifPresent(ttl -> mappings.put(mapping, ttl));
+        }
+        urlCache.putAll(mappings);
+    }
+
+    /**
+     * Marks the records up to the given one as processed: flushes the rejects and replaces the checkpoint.
+     *
+     * @param checkpoint the checkpoint of the load
+     * @param rejects    the writer of rejected records
+     * @param report     the counts of the load
+     * @param lastRecord the number of the last processed record
+     * @throws IOException if writing fails
+     */
+    private void commit(BulkLoadCheckpoint checkpoint, Writer rejects, BulkLoadReport report, long lastRecord) throws IOException {
+        report.processedUpTo(lastRecord);
+        rejects.flush();
+        checkpoint.save(report);
+    }
+
+    /**
+     * Writes a rejected record with its reason on one line and counts it.
+     *
+     * @param rejects the writer of rejected records
+     * @param report  the counts of the load
+     * @param e       the reason of the rejection
+     * @throws IOException if writing fails
+     */
+    private void reject(Writer rejects, BulkLoadReport report, InvalidLinkRecordException e) throws IOException {
+        log.debug("Rejecting record {}: {}", e.getNumber(), e.getMessage());
+        rejects.write(e.getNumber() + "\t" + e.getMessage().replaceAll("[\t\r\n]", " ") + "\n");
+        report.addRejected();
+    }
+
+    /**
+     * Logs the counts so far and the throughput of this run.
+     *
+     * @param report       the counts of the load
+     * @param records      the number of records processed by this run
+     * @param elapsedNanos the time this run has taken
+     */
+    private void logProgress(BulkLoadReport report, long records, long elapsedNanos) {
+        log.info("Bulk load at record {}: {} loaded, {} already stored, {} rejected, {} expired, {} records/s.",
+                report.getRecords(), report.getLoaded(), report.getExisting(), report.getRejected(), report.getExpired(),
+                perSecond(records, elapsedNanos));
+    }
+
+    /**
+     * Validates a record and converts it to a URL entity.
+     * A missing creation date defaults to now and a missing expiration date to the default validity after now, so links
+     * of any age without an expiration date are loaded rather than skipped as expired.
+     *
+     * @param linkRecord the record
+     * @return the URL entity
+     * @throws InvalidLinkRecordException if the record does not describe a valid link
+     */
+    private Url toUrl(LinkRecord linkRecord) {
+        long number = linkRecord.number();
+        String shortUrl = linkRecord.shortUrl();
+        if (shortUrl == null || !SHORT_URL_PATTERN.matcher(shortUrl).matches()) {
+            throw new InvalidLinkRecordException(number, "Invalid short URL: " + shortUrl);
+        }
+        String originalUrl = linkRecord.url();
+        if (originalUrl == null || !UrlParser.isValid(originalUrl)) {
+            throw new InvalidLinkRecordException(number, "Invalid URL format: " + originalUrl);
+        }
+        originalUrl = UrlUtil.normalizeUrl(originalUrl, normalizationProperties);
+        if (originalUrl.length() > MAX_COLUMN_LENGTH) {
+            throw new InvalidLinkRecordException(number, "URL longer than " + MAX_COLUMN_LENGTH + " characters");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdAt = linkRecord.createdAt() != null ? parseDateTime(number, linkRecord.createdAt()) : now;
+        LocalDateTime expirationDate = linkRecord.expiresAt() != null
+                ? parseDateTime(number, linkRecord.expiresAt())
+                : now.plus(properties.getDefaultValidity());
+        int clickCount = linkRecord.clicks() != null ? parseClickCount(number, linkRecord.clicks()) : 0;
+
+        Url url = new Url();
+        url.setShortUrl(shortUrl);
+        url.setOriginalUrl(originalUrl);
+        url.setCreatedAt(createdAt);
+        url.setExpirationDate(expirationDate);
+        url.setClickCount(clickCount);
+        return url;
+    }
+
+    /**
+     * Parses an ISO-8601 date, or date and time with an optional offset. A space may separate date and time.
+     * Dates and times with an offset are converted to the local time zone, as stored dates and times are local.
+     *
+     * @param number the number of the record
+     * @param value  the date and time
+     * @return the local date and time
+     * @throws InvalidLinkRecordException if the value cannot be parsed
+     */
+    private static LocalDateTime parseDateTime(long number, String value) {
+        String text = value.strip().replace(' ', 'T');
+        try {
+            if (text.indexOf('T') < 0) {
+                return LocalDate.parse(text).atStartOfDay();
+            }
+            TemporalAccessor dateTime = DateTimeFormatter.ISO_DATE_TIME.parseBest(text, OffsetDateTime::from, LocalDateTime::from);
+            return dateTime instanceof OffsetDateTime offsetDateTime
+                    ? offsetDateTime.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()
+                    : (LocalDateTime) dateTime;
+        } catch (DateTimeParseException e) {
+            throw new InvalidLinkRecordException(number, "Invalid date: " + value);
+        }
+    }
+
+    /**
+     * Parses a click count.
+     *
+     * @param number the number of the record
+     * @param value  the click count
+     * @return the click count
+     * @throws InvalidLinkRecordException if the value is not a non-negative integer
+     */
+    private static int parseClickCount(long number, String value) {
+        try {
+            int clickCount = Integer.parseInt(value.strip());
+            if (clickCount >= 0) {
+                return clickCount;
+            }
+        } catch (NumberFormatException e) {
+            // rejected below
+        }
+        throw new InvalidLinkRecordException(number, "Invalid click count: " + value);
+    }
+
+    /**
+     * Computes a rate per second.
+     *
+     * @param count        the count
+     * @param elapsedNanos the elapsed time
+     * @return the count per second, rounded down
+     */
+    private static long perSecond(long count, long elapsedNanos) {
+        return elapsedNanos > 0 ? count * 1_000_000_000L / elapsedNanos : count;
+    }
+}
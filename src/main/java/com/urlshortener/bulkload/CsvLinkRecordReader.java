@@ -0,0 +1,149 @@
+package com.urlshortener.bulkload;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads links from CSV as described in RFC 4180, with the columns short URL, original URL, creation date,
+ * expiration date and click count. This is the column order of the CSV export, so exported files can be loaded as they are.
+ * A header line is recognized by its last column not being a number and skipped. Empty unquoted fields are read as missing.
+ */
+public class CsvLinkRecordReader implements LinkRecordReader {
+    private static final int FIELD_COUNT = 5;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long number;
+    private boolean started;
+
+    /**
+     * Creates a reader of the given character stream.
+     *
+     * @param reader the character stream
+     */
+    public CsvLinkRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record, skipping a header line before the first one.
+     *
+     * @return the next record, or null at the end of the file
+     * @throws IOException if reading fails
+     */
+    @Override
+    public LinkRecord next() throws IOException {
+        List<String> fields = readFields();
+        if (!started) {
+            started = true;
+            if (fields != null && isHeader(fields)) {
+                fields = readFields();
+            }
+        }
+        if (fields == null) {
+            return null;
+        }
+
+        number++;
+        if (fields.size() != FIELD_COUNT) {
+            throw new InvalidLinkRecordException(number, "Expected " + FIELD_COUNT + " fields but found " + fields.size());
+        }
+        return new LinkRecord(number, fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4));
+    }
+
+    /**
+     * Closes the character stream.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the fields of the next record, skipping blank lines.
+     *
+     * @return the fields, or null at the end of the file
+     * @throws IOException if reading fails
+     */
+    private List<String> readFields() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>(FIELD_COUNT);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new InvalidLinkRecordException(++number, "Unterminated quoted field");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        field.append('"');
+                        c = read();
+                    } else {
+                        quoted = false;
+                    }
+                    continue;
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',' || c == '\n' || c == '\r' || c == -1) {
+                fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+                if (c != ',') {
+                    return fields;
+                }
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Reads the next character.
+     *
+     * @return the character, or -1 at the end of the stream
+     * @throws IOException if reading fails
+     */
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Checks whether the fields of the first line are a header: their last column is present but not a number.
+     *
+     * @param fields the fields of the first line
+     * @return true if the line is a header, false otherwise
+     */
+    private static boolean isHeader(List<String> fields) {
+        String last = fields.getLast();
+        return last != null && !last.isBlank() && !last.strip().chars().allMatch(Character::isDigit);
+    }
+}
@@ -0,0 +1,29 @@
+package com.urlshortener.bulkload;
+
+/**
+ * Thrown for a record of a bulk load file that cannot be parsed or does not describe a valid link.
+ * The record is rejected and loading continues with the next one.
+ */
+public class InvalidLinkRecordException extends RuntimeException {
+    private final long number;
+
+    /**
+     * Constructs a new InvalidLinkRecordException with the specified record number and detail message.
+     *
+     * @param number  the number of the record in the file
+     * @param message the detail message
+     */
+    public InvalidLinkRecordException(long number, String message) {
+        super(message);
+        this.number = number;
+    }
+
+    /**
+     * Returns the number of the invalid record in the file.
+     *
+     * @return the record number
+     */
+    public long getNumber() {
+        return number;
+    }
+}
@@ -0,0 +1,14 @@
+package com.urlshortener.bulkload;
+
+/**
+ * A link read from a bulk load file, with its fields as they appear in the file.
+ *
+ * @param number    the number of the record in the file, starting at 1
+ * @param shortUrl  the short URL (code) to keep, or null if missing
+ * @param url       the original URL, or null if missing
+ * @param createdAt the creation date and time, or null if missing
+ * @param expiresAt the expiration date and time, or null if missing
+ * @param clicks    the click count, or null if missing
+ */
+public record LinkRecord(long number, String shortUrl, String url, String createdAt, String expiresAt, String clicks) {
+}
@@ -0,0 +1,19 @@
+package com.urlshortener.bulkload;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the links of a bulk load file one record at a time.
+ */
+public interface LinkRecordReader extends Closeable {
+
+    /**
+     * Reads the next record.
+     *
+     * @return the next record, or null at the end of the file
+     * @throws IOException if reading fails
+     * @throws InvalidLinkRecordException if the record cannot be parsed; the reader can continue with the next record
+     */
+    LinkRecord next() throws IOException;
+}
@@ -0,0 +1,82 @@
+package com.urlshortener.bulkload;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads links from newline-delimited JSON, one object per line. Fields are read under the names of the NDJSON export
+ * ({@code shortUrl}, {@code originalUrl}, {@code createdAt}, {@code expirationDate}, {@code clickCount})
+ * or the short names {@code code}, {@code url}, {@code created}, {@code expires} and {@code clicks}. Blank lines are skipped.
+ */
+public class NdjsonLinkRecordReader implements LinkRecordReader {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private long number;
+
+    /**
+     * Creates a reader of the given character stream.
+     *
+     * @param reader the character stream
+     */
+    public NdjsonLinkRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the next record, or null at the end of the file
+     * @throws IOException if reading fails
+     */
+    @Override
+    public LinkRecord next() throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.isBlank()) {
+            line = reader.readLine();
+        }
+        if (line == null) {
+            return null;
+        }
+
+        number++;
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new InvalidLinkRecordException(number, "Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new InvalidLinkRecordException(number, "Expected a JSON object");
+        }
+        return new LinkRecord(number, field(node, "shortUrl", "code"), field(node, "originalUrl", "url"),
+                field(node, "createdAt", "created"), field(node, "expirationDate", "expires"), field(node, "clickCount", "clicks"));
+    }
+
+    /**
+     * Closes the character stream.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads a scalar field under either of its names.
+     *
+     * @param node      the JSON object
+     * @param name      the name used by the export
+     * @param shortName the short name
+     * @return the field as text, or null if missing or null
+     */
+    private static String field(JsonNode node, String name, String shortName) {
+        JsonNode value = node.hasNonNull(name) ? node.get(name) : node.get(shortName);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
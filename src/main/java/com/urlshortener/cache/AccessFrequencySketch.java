@@ -0,0 +1,107 @@
+package com.urlshortener.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-min sketch estimating how often short URLs were accessed recently, in constant memory.
+ * All counters are halved once per half-life, so the estimate reflects recent rather than total accesses.
+ * Estimates never undercount, but may overcount when short URLs share counters.
+ */
+public class AccessFrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int WIDTH_BITS = 15;
+    private static final int WIDTH = 1 << WIDTH_BITS;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray counters = new AtomicIntegerArray(DEPTH * WIDTH);
+    private final long halfLifeNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicLong nextDecay;
+
+    /**
+     * Creates a sketch whose counts halve once per half-life.
+     *
+     * @param halfLife the period after which counts are halved
+     */
+    public AccessFrequencySketch(Duration halfLife) {
+        this(halfLife, System::nanoTime);
+    }
+
+    /**
+     * Creates a sketch reading the time from the given source.
+     *
+     * @param halfLife the period after which counts are halved
+     * @param nanoTime the source of the current time in nanoseconds
+     */
+    AccessFrequencySketch(Duration halfLife, LongSupplier nanoTime) {
+        this.halfLifeNanos = halfLife.toNanos();
+        this.nanoTime = nanoTime;
+        this.nextDecay = new AtomicLong(nanoTime.getAsLong() + halfLifeNanos);
+    }
+
+    /**
+     * Records an access of the short URL.
+     *
+     * @param shortUrl the accessed short URL
+     * @return the estimated number of recent accesses, including this one
+     */
+    public int increment(String shortUrl) {
+        decayIfDue();
+        int hash = shortUrl.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            int count = counters.get(index);
+            if (count < Integer.MAX_VALUE) {
+                count = counters.incrementAndGet(index);
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimates the number of recent accesses of the short URL.
+     *
+     * @param shortUrl the short URL
+     * @return the estimated number of recent accesses
+     */
+    public int estimate(String shortUrl) {
+        decayIfDue();
+        int hash = shortUrl.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves all counters if the half-life has passed since the last decay. Only one caller performs the decay.
+     */
+    private void decayIfDue() {
+        long due = nextDecay.get();
+        long now = nanoTime.getAsLong();
+        if (now - due < 0 || !nextDecay.compareAndSet(due, now + halfLifeNanos)) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, count -> count >>> 1);
+        }
+    }
+
+    /**
+     * Computes the counter index of a hash in the given row.
+     *
+     * @param hash the hash of the short URL
+     * @param row  the sketch row
+     * @return the index into the counter array
+     */
+    private static int index(int hash, int row) {
+        int mixed = (hash ^ (hash >>> 16)) * SEEDS[row];
+        return row * WIDTH + (mixed >>> (Integer.SIZE - WIDTH_BITS));
+    }
+}
@@ -0,0 +1,40 @@
+package com.urlshortener.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+
+/**
+ * Runs the {@link CacheLayoutMigrator} and exits when the application is started with --migrate-cache-layout.
+ */
+@Slf4j
+@AllArgsConstructor
+public class CacheLayoutMigrationRunner implements ApplicationRunner {
+    static final String OPTION = "migrate-cache-layout";
+
+    private final CacheLayoutMigrator cacheLayoutMigrator;
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Migrates the cache layout if the migration option is present.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        log.info("Migrating cache layout.");
+        Map<String, Long> migrated = cacheLayoutMigrator.migrate();
+        log.info("Cache layout migration finished, migrated keys: {}", migrated);
+
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
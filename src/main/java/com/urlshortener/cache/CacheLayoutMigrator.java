@@ -0,0 +1,91 @@
+package com.urlshortener.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves the entries of the string layout into another cache layout: mappings keep their remaining time to live and
+ * pending click counts are added to the target's counts. Moved string keys are deleted, so the migration can be resumed.
+ */
+@Slf4j
+@AllArgsConstructor
+public class CacheLayoutMigrator {
+    private static final int SCAN_COUNT = 1000;
+    private static final int PROGRESS_INTERVAL = 100_000;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final UrlCache target;
+
+    /**
+     * Migrates all string layout keys. Keys are classified by shape: {@code clicks:{<shortUrl>}} are click counts,
+     * keys containing {@code ://} map original URLs to short URLs and keys without a colon map short URLs to original URLs.
+     * Other keys, such as the buckets of the target layout, are left alone.
+     *
+     * @return the number of migrated keys per kind
+     * @throws IllegalStateException if the target is the string layout itself
+     */
+    public Map<String, Long> migrate() {
+        if (target instanceof StringKeyUrlCache) {
+            throw new IllegalStateException("The cache already uses the string layout, configure url-shortener.cache.layout first");
+        }
+
+        Map<String, Long> migrated = new LinkedHashMap<>(Map.of("mappings", 0L, "reverse-mappings", 0L, "click-counts", 0L));
+        AtomicLong scanned = new AtomicLong();
+        ScanOptions options = ScanOptions.scanOptions().count(SCAN_COUNT).type(DataType.STRING).build();
+        RedisKeys.forEachKey(redisTemplate, options, key -> {
+            String kind = migrateKey(key);
+            if (kind != null) {
+                migrated.merge(kind, 1L, Long::sum);
+            }
+            if (scanned.incrementAndGet() % PROGRESS_INTERVAL == 0) {
+                log.info("Scanned {} keys, migrated {}.", scanned, migrated);
+            }
+        });
+        return migrated;
+    }
+
+    /**
+     * Migrates a single string layout key and deletes it.
+     *
+     * @param key the key
+     * @return the kind of the migrated key, or null if the key is not a cache entry with a time to live or vanished meanwhile
+     */
+    private String migrateKey(String key) {
+        if (key.startsWith(StringKeyUrlCache.CLICKS_PREFIX)) {
+            String count = redisTemplate.opsForValue().getAndDelete(key);
+            if (count == null) {
+                return null;
+            }
+            target.incrementClickCount(RedisKeys.stripHashTag(key.substring(StringKeyUrlCache.CLICKS_PREFIX.length())), Long.parseLong(count));
+            return "click-counts";
+        }
+
+        boolean reverse = key.contains("://");
+        if (!reverse && key.indexOf(':') >= 0) {
+            return null;
+        }
+
+        String value = redisTemplate.opsForValue().get(key);
+        Long ttlMillis = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        if (value == null || ttlMillis == null || ttlMillis <= 0) {
+            return null;
+        }
+        Duration ttl = Duration.ofMillis(ttlMillis);
+        if (reverse) {
+            target.putShortUrl(key, value, ttl);
+        } else {
+            target.putOriginalUrl(key, value, ttl);
+        }
+        redisTemplate.delete(key);
+        return reverse ? "reverse-mappings" : "mappings";
+    }
+}
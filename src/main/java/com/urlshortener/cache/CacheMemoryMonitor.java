@@ -0,0 +1,87 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.config.CacheProperties;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+
+/**
+ * Periodically samples the memory saved by the cache time to live policy and, when a memory budget is configured,
+ * measures the Redis memory usage and lets the policy adapt to it.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class CacheMemoryMonitor {
+    private final RedisTemplate<String, String> redisTemplate;
+    private final CacheProperties cacheProperties;
+    private final CacheTtlPolicy cacheTtlPolicy;
+    private final CacheMetrics cacheMetrics;
+
+    /**
+     * Scheduled task checking the cache memory.
+     * This method is executed with a fixed delay defined by the memory-check-interval-ms property.
+     */
+    @Scheduled(fixedDelayString = "${url-shortener.cache.memory-check-interval-ms:10000}")
+    public void checkMemory() {
+        cacheMetrics.sampleMemorySaved();
+        if (cacheProperties.getMemoryBudget() == null) {
+            return;
+        }
+
+        try {
+            Long usedBytes = redisTemplate.execute((RedisCallback<Long>) this::usedMemory);
+            if (usedBytes == null) {
+                log.warn("Redis did not report its memory usage.");
+                return;
+            }
+            cacheMetrics.setUsedMemory(usedBytes);
+            cacheTtlPolicy.adjustToMemoryUsage(usedBytes, cacheProperties.getMemoryBudget().toBytes());
+        } catch (RuntimeException e) {
+            log.error("Failed to check Redis memory usage.", e);
+        }
+    }
+
+    /**
+     * Reads the memory used by Redis. On a Redis Cluster, this is the memory used by all master nodes together.
+     *
+     * @param connection the Redis connection
+     * @return the used memory in bytes, or null if a node did not report it
+     */
+    private Long usedMemory(RedisConnection connection) {
+        if (!(connection instanceof RedisClusterConnection clusterConnection)) {
+            return usedMemory(connection.serverCommands().info("memory"));
+        }
+
+        long usedBytes = 0;
+        for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+            if (node.isMaster() && !node.isMarkedAsFail()) {
+                Long nodeUsedBytes = usedMemory(clusterConnection.serverCommands().info(node, "memory"));
+                if (nodeUsedBytes == null) {
+                    return null;
+                }
+                usedBytes += nodeUsedBytes;
+            }
+        }
+        return usedBytes;
+    }
+
+    /**
+     * Reads the used memory from the memory section of INFO.
+     *
+     * @param info the memory section of INFO
+     * @return the used memory in bytes, or null if not reported
+     */
+    private static Long usedMemory(Properties info) {
+        String usedMemory = info != null ? info.getProperty("used_memory") : null;
+        return usedMemory != null ? Long.parseLong(usedMemory.trim()) : null;
+    }
+}
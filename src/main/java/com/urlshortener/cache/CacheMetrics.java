@@ -0,0 +1,112 @@
+package com.urlshortener.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Metrics of the URL mapping cache: the hit ratio of redirect lookups, cache fills per tier,
+ * the Redis memory in use and the memory saved compared to caching every mapping with the fixed time to live.
+ */
+@Component
+public class CacheMetrics {
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<CacheTier, Counter> fills = new EnumMap<>(CacheTier.class);
+    private final DoubleAdder savedByteSeconds = new DoubleAdder();
+    private final AtomicLong savedBytes = new AtomicLong();
+    private final AtomicLong usedMemory = new AtomicLong();
+    private double lastSavedByteSeconds;
+    private long lastSampleNanos = System.nanoTime();
+
+    /**
+     * Creates the cache metrics and registers them in the given registry.
+     *
+     * @param meterRegistry the meter registry
+     */
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        hits = Counter.builder("url.cache.requests").tag("result", "hit")
+                .description("Redirect lookups answered from the cache").register(meterRegistry);
+        misses = Counter.builder("url.cache.requests").tag("result", "miss")
+                .description("Redirect lookups answered from the database").register(meterRegistry);
+        for (CacheTier tier : CacheTier.values()) {
+            fills.put(tier, Counter.builder("url.cache.fills").tag("tier", tier.name().toLowerCase())
+                    .description("Mappings stored in the cache").register(meterRegistry));
+        }
+        Gauge.builder("url.cache.hit.ratio", this, CacheMetrics::getHitRatio)
+                .description("Share of redirect lookups answered from the cache").register(meterRegistry);
+        Gauge.builder("url.cache.memory.saved", savedBytes, AtomicLong::get).baseUnit("bytes")
+                .description("Estimated Redis memory saved compared to the fixed cache time to live").register(meterRegistry);
+        Gauge.builder("url.cache.memory.used", usedMemory, AtomicLong::get).baseUnit("bytes")
+                .description("Redis memory in use, measured when a memory budget is configured").register(meterRegistry);
+    }
+
+    /**
+     * Records a redirect lookup answered from the cache.
+     */
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Records a redirect lookup that missed the cache.
+     */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Records a mapping stored in the cache. The memory it holds for the difference between its time to live and
+     * the fixed one is accumulated, so {@link #sampleMemorySaved()} can derive the average memory saved.
+     *
+     * @param tier        the popularity tier of the mapping
+     * @param ttl         the time to live of the mapping
+     * @param baselineTtl the time to live the mapping would have with the fixed cache time to live
+     * @param bytes       the estimated memory held by the cached mapping
+     */
+    public void recordFill(CacheTier tier, Duration ttl, Duration baselineTtl, long bytes) {
+        fills.get(tier).increment();
+        savedByteSeconds.add(bytes * (baselineTtl.toMillis() - ttl.toMillis()) / 1000.0);
+    }
+
+    /**
+     * Updates the estimated memory saved from the fills recorded since the last sample.
+     * By Little's law, the memory saved on average equals the byte-seconds saved per second of fills.
+     */
+    public synchronized void sampleMemorySaved() {
+        long now = System.nanoTime();
+        double total = savedByteSeconds.sum();
+        double elapsedSeconds = (now - lastSampleNanos) / 1e9;
+        if (elapsedSeconds > 0) {
+            savedBytes.set(Math.round((total - lastSavedByteSeconds) / elapsedSeconds));
+        }
+        lastSavedByteSeconds = total;
+        lastSampleNanos = now;
+    }
+
+    /**
+     * Records the Redis memory in use.
+     *
+     * @param bytes the used memory in bytes
+     */
+    public void setUsedMemory(long bytes) {
+        usedMemory.set(bytes);
+    }
+
+    /**
+     * Computes the share of redirect lookups answered from the cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if there were no lookups
+     */
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+}
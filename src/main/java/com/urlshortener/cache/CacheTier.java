@@ -0,0 +1,21 @@
+package com.urlshortener.cache;
+
+/**
+ * Popularity tier of a cached mapping, determining its time to live.
+ */
+public enum CacheTier {
+    /**
+     * Rarely accessed mapping, cached briefly.
+     */
+    COLD,
+
+    /**
+     * Mapping cached with the default time to live.
+     */
+    WARM,
+
+    /**
+     * Frequently accessed mapping, cached for long.
+     */
+    HOT
+}
@@ -0,0 +1,161 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.config.CacheProperties;
+import com.urlshortener.model.UrlMapping;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Decides how long URL mappings are cached.
+ * With adaptive TTLs, mappings accessed rarely on this instance are cached briefly and frequently accessed ones for long;
+ * otherwise every mapping gets the fixed time to live. The time to live never exceeds the expiration of the URL,
+ * and while Redis exceeds its memory budget, warm and hot mappings are cached for a proportionally shorter time.
+ */
+@Slf4j
+@Component
+public class CacheTtlPolicy {
+    /**
+     * Estimated Redis memory of a string key besides its key and value bytes: dictionary entry, objects, headers and expiry.
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 80;
+    private static final double MIN_TTL_SCALE = 0.01;
+    private static final double BUDGET_HEADROOM = 0.9;
+    private static final double TTL_SCALE_RECOVERY = 1.1;
+
+    private final CacheProperties properties;
+    private final CacheMetrics cacheMetrics;
+    private final AccessFrequencySketch accessFrequency;
+    private volatile double ttlScale = 1;
+
+    /**
+     * Creates the policy for the given cache settings.
+     *
+     * @param properties   the cache properties
+     * @param cacheMetrics the cache metrics
+     */
+    public CacheTtlPolicy(CacheProperties properties, CacheMetrics cacheMetrics) {
+        this.properties = properties;
+        this.cacheMetrics = cacheMetrics;
+        this.accessFrequency = properties.getAdaptive().isEnabled()
+                ? new AccessFrequencySketch(properties.getAdaptive().getHalfLife())
+                : null;
+    }
+
+    /**
+     * Records a redirect lookup of a shortened URL.
+     *
+     * @param shortUrl the shortened URL
+     * @param cacheHit whether the mapping was found in the cache
+     */
+    public void recordAccess(String shortUrl, boolean cacheHit) {
+        if (accessFrequency != null) {
+            accessFrequency.increment(shortUrl);
+        }
+        if (cacheHit) {
+            cacheMetrics.recordHit();
+        } else {
+            cacheMetrics.recordMiss();
+        }
+    }
+
+    /**
+     * Determines the time to live of a mapping about to be cached and records the fill in the cache metrics.
+     *
+     * @param url the URL mapping
+     * @return the time to live, or empty if the URL has already expired and must not be cached
+     */
+    public Optional<Duration> ttlFor(UrlMapping url) {
+        Duration validity = Duration.between(LocalDateTime.now(), url.expirationDate());
+        if (validity.getSeconds() <= 0) {
+            return Optional.empty();
+        }
+
+        CacheTier tier = tierOf(url.shortUrl());
+        Duration ttl = min(ttlOf(tier), validity);
+        long bytes = url.shortUrl().length() + url.originalUrl().length() + ENTRY_OVERHEAD_BYTES;
+        cacheMetrics.recordFill(tier, ttl, min(properties.getTtl(), validity), bytes);
+        log.debug("Caching url {} as {} for {}.", url.shortUrl(), tier, ttl);
+        return Optional.of(ttl);
+    }
+
+    /**
+     * Adapts the time to live of newly cached mappings to the Redis memory usage. While the usage exceeds the budget,
+     * the time to live of warm and hot mappings shrinks in proportion; once the usage is well below, it recovers gradually.
+     *
+     * @param usedBytes   the Redis memory in use
+     * @param budgetBytes the Redis memory budget
+     */
+    public void adjustToMemoryUsage(long usedBytes, long budgetBytes) {
+        double previous = ttlScale;
+        if (usedBytes > budgetBytes) {
+            ttlScale = Math.max(MIN_TTL_SCALE, previous * BUDGET_HEADROOM * budgetBytes / usedBytes);
+        } else if (usedBytes < budgetBytes * BUDGET_HEADROOM) {
+            ttlScale = Math.min(1, previous * TTL_SCALE_RECOVERY);
+        }
+        if (ttlScale != previous) {
+            log.info("Redis uses {} of {} budgeted bytes, cache time to live scaled to {}.", usedBytes, budgetBytes, ttlScale);
+        }
+    }
+
+    /**
+     * Returns the factor currently applied to the time to live of warm and hot mappings.
+     *
+     * @return the factor between 0 and 1
+     */
+    public double getTtlScale() {
+        return ttlScale;
+    }
+
+    /**
+     * Determines the popularity tier of a shortened URL from its recent accesses.
+     *
+     * @param shortUrl the shortened URL
+     * @return the popularity tier, always warm without adaptive TTLs
+     */
+    private CacheTier tierOf(String shortUrl) {
+        if (accessFrequency == null) {
+            return CacheTier.WARM;
+        }
+        int accesses = accessFrequency.estimate(shortUrl);
+        CacheProperties.Adaptive adaptive = properties.getAdaptive();
+        if (accesses >= adaptive.getHotThreshold()) {
+            return CacheTier.HOT;
+        }
+        return accesses >= adaptive.getWarmThreshold() ? CacheTier.WARM : CacheTier.COLD;
+    }
+
+    /**
+     * Determines the time to live of a tier, scaled down for the memory budget but never below the cold time to live.
+     *
+     * @param tier the popularity tier
+     * @return the time to live
+     */
+    private Duration ttlOf(CacheTier tier) {
+        Duration coldTtl = properties.getAdaptive().getColdTtl();
+        Duration ttl = switch (tier) {
+            case COLD -> coldTtl;
+            case WARM -> properties.getTtl();
+            case HOT -> properties.getAdaptive().getHotTtl();
+        };
+        if (tier == CacheTier.COLD || ttlScale >= 1) {
+            return ttl;
+        }
+        Duration scaled = Duration.ofMillis(Math.round(ttl.toMillis() * ttlScale));
+        return scaled.compareTo(coldTtl) > 0 ? scaled : min(coldTtl, ttl);
+    }
+
+    /**
+     * Returns the shorter of two durations.
+     *
+     * @param first  the first duration
+     * @param second the second duration
+     * @return the shorter duration
+     */
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+}
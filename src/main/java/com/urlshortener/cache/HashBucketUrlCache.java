@@ -0,0 +1,483 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.scheduling.CodeRange;
+import com.urlshortener.util.UrlUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * URL cache grouping entries into small Redis hashes bucketed by short URL prefix, which Redis keeps in its compact
+ * listpack encoding. This saves the per-key overhead of the string layout and never stores an original URL twice:
+ * <ul>
+ *     <li>{@code u:{<prefix>}} maps the rest of the short URL to the expiration time and original URL,</li>
+ *     <li>{@code r:{<prefix>}} maps the rest of a hash of the original URL to the expiration time and short URL,</li>
+ *     <li>{@code k:{<prefix>}} maps the rest of the short URL to its pending click count.</li>
+ * </ul>
+ * The prefix is a hash tag, so on a Redis Cluster the mapping and click count buckets of a prefix share a slot.
+ * The prefixes of click count buckets holding pending counts are indexed in the sorted sets
+ * {@code pending-click-buckets:{<first character>}}.
+ * Hash fields cannot expire on their own, so every entry carries its expiration time; expired entries are ignored on read
+ * and swept from a bucket when it grows. The bucket itself expires with its longest-lived entry.
+ * Generated short URLs are a hash of their original URL, so their own mapping serves as the reverse index
+ * and only other short URLs get a reverse entry. Reverse entries are always verified against the mapping.
+ */
+@Slf4j
+public class HashBucketUrlCache implements UrlCache {
+    static final String MAPPING_PREFIX = "u:";
+    static final String REVERSE_PREFIX = "r:";
+    static final String CLICKS_PREFIX = "k:";
+    static final String PENDING_CLICK_BUCKETS_KEY = "pending-click-buckets";
+    private static final int URL_HASH_LENGTH = 16;
+    private static final int SWEEP_THRESHOLD = 32;
+    private static final int SCAN_COUNT = 1000;
+    private static final int MIN_RECOMMENDED_LISTPACK_VALUE = 256;
+    private static final char EXPIRATION_SEPARATOR = ':';
+
+    /**
+     * Sets a bucket field, extends the bucket expiration to the entry's if needed and sweeps expired entries from large buckets.
+     * KEYS[1] is the bucket, ARGV holds the field, the value, the TTL in seconds, the current epoch second and the sweep threshold.
+     */
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            if redis.call('TTL', KEYS[1]) < tonumber(ARGV[3]) then
+              redis.call('EXPIRE', KEYS[1], ARGV[3])
+            end
+            if redis.call('HLEN', KEYS[1]) > tonumber(ARGV[5]) then
+              local entries = redis.call('HGETALL', KEYS[1])
+              for i = 1, #entries, 2 do
+                local expiresAt = tonumber(string.match(entries[i + 1], '^(%d+):'))
+                if expiresAt and expiresAt <= tonumber(ARGV[4]) then
+                  redis.call('HDEL', KEYS[1], entries[i])
+                end
+              end
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * Reads and deletes a bucket atomically. KEYS[1] is the bucket; returns its fields and values alternately.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN_SCRIPT = new DefaultRedisScript<>("""
+            local entries = redis.call('HGETALL', KEYS[1])
+            redis.call('DEL', KEYS[1])
+            return entries
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisTemplate<String, String> redirectRedisTemplate;
+    private final int prefixLength;
+    private final Clock clock;
+
+    /**
+     * Creates a cache bucketing entries by the given number of leading characters,
+     * serving redirect lookups through the same template as all other commands.
+     *
+     * @param redisTemplate the Redis template
+     * @param prefixLength  the number of leading characters selecting the bucket, at least 2
+     */
+    public HashBucketUrlCache(RedisTemplate<String, String> redisTemplate, int prefixLength) {
+        this(redisTemplate, redisTemplate, prefixLength, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a cache bucketing entries by the given number of leading characters.
+     *
+     * @param redisTemplate         the Redis template
+     * @param redirectRedisTemplate the Redis template serving redirect lookups, which may read from replicas
+     * @param prefixLength          the number of leading characters selecting the bucket, at least 2
+     */
+    public HashBucketUrlCache(RedisTemplate<String, String> redisTemplate, RedisTemplate<String, String> redirectRedisTemplate,
+                              int prefixLength) {
+        this(redisTemplate, redirectRedisTemplate, prefixLength, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a cache reading the current time from the given clock.
+     *
+     * @param redisTemplate         the Redis template
+     * @param redirectRedisTemplate the Redis template serving redirect lookups, which may read from replicas
+     * @param prefixLength          the number of leading characters selecting the bucket, at least 2
+     * @param clock                 the clock deciding whether entries have expired
+     */
+    HashBucketUrlCache(RedisTemplate<String, String> redisTemplate, RedisTemplate<String, String> redirectRedisTemplate,
+                       int prefixLength, Clock clock) {
+        if (prefixLength < 2) {
+            throw new IllegalArgumentException("Bucket prefix length must be at least 2: " + prefixLength);
+        }
+        this.redisTemplate = redisTemplate;
+        this.redirectRedisTemplate = redirectRedisTemplate;
+        this.prefixLength = prefixLength;
+        this.clock = clock;
+    }
+
+    /**
+     * Warns if Redis converts buckets holding typical URLs to its memory-hungry hashtable encoding.
+     * Redis 6 names the setting hash-max-ziplist-value; Redis 7 accepts it as an alias of hash-max-listpack-value.
+     * A Redis Cluster reports the setting of every node under a key prefixed with the node address; each is checked.
+     * Managed Redis services may not allow reading the configuration, in which case the check is skipped.
+     */
+    public void checkEncodingLimits() {
+        try {
+            Properties config = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                    connection.serverCommands().getConfig("hash-max-ziplist-value"));
+            if (config == null) {
+                return;
+            }
+            for (String name : config.stringPropertyNames()) {
+                String maxValue = config.getProperty(name);
+                if (name.endsWith("hash-max-ziplist-value") && Integer.parseInt(maxValue) < MIN_RECOMMENDED_LISTPACK_VALUE) {
+                    log.warn("Redis hash-max-listpack-value is {}, buckets holding longer URLs will not be stored compactly. "
+                            + "Set it to at least {}.", maxValue, MIN_RECOMMENDED_LISTPACK_VALUE);
+                    return;
+                }
+            }
+        } catch (DataAccessException | NumberFormatException e) {
+            log.info("Could not check Redis hash encoding limits: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Looks up the original URL in the mapping bucket of the shortened URL through the redirect template.
+     *
+     * @param shortUrl the shortened URL
+     * @return the original URL, or null if not cached or expired
+     */
+    @Override
+    public String getOriginalUrl(String shortUrl) {
+        return getOriginalUrl(redirectRedisTemplate, shortUrl);
+    }
+
+    /**
+     * Looks up the original URLs through the redirect template with one HMGET per mapping bucket,
+     * all pipelined into a single round trip (one per node on a Redis Cluster).
+     *
+     * @param shortUrls the shortened URLs
+     * @return the original URLs in the order of the shortened URLs, with null for those not cached or expired
+     */
+    @Override
+    public List<String> getOriginalUrls(List<String> shortUrls) {
+        Map<String, List<Integer>> positionsByBucket = new LinkedHashMap<>();
+        for (int i = 0; i < shortUrls.size(); i++) {
+            positionsByBucket.computeIfAbsent(bucket(MAPPING_PREFIX, shortUrls.get(i)), bucket -> new ArrayList<>()).add(i);
+        }
+
+        List<Object> bucketValues = redirectRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                for (List<Integer> positions : positionsByBucket.values()) {
+                    String firstShortUrl = shortUrls.get(positions.get(0));
+                    List<Object> fields = positions.stream().map(position -> (Object) field(shortUrls.get(position))).toList();
+                    ((RedisOperations<String, String>) operations).opsForHash().multiGet(bucket(MAPPING_PREFIX, firstShortUrl), fields);
+                }
+                return null;
+            }
+        });
+
+        String[] originalUrls = new String[shortUrls.size()];
+        int bucketIndex = 0;
+        for (List<Integer> positions : positionsByBucket.values()) {
+            List<?> values = (List<?>) bucketValues.get(bucketIndex++);
+            for (int i = 0; i < positions.size(); i++) {
+                originalUrls[positions.get(i)] = unwrap((String) values.get(i));
+            }
+        }
+        return Arrays.asList(originalUrls);
+    }
+
+    /**
+     * Looks up the shortened URL of an original URL. The mapping of its generated short URL and its reverse entry
+     * are read in one pipelined round trip; a reverse entry pointing elsewhere is verified against that mapping.
+     *
+     * @param originalUrl the original URL
+     * @return the shortened URL, or null if not cached or expired
+     */
+    @Override
+    public String getShortUrl(String originalUrl) {
+        String generatedShortUrl = UrlUtil.generateShortUrl(originalUrl);
+        String urlHash = UrlUtil.hashUrl(originalUrl, URL_HASH_LENGTH);
+        List<Object> values = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                stringOperations.opsForHash().get(bucket(MAPPING_PREFIX, generatedShortUrl), field(generatedShortUrl));
+                stringOperations.opsForHash().get(bucket(REVERSE_PREFIX, urlHash), field(urlHash));
+                return null;
+            }
+        });
+
+        if (originalUrl.equals(unwrap((String) values.get(0)))) {
+            return generatedShortUrl;
+        }
+        String shortUrl = unwrap((String) values.get(1));
+        if (shortUrl == null || shortUrl.equals(generatedShortUrl) || !originalUrl.equals(getOriginalUrl(redisTemplate, shortUrl))) {
+            return null;
+        }
+        return shortUrl;
+    }
+
+    /**
+     * Stores the original URL in the mapping bucket of the shortened URL.
+     *
+     * @param shortUrl    the shortened URL
+     * @param originalUrl the original URL
+     * @param ttl         how long the mapping is cached
+     */
+    @Override
+    public void putOriginalUrl(String shortUrl, String originalUrl, Duration ttl) {
+        put(bucket(MAPPING_PREFIX, shortUrl), field(shortUrl), originalUrl, ttl);
+    }
+
+    /**
+     * Caches the shortened URL of an original URL. The mapping itself is stored, as it is needed to verify reverse lookups;
+     * a reverse entry is only added for short URLs that were not generated from the original URL.
+     *
+     * @param originalUrl the original URL
+     * @param shortUrl    the shortened URL
+     * @param ttl         how long the mapping is cached
+     */
+    @Override
+    public void putShortUrl(String originalUrl, String shortUrl, Duration ttl) {
+        putOriginalUrl(shortUrl, originalUrl, ttl);
+        if (!shortUrl.equals(UrlUtil.generateShortUrl(originalUrl))) {
+            String urlHash = UrlUtil.hashUrl(originalUrl, URL_HASH_LENGTH);
+            put(bucket(REVERSE_PREFIX, urlHash), field(urlHash), shortUrl, ttl);
+        }
+    }
+
+    /**
+     * Caches several mappings in both directions with pipelined script calls. Within a pipeline the script cannot fall back
+     * from EVALSHA to EVAL when Redis does not know it yet, so the script is always sent with EVAL.
+     *
+     * @param mappings the URL mappings and how long each is cached
+     */
+    @Override
+    public void putAll(Map<UrlMapping, Duration> mappings) {
+        byte[] script = PUT_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            mappings.forEach((mapping, ttl) -> {
+                eval(connection, script, bucket(MAPPING_PREFIX, mapping.shortUrl()), putArgs(field(mapping.shortUrl()), mapping.originalUrl(), ttl));
+                if (!mapping.shortUrl().equals(UrlUtil.generateShortUrl(mapping.originalUrl()))) {
+                    String urlHash = UrlUtil.hashUrl(mapping.originalUrl(), URL_HASH_LENGTH);
+                    eval(connection, script, bucket(REVERSE_PREFIX, urlHash), putArgs(field(urlHash), mapping.shortUrl(), ttl));
+                }
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Increments the field of the shortened URL in its click count bucket. The increment that creates the field also adds
+     * the bucket prefix to the pending click bucket index, so further clicks on the link cost no index update.
+     *
+     * @param shortUrl the shortened URL
+     * @param clicks   the number of clicks
+     */
+    @Override
+    public void incrementClickCount(String shortUrl, long clicks) {
+        Long count = redisTemplate.opsForHash().increment(bucket(CLICKS_PREFIX, shortUrl), field(shortUrl), clicks);
+        if (count != null && count == clicks) {
+            String prefix = prefix(shortUrl);
+            redisTemplate.opsForZSet().add(RedisKeys.indexShard(PENDING_CLICK_BUCKETS_KEY, prefix), prefix, 0);
+        }
+    }
+
+    /**
+     * Indexes the click count buckets written by earlier versions, which predate the pending click bucket index, unless
+     * the index already exists. Buckets are found with a single SCAN; buckets without hash tag are moved to the tagged bucket.
+     * Failures are logged, as the buckets are indexed again at the next start.
+     */
+    public void indexClickCounts() {
+        try {
+            if (RedisKeys.isIndexed(redisTemplate, PENDING_CLICK_BUCKETS_KEY)) {
+                return;
+            }
+            ScanOptions options = ScanOptions.scanOptions().match(CLICKS_PREFIX + "*").count(SCAN_COUNT).type(DataType.HASH).build();
+            RedisKeys.forEachKey(redisTemplate, options, key -> {
+                String prefix = RedisKeys.stripHashTag(key.substring(CLICKS_PREFIX.length()));
+                if (key.equals(CLICKS_PREFIX + RedisKeys.hashTag(prefix))) {
+                    redisTemplate.opsForZSet().add(RedisKeys.indexShard(PENDING_CLICK_BUCKETS_KEY, prefix), prefix, 0);
+                    return;
+                }
+                List<?> entries = redisTemplate.execute(DRAIN_SCRIPT, List.of(key));
+                for (int i = 0; entries != null && i < entries.size(); i += 2) {
+                    incrementClickCount(prefix + entries.get(i), Long.parseLong((String) entries.get(i + 1)));
+                }
+            });
+        } catch (DataAccessException e) {
+            log.info("Could not index pending click counts: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the pending click counts of a short URL range bucket by bucket and hands each to the consumer.
+     * The buckets of the range are read from the pending click bucket index and read and deleted atomically by a script.
+     * With a prefix of at least two characters, every bucket lies entirely within one range. Each prefix is removed from
+     * the index before its bucket is drained, so a click recorded in between either is drained or indexes the bucket again.
+     *
+     * @param range    the short URL range
+     * @param consumer the consumer of the shortened URLs and their click counts
+     * @return the number of click counts handed to the consumer
+     */
+    @Override
+    public int drainClickCounts(CodeRange range, ObjIntConsumer<String> consumer) {
+        AtomicInteger drained = new AtomicInteger();
+        RedisKeys.forEachIndexed(redisTemplate, PENDING_CLICK_BUCKETS_KEY, range, (indexKey, prefix) -> {
+            redisTemplate.opsForZSet().remove(indexKey, prefix);
+            drained.addAndGet(drainBucket(CLICKS_PREFIX + RedisKeys.hashTag(prefix), prefix, consumer));
+        });
+        return drained.get();
+    }
+
+    /**
+     * Removes a click count bucket and hands its counts to the consumer. If the consumer fails,
+     * the failed count and the remaining ones are added back to the bucket, which is indexed again.
+     *
+     * @param key      the bucket key
+     * @param prefix   the short URL prefix of the bucket
+     * @param consumer the consumer of the shortened URLs and their click counts
+     * @return the number of click counts handed to the consumer
+     */
+    private int drainBucket(String key, String prefix, ObjIntConsumer<String> consumer) {
+        List<?> entries = redisTemplate.execute(DRAIN_SCRIPT, List.of(key));
+        if (entries == null) {
+            return 0;
+        }
+
+        for (int i = 0; i < entries.size(); i += 2) {
+            String shortUrl = prefix + entries.get(i);
+            try {
+                consumer.accept(shortUrl, Integer.parseInt((String) entries.get(i + 1)));
+            } catch (RuntimeException e) {
+                for (int j = i; j < entries.size(); j += 2) {
+                    incrementClickCount(prefix + entries.get(j), Long.parseLong((String) entries.get(j + 1)));
+                }
+                throw e;
+            }
+        }
+        return entries.size() / 2;
+    }
+
+    /**
+     * Looks up the original URL in the mapping bucket of the shortened URL.
+     *
+     * @param template the Redis template to read with
+     * @param shortUrl the shortened URL
+     * @return the original URL, or null if not cached or expired
+     */
+    private String getOriginalUrl(RedisTemplate<String, String> template, String shortUrl) {
+        return unwrap(template.<String, String>opsForHash().get(bucket(MAPPING_PREFIX, shortUrl), field(shortUrl)));
+    }
+
+    /**
+     * Stores an entry in a bucket together with its expiration time.
+     *
+     * @param bucket the bucket key
+     * @param field  the bucket field
+     * @param value  the value
+     * @param ttl    how long the entry is valid
+     */
+    private void put(String bucket, String field, String value, Duration ttl) {
+        redisTemplate.execute(PUT_SCRIPT, List.of(bucket), (Object[]) putArgs(field, value, ttl));
+    }
+
+    /**
+     * Builds the arguments of the put script for an entry.
+     *
+     * @param field the bucket field
+     * @param value the value
+     * @param ttl   how long the entry is valid
+     * @return the script arguments
+     */
+    private String[] putArgs(String field, String value, Duration ttl) {
+        long now = clock.instant().getEpochSecond();
+        long ttlSeconds = Math.max(1, ttl.toSeconds());
+        return new String[]{field, (now + ttlSeconds) + String.valueOf(EXPIRATION_SEPARATOR) + value,
+                String.valueOf(ttlSeconds), String.valueOf(now), String.valueOf(SWEEP_THRESHOLD)};
+    }
+
+    /**
+     * Sends the put script for a bucket entry with EVAL on the given connection.
+     *
+     * @param connection the connection, usually pipelined
+     * @param script     the script source
+     * @param bucket     the bucket key
+     * @param args       the script arguments
+     */
+    private static void eval(RedisConnection connection, byte[] script, String bucket, String[] args) {
+        byte[][] keysAndArgs = new byte[args.length + 1][];
+        keysAndArgs[0] = bucket.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < args.length; i++) {
+            keysAndArgs[i + 1] = args[i].getBytes(StandardCharsets.UTF_8);
+        }
+        connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1, keysAndArgs);
+    }
+
+    /**
+     * Strips the expiration time from a bucket value.
+     *
+     * @param value the bucket value
+     * @return the value without its expiration time, or null if there is no value or it has expired
+     */
+    private String unwrap(String value) {
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(EXPIRATION_SEPARATOR);
+        if (separator <= 0 || Long.parseLong(value, 0, separator, 10) <= clock.instant().getEpochSecond()) {
+            return null;
+        }
+        return value.substring(separator + 1);
+    }
+
+    /**
+     * Determines the bucket key of a short URL or URL hash.
+     *
+     * @param keyPrefix the key prefix of the bucket type
+     * @param code      the short URL or URL hash
+     * @return the bucket key, with the prefix as hash tag
+     */
+    private String bucket(String keyPrefix, String code) {
+        return keyPrefix + RedisKeys.hashTag(prefix(code));
+    }
+
+    /**
+     * Determines the bucket prefix of a short URL or URL hash.
+     *
+     * @param code the short URL or URL hash
+     * @return the leading characters of the code selecting its bucket
+     */
+    private String prefix(String code) {
+        return code.substring(0, Math.min(prefixLength, code.length()));
+    }
+
+    /**
+     * Determines the bucket field of a short URL or URL hash.
+     *
+     * @param code the short URL or URL hash
+     * @return the part of the code after the bucket prefix
+     */
+    private String field(String code) {
+        return code.substring(Math.min(prefixLength, code.length()));
+    }
+}
@@ -0,0 +1,185 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.scheduling.CodeRange;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Utility class for Redis keys that work on both a standalone Redis and a Redis Cluster.
+ */
+final class RedisKeys {
+    private static final int INDEX_PAGE_SIZE = 1000;
+    private static final String CODE_CHARACTERS = "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+
+    private RedisKeys() {
+    }
+
+    /**
+     * Wraps a short URL or bucket prefix in a hash tag. Redis Cluster only hashes the part between the braces,
+     * so all keys tagged with the same code are stored in the same slot.
+     *
+     * @param code the short URL or bucket prefix
+     * @return the hash tag
+     */
+    static String hashTag(String code) {
+        return "{" + code + "}";
+    }
+
+    /**
+     * Removes the hash tag around a code, if any. Keys written before hash tags were introduced carry the bare code.
+     *
+     * @param taggedCode the code, with or without hash tag
+     * @return the bare code
+     */
+    static String stripHashTag(String taggedCode) {
+        if (taggedCode.length() >= 2 && taggedCode.charAt(0) == '{' && taggedCode.charAt(taggedCode.length() - 1) == '}') {
+            return taggedCode.substring(1, taggedCode.length() - 1);
+        }
+        return taggedCode;
+    }
+
+    /**
+     * Iterates the keys matching the scan options with SCAN. A Redis Cluster cannot be scanned as a whole,
+     * so every master node is scanned in turn; nodes marked as failed are skipped.
+     *
+     * @param redisTemplate the Redis template
+     * @param options       the scan options
+     * @param action        the action performed for each key
+     */
+    static void forEachKey(RedisTemplate<String, String> redisTemplate, ScanOptions options, Consumer<String> action) {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            if (connection instanceof RedisClusterConnection clusterConnection) {
+                for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+                    if (node.isMaster() && !node.isMarkedAsFail()) {
+                        forEachKey(clusterConnection.scan(node, options), action);
+                    }
+                }
+            } else {
+                forEachKey(connection.keyCommands().scan(options), action);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the key of the index shard holding a code. An index is split into one sorted set per leading character of
+     * the codes of generated and loaded short URLs, hash-tagged with that character, so on a Redis Cluster its writes are
+     * spread over as many slots instead of all hitting one. Codes starting with any other character, and the entries
+     * written by earlier versions, are held by the unsharded index key.
+     *
+     * @param indexKey the key of the index
+     * @param code     the short URL or bucket prefix
+     * @return the key of the index shard
+     */
+    static String indexShard(String indexKey, String code) {
+        if (code.isEmpty() || CODE_CHARACTERS.indexOf(code.charAt(0)) < 0) {
+            return indexKey;
+        }
+        return indexKey + ":" + hashTag(code.substring(0, 1));
+    }
+
+    /**
+     * Checks whether any shard of an index exists.
+     *
+     * @param redisTemplate the Redis template
+     * @param indexKey      the key of the index
+     * @return true if an index shard exists, false otherwise
+     */
+    static boolean isIndexed(RedisTemplate<String, String> redisTemplate, String indexKey) {
+        for (String shardKey : indexShards(indexKey, new CodeRange(null, null))) {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(shardKey))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Iterates the members of a code range in an index, visiting the index shards whose leading character the range
+     * covers and then the unsharded index key. Every shard is a sorted set whose members all have score 0 and are therefore
+     * ordered lexicographically like the codes themselves. Members are read with ZRANGEBYLEX one page at a time,
+     * each page starting after the last member of the previous one, so the action may remove the members it is given.
+     *
+     * @param redisTemplate the Redis template
+     * @param indexKey      the key of the index
+     * @param range         the code range
+     * @param action        the action performed for each member, given the key of its index shard and the member
+     */
+    static void forEachIndexed(RedisTemplate<String, String> redisTemplate, String indexKey, CodeRange range,
+                               BiConsumer<String, String> action) {
+        for (String shardKey : indexShards(indexKey, range)) {
+            forEachIndexedInShard(redisTemplate, shardKey, range, member -> action.accept(shardKey, member));
+        }
+    }
+
+    /**
+     * Returns the keys of the index shards that may hold codes of a range, followed by the unsharded index key.
+     *
+     * @param indexKey the key of the index
+     * @param range    the code range
+     * @return the keys of the index shards
+     */
+    private static List<String> indexShards(String indexKey, CodeRange range) {
+        List<String> shardKeys = new ArrayList<>();
+        for (char character : CODE_CHARACTERS.toCharArray()) {
+            String first = String.valueOf(character);
+            if ((range.from() == null || range.from().charAt(0) <= character) && (range.to() == null || range.to().compareTo(first) > 0)) {
+                shardKeys.add(indexKey + ":" + hashTag(first));
+            }
+        }
+        shardKeys.add(indexKey);
+        return shardKeys;
+    }
+
+    /**
+     * Iterates the members of a code range in a single index shard.
+     *
+     * @param redisTemplate the Redis template
+     * @param shardKey      the key of the index shard
+     * @param range         the code range
+     * @param action        the action performed for each member
+     */
+    private static void forEachIndexedInShard(RedisTemplate<String, String> redisTemplate, String shardKey, CodeRange range,
+                                              Consumer<String> action) {
+        Range.Bound<String> lower = range.from() == null ? Range.Bound.unbounded() : Range.Bound.inclusive(range.from());
+        Range.Bound<String> upper = range.to() == null ? Range.Bound.unbounded() : Range.Bound.exclusive(range.to());
+        Set<String> members;
+        do {
+            members = redisTemplate.opsForZSet().rangeByLex(shardKey, Range.of(lower, upper), Limit.limit().count(INDEX_PAGE_SIZE));
+            if (members == null) {
+                return;
+            }
+            for (String member : members) {
+                action.accept(member);
+                lower = Range.Bound.exclusive(member);
+            }
+        } while (members.size() == INDEX_PAGE_SIZE);
+    }
+
+    /**
+     * Performs the action for each key of a scan cursor and closes the cursor.
+     *
+     * @param keys   the scan cursor
+     * @param action the action performed for each key
+     */
+    private static void forEachKey(Cursor<byte[]> keys, Consumer<String> action) {
+        try (keys) {
+            while (keys.hasNext()) {
+                action.accept(new String(keys.next(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.scheduling.CodeRange;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * URL cache storing every mapping direction and every pending click count in its own string key:
+ * {@code <shortUrl>}, {@code <originalUrl>} and {@code clicks:{<shortUrl>}}.
+ * The click count key hashes only its tagged short URL, so on a Redis Cluster it lives in the slot of the mapping.
+ * The short URLs with a pending click count are indexed in the sorted sets {@code pending-clicks:{<first character>}},
+ * so the counts of a short URL range are found without scanning the keyspace and index updates are spread over the
+ * slots of a Redis Cluster.
+ */
+@Slf4j
+@AllArgsConstructor
+public class StringKeyUrlCache implements UrlCache {
+    static final String CLICKS_PREFIX = "clicks:";
+    static final String PENDING_CLICKS_KEY = "pending-clicks";
+    private static final int SCAN_COUNT = 1000;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisTemplate<String, String> redirectRedisTemplate;
+
+    /**
+     * Creates a cache serving redirect lookups through the same template as all other commands.
+     *
+     * @param redisTemplate the Redis template
+     */
+    public StringKeyUrlCache(RedisTemplate<String, String> redisTemplate) {
+        this(redisTemplate, redisTemplate);
+    }
+
+    /**
+     * Looks up the original URL stored under the shortened URL key through the redirect template.
+     *
+     * @param shortUrl the shortened URL
+     * @return the original URL, or null if not cached
+     */
+    @Override
+    public String getOriginalUrl(String shortUrl) {
+        return redirectRedisTemplate.opsForValue().get(shortUrl);
+    }
+
+    /**
+     * Looks up the original URLs stored under the shortened URL keys with a single MGET through the redirect template.
+     * On a Redis Cluster, the MGET is split by slot.
+     *
+     * @param shortUrls the shortened URLs
+     * @return the original URLs in the order of the shortened URLs, with null for those not cached
+     */
+    @Override
+    public List<String> getOriginalUrls(List<String> shortUrls) {
+        return redirectRedisTemplate.opsForValue().multiGet(shortUrls);
+    }
+
+    /**
+     * Looks up the shortened URL stored under the original URL key.
+     *
+     * @param originalUrl the original URL
+     * @return the shortened URL, or null if not cached
+     */
+    @Override
+    public String getShortUrl(String originalUrl) {
+        return redisTemplate.opsForValue().get(originalUrl);
+    }
+
+    /**
+     * Stores the original URL under the shortened URL key.
+     *
+     * @param shortUrl    the shortened URL
+     * @param originalUrl the original URL
+     * @param ttl         how long the mapping is cached
+     */
+    @Override
+    public void putOriginalUrl(String shortUrl, String originalUrl, Duration ttl) {
+        redisTemplate.opsForValue().set(shortUrl, originalUrl, ttl);
+    }
+
+    /**
+     * Stores the shortened URL under the original URL key.
+     *
+     * @param originalUrl the original URL
+     * @param shortUrl    the shortened URL
+     * @param ttl         how long the mapping is cached
+     */
+    @Override
+    public void putShortUrl(String originalUrl, String shortUrl, Duration ttl) {
+        redisTemplate.opsForValue().set(originalUrl, shortUrl, ttl);
+    }
+
+    /**
+     * Stores both keys of every mapping with pipelined SETs.
+     *
+     * @param mappings the URL mappings and how long each is cached
+     */
+    @Override
+    public void putAll(Map<UrlMapping, Duration> mappings) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                mappings.forEach((mapping, ttl) -> {
+                    stringOperations.opsForValue().set(mapping.shortUrl(), mapping.originalUrl(), ttl);
+                    stringOperations.opsForValue().set(mapping.originalUrl(), mapping.shortUrl(), ttl);
+                });
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Increments the click count key of the shortened URL. The increment that creates the key also adds the short URL
+     * to the pending click index, so a link clicked many times per flush costs a single index update.
+     *
+     * @param shortUrl the shortened URL
+     * @param clicks   the number of clicks
+     */
+    @Override
+    public void incrementClickCount(String shortUrl, long clicks) {
+        Long count = redisTemplate.opsForValue().increment(CLICKS_PREFIX + RedisKeys.hashTag(shortUrl), clicks);
+        if (count != null && count == clicks) {
+            redisTemplate.opsForZSet().add(RedisKeys.indexShard(PENDING_CLICKS_KEY, shortUrl), shortUrl, 0);
+        }
+    }
+
+    /**
+     * Indexes the click count keys written by earlier versions, which predate the pending click index, unless the index
+     * already exists. Keys are found with a single SCAN; keys without hash tag are moved to the tagged key.
+     * Failures are logged, as the keys are indexed again at the next start.
+     */
+    public void indexClickCounts() {
+        try {
+            if (RedisKeys.isIndexed(redisTemplate, PENDING_CLICKS_KEY)) {
+                return;
+            }
+            ScanOptions options = ScanOptions.scanOptions().match(CLICKS_PREFIX + "*").count(SCAN_COUNT).type(DataType.STRING).build();
+            RedisKeys.forEachKey(redisTemplate, options, key -> {
+                String shortUrl = RedisKeys.stripHashTag(key.substring(CLICKS_PREFIX.length()));
+                if (key.equals(CLICKS_PREFIX + RedisKeys.hashTag(shortUrl))) {
+                    redisTemplate.opsForZSet().add(RedisKeys.indexShard(PENDING_CLICKS_KEY, shortUrl), shortUrl, 0);
+                    return;
+                }
+                String count = redisTemplate.opsForValue().getAndDelete(key);
+                if (count != null) {
+                    incrementClickCount(shortUrl, Long.parseLong(count));
+                }
+            });
+        } catch (DataAccessException e) {
+            log.info("Could not index pending click counts: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the pending click counts of a short URL range and hands each to the consumer.
+     * The short URLs of the range are read from the pending click index. Each is removed from the index before its count
+     * is read and removed with GETDEL, so a click recorded in between either is part of the count or indexes the short URL again.
+     *
+     * @param range    the short URL range
+     * @param consumer the consumer of the shortened URLs and their click counts
+     * @return the number of click counts handed to the consumer
+     */
+    @Override
+    public int drainClickCounts(CodeRange range, ObjIntConsumer<String> consumer) {
+        AtomicInteger drained = new AtomicInteger();
+        RedisKeys.forEachIndexed(redisTemplate, PENDING_CLICKS_KEY, range, (indexKey, shortUrl) -> {
+            redisTemplate.opsForZSet().remove(indexKey, shortUrl);
+            String count = redisTemplate.opsForValue().getAndDelete(CLICKS_PREFIX + RedisKeys.hashTag(shortUrl));
+            if (count != null) {
+                int clickCount = Integer.parseInt(count);
+                try {
+                    consumer.accept(shortUrl, clickCount);
+                    drained.incrementAndGet();
+                } catch (RuntimeException e) {
+                    incrementClickCount(shortUrl, clickCount);
+                    throw e;
+                }
+            }
+        });
+        return drained.get();
+    }
+}
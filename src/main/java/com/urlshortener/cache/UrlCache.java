@@ -0,0 +1,85 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.scheduling.CodeRange;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Redis cache of URL mappings in both directions and of click counts not yet stored in the database.
+ */
+public interface UrlCache {
+
+    /**
+     * Looks up the original URL of a shortened URL.
+     *
+     * @param shortUrl the shortened URL
+     * @return the original URL, or null if not cached
+     */
+    String getOriginalUrl(String shortUrl);
+
+    /**
+     * Looks up the original URLs of several shortened URLs in one round trip.
+     *
+     * @param shortUrls the shortened URLs
+     * @return the original URLs in the order of the shortened URLs, with null for those not cached
+     */
+    List<String> getOriginalUrls(List<String> shortUrls);
+
+    /**
+     * Looks up the shortened URL of an original URL.
+     *
+     * @param originalUrl the original URL
+     * @return the shortened URL, or null if not cached
+     */
+    String getShortUrl(String originalUrl);
+
+    /**
+     * Caches the original URL of a shortened URL.
+     *
+     * @param shortUrl    the shortened URL
+     * @param originalUrl the original URL
+     * @param ttl         how long the mapping is cached
+     */
+    void putOriginalUrl(String shortUrl, String originalUrl, Duration ttl);
+
+    /**
+     * Caches the shortened URL of an original URL.
+     *
+     * @param originalUrl the original URL
+     * @param shortUrl    the shortened URL
+     * @param ttl         how long the mapping is cached
+     */
+    void putShortUrl(String originalUrl, String shortUrl, Duration ttl);
+
+    /**
+     * Caches several mappings in both directions, pipelining the writes into a single round trip
+     * (one per node on a Redis Cluster).
+     *
+     * @param mappings the URL mappings and how long each is cached
+     */
+    void putAll(Map<UrlMapping, Duration> mappings);
+
+    /**
+     * Adds clicks to the pending click count of a shortened URL.
+     *
+     * @param shortUrl the shortened URL
+     * @param clicks   the number of clicks
+     */
+    void incrementClickCount(String shortUrl, long clicks);
+
+    /**
+     * Removes the pending click counts of a short URL range and hands each to the consumer.
+     * Counts are removed atomically, so clicks recorded meanwhile are kept for the next drain.
+     * If the consumer fails, the failed count and the counts removed with it but not handed over yet are restored,
+     * and the exception is rethrown.
+     *
+     * @param range    the short URL range
+     * @param consumer the consumer of the shortened URLs and their click counts
+     * @return the number of click counts handed to the consumer
+     */
+    int drainClickCounts(CodeRange range, ObjIntConsumer<String> consumer);
+}
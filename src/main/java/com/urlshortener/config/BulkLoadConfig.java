@@ -0,0 +1,48 @@
+package com.urlshortener.config;
+
+import com.urlshortener.bulkload.BulkLoadRunner;
+import com.urlshortener.bulkload.BulkLoader;
+import com.urlshortener.cache.CacheTtlPolicy;
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.repository.UrlJdbcRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for bulk loading URL mappings.
+ */
+@Configuration
+public class BulkLoadConfig {
+
+    /**
+     * Creates the bulk loader of URL mappings.
+     *
+     * @param urlJdbcRepository       the JDBC repository inserting the mappings
+     * @param urlCache                the URL cache, primed on request
+     * @param cacheTtlPolicy          the policy deciding how long primed mappings are cached
+     * @param normalizationProperties the URL normalization properties
+     * @param bulkLoadProperties      the bulk load properties
+     * @param shardingProperties      the sharding properties, telling whether loaded links are indexed by original URL
+     * @return the bulk loader
+     */
+    @Bean
+    public BulkLoader bulkLoader(UrlJdbcRepository urlJdbcRepository, UrlCache urlCache, CacheTtlPolicy cacheTtlPolicy,
+                                 UrlNormalizationProperties normalizationProperties, BulkLoadProperties bulkLoadProperties,
+                                 ShardingProperties shardingProperties) {
+        return new BulkLoader(urlJdbcRepository, urlCache, cacheTtlPolicy, normalizationProperties, bulkLoadProperties,
+                shardingProperties.isEnabled());
+    }
+
+    /**
+     * Creates the runner loading URL mappings from a file when started with --bulk-load=&lt;file&gt;.
+     *
+     * @param bulkLoader the bulk loader
+     * @param context    the application context, closed after the load
+     * @return the bulk load runner
+     */
+    @Bean
+    public BulkLoadRunner bulkLoadRunner(BulkLoader bulkLoader, ConfigurableApplicationContext context) {
+        return new BulkLoadRunner(bulkLoader, context);
+    }
+}
@@ -0,0 +1,26 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Period;
+
+/**
+ * Configuration properties for bulk loading URL mappings from a file.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.bulk-load")
+public class BulkLoadProperties {
+    /**
+     * The number of records inserted per transaction. A checkpoint is written after every batch.
+     */
+    private int batchSize = 10_000;
+
+    /**
+     * How long loaded URLs without an expiration date stay valid after the load,
+     * the same as URLs shortened through the API by default.
+     */
+    private Period defaultValidity = Period.ofMonths(3);
+}
@@ -0,0 +1,60 @@
+package com.urlshortener.config;
+
+import com.urlshortener.cache.CacheLayoutMigrationRunner;
+import com.urlshortener.cache.CacheLayoutMigrator;
+import com.urlshortener.cache.HashBucketUrlCache;
+import com.urlshortener.cache.StringKeyUrlCache;
+import com.urlshortener.cache.UrlCache;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Configuration class for the Redis layout of the URL cache.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Creates the URL cache in the configured layout.
+     *
+     * @param redisTemplate         the Redis template
+     * @param redirectRedisTemplate the Redis template serving redirect lookups
+     * @param cacheProperties       the cache properties
+     * @return the URL cache
+     */
+    @Bean
+    public UrlCache urlCache(RedisTemplate<String, String> redisTemplate,
+                             @Qualifier("redirectRedisTemplate") RedisTemplate<String, String> redirectRedisTemplate,
+                             CacheProperties cacheProperties) {
+        return switch (cacheProperties.getLayout()) {
+            case STRINGS -> {
+                StringKeyUrlCache urlCache = new StringKeyUrlCache(redisTemplate, redirectRedisTemplate);
+                urlCache.indexClickCounts();
+                yield urlCache;
+            }
+            case HASH_BUCKETS -> {
+                HashBucketUrlCache urlCache = new HashBucketUrlCache(redisTemplate, redirectRedisTemplate, cacheProperties.getBucketPrefixLength());
+                urlCache.checkEncodingLimits();
+                urlCache.indexClickCounts();
+                yield urlCache;
+            }
+        };
+    }
+
+    /**
+     * Creates the runner migrating the string layout to the configured layout when started with --migrate-cache-layout.
+     *
+     * @param redisTemplate the Redis template
+     * @param urlCache      the URL cache in the configured layout
+     * @param context       the application context, closed after the migration
+     * @return the cache layout migration runner
+     */
+    @Bean
+    public CacheLayoutMigrationRunner cacheLayoutMigrationRunner(RedisTemplate<String, String> redisTemplate, UrlCache urlCache,
+                                                                 ConfigurableApplicationContext context) {
+        return new CacheLayoutMigrationRunner(new CacheLayoutMigrator(redisTemplate, urlCache), context);
+    }
+}
@@ -0,0 +1,95 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for caching URL mappings in Redis.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.cache")
+public class CacheProperties {
+    /**
+     * The time to live of cached mappings. With adaptive TTLs, this is the time to live of warm mappings.
+     */
+    private Duration ttl = Duration.ofHours(1);
+
+    /**
+     * How mappings and pending click counts are laid out in Redis.
+     */
+    private Layout layout = Layout.STRINGS;
+
+    /**
+     * The number of leading short URL characters that select the hash bucket of a mapping in the hash bucket layout.
+     * Buckets should hold fewer entries than hash-max-listpack-entries, so each character supports 16 times more links.
+     */
+    private int bucketPrefixLength = 4;
+
+    /**
+     * Settings of time to live adapting to the access frequency of mappings.
+     */
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * The Redis memory the cache aims to stay within, or null for no budget.
+     * While Redis uses more, the time to live of newly cached warm and hot mappings is scaled down.
+     */
+    private DataSize memoryBudget;
+
+    /**
+     * Layout of the cache in Redis.
+     */
+    public enum Layout {
+        /**
+         * One string key per mapping direction and per pending click count.
+         */
+        STRINGS,
+
+        /**
+         * Small hashes bucketed by short URL prefix, which Redis stores in its compact listpack encoding.
+         */
+        HASH_BUCKETS
+    }
+
+    /**
+     * Settings of time to live adapting to the access frequency of mappings.
+     */
+    @Getter
+    @Setter
+    public static class Adaptive {
+        /**
+         * Whether the time to live of cached mappings depends on how often they were accessed recently.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The time to live of rarely accessed mappings.
+         */
+        private Duration coldTtl = Duration.ofMinutes(5);
+
+        /**
+         * The time to live of frequently accessed mappings.
+         */
+        private Duration hotTtl = Duration.ofHours(24);
+
+        /**
+         * The number of recent accesses on this instance from which a mapping is warm.
+         */
+        private int warmThreshold = 3;
+
+        /**
+         * The number of recent accesses on this instance from which a mapping is hot.
+         */
+        private int hotThreshold = 100;
+
+        /**
+         * The period after which recorded access counts are halved, so old accesses fade out.
+         */
+        private Duration halfLife = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,39 @@
+package com.urlshortener.config;
+
+import com.urlshortener.export.UrlExportRunner;
+import com.urlshortener.export.UrlExporter;
+import com.urlshortener.repository.UrlJdbcRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for exporting URL mappings.
+ */
+@Configuration
+public class ExportConfig {
+
+    /**
+     * Creates the exporter of URL mappings.
+     *
+     * @param urlJdbcRepository the JDBC repository streaming the mappings
+     * @param exportProperties  the export properties
+     * @return the URL exporter
+     */
+    @Bean
+    public UrlExporter urlExporter(UrlJdbcRepository urlJdbcRepository, ExportProperties exportProperties) {
+        return new UrlExporter(urlJdbcRepository, exportProperties.getFetchSize());
+    }
+
+    /**
+     * Creates the runner exporting the URL mappings to a file when started with --export=&lt;file&gt;.
+     *
+     * @param urlExporter the URL exporter
+     * @param context     the application context, closed after the export
+     * @return the URL export runner
+     */
+    @Bean
+    public UrlExportRunner urlExportRunner(UrlExporter urlExporter, ConfigurableApplicationContext context) {
+        return new UrlExportRunner(urlExporter, context);
+    }
+}
@@ -0,0 +1,28 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for exporting URL mappings.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.export")
+public class ExportProperties {
+    /**
+     * Whether the export endpoint is served. It requires {@link #adminToken} to be set.
+     */
+    private boolean endpointEnabled = false;
+
+    /**
+     * The token clients of the export endpoint send as bearer token in the Authorization header.
+     */
+    private String adminToken;
+
+    /**
+     * The number of rows fetched from the database per round trip.
+     */
+    private int fetchSize = 1000;
+}
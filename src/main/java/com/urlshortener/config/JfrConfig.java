@@ -0,0 +1,26 @@
+package com.urlshortener.config;
+
+import com.urlshortener.profiling.OperationTimingAspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the JFR events of the URL shortener.
+ * The events are always emitted while a recording enables them; the aspect adds their Redis and database sub-durations.
+ */
+@Configuration
+public class JfrConfig {
+
+    /**
+     * Creates the aspect timing Redis and database calls of profiled operations.
+     * While no recording enables the events, it only checks a thread-local per call.
+     *
+     * @return the operation timing aspect
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "url-shortener.jfr", name = "sub-durations", havingValue = "true", matchIfMissing = true)
+    public OperationTimingAspect operationTimingAspect() {
+        return new OperationTimingAspect();
+    }
+}
@@ -0,0 +1,80 @@
+package com.urlshortener.config;
+
+import com.urlshortener.ratelimit.ClientRateLimiter;
+import com.urlshortener.ratelimit.RateLimitEndpoint;
+import com.urlshortener.ratelimit.RateLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration class for rate limiting the shortening endpoint per API key or client IP address.
+ * Rejected requests are answered with 429 and a Retry-After header by the global exception handler.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "url-shortener.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    /**
+     * Creates the rate limiter holding the local token buckets and reconciling them through Redis.
+     *
+     * @param redisTemplate the Redis template
+     * @param properties    the rate limit properties
+     * @param meterRegistry the meter registry
+     * @return the client rate limiter
+     */
+    @Bean
+    public ClientRateLimiter clientRateLimiter(RedisTemplate<String, String> redisTemplate, RateLimitProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new ClientRateLimiter(redisTemplate, properties, meterRegistry);
+    }
+
+    /**
+     * Creates the interceptor charging shortening requests to their client.
+     *
+     * @param clientRateLimiter the rate limiter
+     * @param properties        the rate limit properties
+     * @return the rate limit interceptor
+     */
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor(ClientRateLimiter clientRateLimiter, RateLimitProperties properties) {
+        return new RateLimitInterceptor(clientRateLimiter, properties);
+    }
+
+    /**
+     * Registers the interceptor for the shortening endpoint.
+     *
+     * @param rateLimitInterceptor the rate limit interceptor
+     * @return the MVC configurer
+     */
+    @Bean
+    public WebMvcConfigurer rateLimitWebMvcConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            /**
+             * Adds the interceptor for POST /api/shorten.
+             *
+             * @param registry the interceptor registry
+             */
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/shorten");
+            }
+        };
+    }
+
+    /**
+     * Creates the actuator endpoint showing the limits and bucket states.
+     *
+     * @param clientRateLimiter the rate limiter
+     * @param properties        the rate limit properties
+     * @return the rate limit endpoint
+     */
+    @Bean
+    public RateLimitEndpoint rateLimitEndpoint(ClientRateLimiter clientRateLimiter, RateLimitProperties properties) {
+        return new RateLimitEndpoint(clientRateLimiter, properties);
+    }
+}
@@ -0,0 +1,85 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for rate limiting the shortening endpoint per client.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.rate-limit")
+public class RateLimitProperties {
+    /**
+     * Whether shortening requests are limited by a token bucket per API key or client IP address.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The request header carrying the API key of a client.
+     */
+    private String apiKeyHeader = "X-API-Key";
+
+    /**
+     * The limit of every IP address sending requests without a known API key.
+     */
+    private Limit ip = new Limit();
+
+    /**
+     * The clients identified by an API key, each with its own limit.
+     */
+    private List<ApiKey> apiKeys = new ArrayList<>();
+
+    /**
+     * The number of independently locked stripes of the local bucket map.
+     */
+    private int stripes = 64;
+
+    /**
+     * The maximum number of buckets held locally. The least recently used bucket of a stripe is dropped first.
+     */
+    private int maxBuckets = 100_000;
+
+    /**
+     * The interval in milliseconds at which the local buckets are reconciled through Redis.
+     */
+    private long syncIntervalMs = 1000;
+
+    /**
+     * A token bucket limit: a burst of up to the capacity, refilled at a steady rate.
+     */
+    @Getter
+    @Setter
+    public static class Limit {
+        /**
+         * The maximum number of requests a client can send at once.
+         */
+        private int capacity = 20;
+
+        /**
+         * The number of requests per second a client can sustain. Must be positive.
+         */
+        private double refillPerSecond = 2;
+    }
+
+    /**
+     * A client identified by an API key. Only the name is shown in metrics, logs and Redis keys.
+     */
+    @Getter
+    @Setter
+    public static class ApiKey extends Limit {
+        /**
+         * The name of the client.
+         */
+        private String name;
+
+        /**
+         * The API key the client sends in the API key header.
+         */
+        private String key;
+    }
+}
@@ -0,0 +1,60 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for routing read-only queries to database read replicas.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.datasource.read-replicas")
+public class ReadReplicaProperties {
+    /**
+     * Whether read-only transactions are routed to the configured replicas.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The replicas that serve read-only transactions.
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Replicas lagging behind the primary by more than this are skipped until they catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Query returning the replication lag of a replica in seconds.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    /**
+     * Connection settings of a single read replica.
+     */
+    @Getter
+    @Setter
+    public static class Replica {
+        /**
+         * The JDBC URL of the replica.
+         */
+        private String url;
+
+        /**
+         * The username for the replica, defaults to the primary username.
+         */
+        private String username;
+
+        /**
+         * The password for the replica, defaults to the primary password.
+         */
+        private String password;
+    }
+}
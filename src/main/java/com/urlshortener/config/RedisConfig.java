@@ -1,39 +1,144 @@
 package com.urlshortener.config;
 
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
  * Configuration class for Redis.
+ * Connects to a standalone Redis, or to a Redis Cluster when {@code spring.data.redis.cluster.nodes} is set.
+ * On a cluster, the client follows topology changes and redirect lookups may be served by replicas.
  */
 @Configuration
 public class RedisConfig {
 
     /**
-     * Creates a LettuceConnectionFactory for connecting to Redis.
+     * Creates a LettuceConnectionFactory for connecting to Redis. On a cluster, all commands go to the masters.
      *
+     * @param redisProperties the Redis properties
      * @return a LettuceConnectionFactory instance
      */
     @Bean
-    public LettuceConnectionFactory redisConnectionFactory() {
-        return new LettuceConnectionFactory();
+    @Primary
+    public LettuceConnectionFactory redisConnectionFactory(RedisProperties redisProperties) {
+        return createConnectionFactory(redisProperties, null);
+    }
+
+    /**
+     * Creates a LettuceConnectionFactory for redirect lookups on a Redis Cluster, reading from the configured nodes.
+     * Replicas may lag behind their masters, which only delays cache hits for newly cached mappings.
+     *
+     * @param redisProperties         the Redis properties
+     * @param redisTopologyProperties the Redis topology properties
+     * @return a LettuceConnectionFactory instance
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.data.redis.cluster", name = "nodes")
+    public LettuceConnectionFactory redirectRedisConnectionFactory(RedisProperties redisProperties,
+                                                                  RedisTopologyProperties redisTopologyProperties) {
+        return createConnectionFactory(redisProperties, ReadFrom.valueOf(redisTopologyProperties.getRedirectReadFrom()));
     }
 
     /**
      * Creates a RedisTemplate for interacting with Redis.
-     * The template is configured to use String serializers for both keys and values.
+     * The template is configured to use String serializers for keys, values and hash fields.
+     *
+     * @param redisConnectionFactory the connection factory
+     * @return a RedisTemplate instance
+     */
+    @Bean
+    @Primary
+    public RedisTemplate<String, String> redisTemplate(LettuceConnectionFactory redisConnectionFactory) {
+        return createTemplate(redisConnectionFactory);
+    }
+
+    /**
+     * Creates a RedisTemplate for redirect lookups. It reads through the redirect connection factory on a cluster
+     * and through the default connection factory otherwise.
      *
+     * @param redisConnectionFactory         the default connection factory
+     * @param redirectRedisConnectionFactory the connection factory for redirect lookups, if any
      * @return a RedisTemplate instance
      */
     @Bean
-    public RedisTemplate<String, String> redisTemplate() {
+    public RedisTemplate<String, String> redirectRedisTemplate(
+            LettuceConnectionFactory redisConnectionFactory,
+            @Qualifier("redirectRedisConnectionFactory") ObjectProvider<LettuceConnectionFactory> redirectRedisConnectionFactory) {
+        return createTemplate(redirectRedisConnectionFactory.getIfAvailable(() -> redisConnectionFactory));
+    }
+
+    /**
+     * Creates a connection factory from the Redis properties.
+     *
+     * @param redisProperties the Redis properties
+     * @param readFrom        the nodes read commands are sent to on a cluster, or null for the masters
+     * @return the connection factory
+     */
+    private LettuceConnectionFactory createConnectionFactory(RedisProperties redisProperties, ReadFrom readFrom) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder clientConfiguration = LettuceClientConfiguration.builder();
+        if (redisProperties.getTimeout() != null) {
+            clientConfiguration.commandTimeout(redisProperties.getTimeout());
+        }
+
+        RedisProperties.Cluster cluster = redisProperties.getCluster();
+        if (cluster == null || cluster.getNodes() == null || cluster.getNodes().isEmpty()) {
+            RedisStandaloneConfiguration standaloneConfiguration = new RedisStandaloneConfiguration(redisProperties.getHost(), redisProperties.getPort());
+            standaloneConfiguration.setDatabase(redisProperties.getDatabase());
+            standaloneConfiguration.setUsername(redisProperties.getUsername());
+            standaloneConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+            return new LettuceConnectionFactory(standaloneConfiguration, clientConfiguration.build());
+        }
+
+        RedisClusterConfiguration clusterConfiguration = new RedisClusterConfiguration(cluster.getNodes());
+        if (cluster.getMaxRedirects() != null) {
+            clusterConfiguration.setMaxRedirects(cluster.getMaxRedirects());
+        }
+        clusterConfiguration.setUsername(redisProperties.getUsername());
+        clusterConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+
+        RedisProperties.Lettuce.Cluster.Refresh refresh = redisProperties.getLettuce().getCluster().getRefresh();
+        ClusterTopologyRefreshOptions.Builder refreshOptions = ClusterTopologyRefreshOptions.builder()
+                .dynamicRefreshSources(refresh.isDynamicRefreshSources());
+        if (refresh.getPeriod() != null) {
+            refreshOptions.enablePeriodicRefresh(refresh.getPeriod());
+        }
+        if (refresh.isAdaptive()) {
+            refreshOptions.enableAllAdaptiveRefreshTriggers();
+        }
+        clientConfiguration.clientOptions(ClusterClientOptions.builder().topologyRefreshOptions(refreshOptions.build()).build());
+        if (readFrom != null) {
+            clientConfiguration.readFrom(readFrom);
+        }
+        return new LettuceConnectionFactory(clusterConfiguration, clientConfiguration.build());
+    }
+
+    /**
+     * Creates a template using String serializers for keys, values and hash fields.
+     *
+     * @param connectionFactory the connection factory
+     * @return the template
+     */
+    private RedisTemplate<String, String> createTemplate(LettuceConnectionFactory connectionFactory) {
         RedisTemplate<String, String> template = new RedisTemplate<>();
-        template.setConnectionFactory(redisConnectionFactory());
+        template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
         template.setValueSerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setHashValueSerializer(new StringRedisSerializer());
         return template;
     }
 }
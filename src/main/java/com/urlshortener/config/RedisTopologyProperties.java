@@ -0,0 +1,20 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for reading from a Redis Cluster. The cluster nodes and topology refresh
+ * are configured with the standard {@code spring.data.redis.cluster.*} and {@code spring.data.redis.lettuce.cluster.*} properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.redis")
+public class RedisTopologyProperties {
+    /**
+     * The nodes redirect lookups are read from on a Redis Cluster, as a Lettuce ReadFrom setting such as
+     * replicaPreferred, replica, nearest or upstream. All other commands always go to the masters.
+     */
+    private String redirectReadFrom = "replicaPreferred";
+}
@@ -1,56 +1,117 @@
 package com.urlshortener.config;
 
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.profiling.OperationProfile;
+import com.urlshortener.profiling.ScheduledJobEvent;
+import com.urlshortener.repository.UrlJdbcRepository;
 import com.urlshortener.repository.UrlRepository;
+import com.urlshortener.scheduling.CodeRange;
+import com.urlshortener.scheduling.CycleAlignedTrigger;
+import com.urlshortener.scheduling.PartitionedJobRunner;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.function.ToIntFunction;
 
 /**
- * Scheduler configuration class for cleaning up expired URLs.
+ * Scheduler configuration class for cleaning up expired URLs and flushing click counts.
+ * Both jobs are split into short URL ranges that are claimed through the {@link PartitionedJobRunner},
+ * so with coordination enabled each range is processed by a single instance per cycle.
+ * Every range processed is recorded as a {@link ScheduledJobEvent}.
  * This class is managed by Spring as a component.
  */
 @Slf4j
 @Component
 @AllArgsConstructor
-public class SchedulerConfig {
-    private final RedisTemplate<String, String> redisTemplate;
+public class SchedulerConfig implements SchedulingConfigurer {
+    static final String CLEANUP_JOB = "cleanup-expired-urls";
+    static final String CLICK_FLUSH_JOB = "flush-click-counts";
+
+    private final UrlCache urlCache;
     private final UrlRepository urlRepository;
+    private final UrlJdbcRepository urlJdbcRepository;
+    private final PartitionedJobRunner partitionedJobRunner;
+    private final SchedulerProperties schedulerProperties;
+
+    /**
+     * Registers the jobs with triggers firing at the start of every job cycle, so all instances run them at the same time.
+     *
+     * @param taskRegistrar the registrar of scheduled tasks
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(this::cleanupExpiredUrls,
+                new CycleAlignedTrigger(schedulerProperties.getCleanup().getIntervalMs()));
+        taskRegistrar.addTriggerTask(this::flushClickCountsToDatabase,
+                new CycleAlignedTrigger(schedulerProperties.getClickFlush().getIntervalMs()));
+    }
 
     /**
      * Scheduled task to clean up expired URLs.
-     * This method is executed at a fixed interval defined by FIXED_RATE.
-     * It deletes URLs from the repository that have an expiration date before the current date and time.
+     * It deletes URLs that have an expiration date before the current date and time, in batches per claimed short URL range.
      */
-    @Scheduled(fixedRate = 86400000) // Every 24 hours
     public void cleanupExpiredUrls() {
         log.info("Cleaning up expired urls.");
-        urlRepository.deleteByExpirationDateBefore(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        partitionedJobRunner.run(CLEANUP_JOB, schedulerProperties.getCleanup(), range -> runProfiled(CLEANUP_JOB, range, claimedRange -> {
+            int deleted = urlJdbcRepository.deleteExpiredInRange(now, claimedRange, schedulerProperties.getCleanupBatchSize());
+            log.info("Deleted {} expired urls in range {}.", deleted, claimedRange);
+            return deleted;
+        }));
     }
 
     /**
      * Scheduled task to flush click counts to the database.
-     * This method is executed at a fixed interval defined by FIXED_RATE.
      * It retrieves click counts from Redis, increments the corresponding URL entities in the database, and clears the counts from Redis.
      */
-    @Scheduled(fixedRate = 60000) // Every 1 minute
     public void flushClickCountsToDatabase() {
-        Set<String> keys = redisTemplate.keys("clicks:*");
-
-        log.info("Flushing click counts to database for total {} urls.", keys.size());
-
-        for (String key : keys) {
-            String shortUrl = key.replace("clicks:", "");
-            String count = redisTemplate.opsForValue().get(key);
-            if (count != null) {
-                int clickCount = Integer.parseInt(count);
-                urlRepository.incrementClickCount(shortUrl, clickCount);
-                redisTemplate.delete(key); // Clear from Redis after persisting
-            }
+        partitionedJobRunner.run(CLICK_FLUSH_JOB, schedulerProperties.getClickFlush(),
+                range -> runProfiled(CLICK_FLUSH_JOB, range, this::flushClickCounts));
+    }
+
+    /**
+     * Flushes the click counts of a short URL range to the database.
+     * Counts are removed from the cache atomically, so clicks recorded during the flush are kept for the next cycle.
+     * If the database update fails, the cache restores the counts not yet stored.
+     *
+     * @param range the short URL range to flush
+     * @return the number of flushed click counts
+     */
+    private int flushClickCounts(CodeRange range) {
+        int flushed = urlCache.drainClickCounts(range, this::storeClickCount);
+        log.info("Flushed click counts to database for total {} urls in range {}.", flushed, range);
+        return flushed;
+    }
+
+    /**
+     * Adds a click count to its URL entity. A link shortened in write-behind mode is cached before it is stored,
+     * so if no entity matches but the link is still cached, the count is put back for the next cycle.
+     * Counts of links neither stored nor cached, e.g. deleted after expiring, are dropped.
+     *
+     * @param shortUrl the shortened URL
+     * @param clicks   the number of clicks
+     */
+    private void storeClickCount(String shortUrl, int clicks) {
+        if (urlRepository.incrementClickCount(shortUrl, clicks) == 0 && urlCache.getOriginalUrl(shortUrl) != null) {
+            urlCache.incrementClickCount(shortUrl, clicks);
+        }
+    }
+
+    /**
+     * Runs the work of a job for a range, recorded as a {@link ScheduledJobEvent}.
+     *
+     * @param job   the name of the job
+     * @param range the short URL range
+     * @param work  the work, returning the number of items processed
+     */
+    private void runProfiled(String job, CodeRange range, ToIntFunction<CodeRange> work) {
+        ScheduledJobEvent event = new ScheduledJobEvent(job, range);
+        try (OperationProfile profile = OperationProfile.start(event)) {
+            event.setItems(work.applyAsInt(range));
         }
     }
 }
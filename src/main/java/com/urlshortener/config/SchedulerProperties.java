@@ -0,0 +1,62 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the scheduled maintenance jobs and their coordination across instances.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.scheduler")
+public class SchedulerProperties {
+    /**
+     * Whether instances coordinate through Redis leases so each job partition runs once per cycle across the cluster.
+     * When disabled, every instance runs every job on its own.
+     */
+    private boolean coordinated = true;
+
+    /**
+     * Settings of the job deleting expired URLs.
+     */
+    private Job cleanup = new Job(86400000, 16);
+
+    /**
+     * Settings of the job flushing click counts from Redis to the database.
+     */
+    private Job clickFlush = new Job(60000, 4);
+
+    /**
+     * The maximum number of expired URLs deleted in one statement.
+     */
+    private int cleanupBatchSize = 5000;
+
+    /**
+     * Settings of a single scheduled job.
+     */
+    @Getter
+    @Setter
+    public static class Job {
+        /**
+         * The length of a job cycle in milliseconds. Cycles are aligned to the epoch, so all instances share them.
+         */
+        private long intervalMs;
+
+        /**
+         * The number of short URL ranges the job is split into. Each range is claimed by one instance per cycle.
+         */
+        private int partitions;
+
+        /**
+         * Creates the settings of a job.
+         *
+         * @param intervalMs the length of a job cycle in milliseconds
+         * @param partitions the number of short URL ranges the job is split into
+         */
+        public Job(long intervalMs, int partitions) {
+            this.intervalMs = intervalMs;
+            this.partitions = partitions;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.urlshortener.config;
+
+import com.urlshortener.datasource.*;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration class for sharding URL mappings across multiple databases.
+ * Each short URL is assigned to a shard by consistent hashing and repository calls are routed accordingly.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "url-shortener.datasource.sharding", name = "enabled", havingValue = "true")
+public class ShardingDataSourceConfig {
+
+    /**
+     * Creates the resolver assigning short URLs to shards.
+     *
+     * @param shardingProperties the sharding properties
+     * @return the shard resolver
+     */
+    @Bean
+    public ShardResolver shardResolver(ShardingProperties shardingProperties) {
+        return new ShardResolver(shardingProperties.getShards().stream().map(ShardingProperties.Shard::getName).toList(),
+                shardingProperties.getVirtualNodes());
+    }
+
+    /**
+     * Creates the routing data source over the connection pools of all shards.
+     *
+     * @param properties         the standard data source properties used as defaults for the shards
+     * @param shardingProperties the sharding properties
+     * @param environment        the environment
+     * @return the shard routing data source
+     */
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, ShardingProperties shardingProperties,
+                                                         Environment environment) {
+        if (environment.getProperty("url-shortener.datasource.read-replicas.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("Read replica routing cannot be combined with sharding");
+        }
+
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : shardingProperties.getShards()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(shard.getUrl())
+                    .username(shard.getUsername() != null ? shard.getUsername() : properties.determineUsername())
+                    .password(shard.getPassword() != null ? shard.getPassword() : properties.determinePassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shard.getName());
+            shards.put(shard.getName(), dataSource);
+        }
+
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * Exposes the shard routing data source to JPA. The lazy proxy defers fetching a physical connection
+     * until the first statement, after the repository call has been routed to its shard.
+     *
+     * @param shardRoutingDataSource the shard routing data source
+     * @return the data source used by the application
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Creates the aspect routing repository calls to shards.
+     *
+     * @param shardResolver the shard resolver
+     * @return the shard routing aspect
+     */
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect(ShardResolver shardResolver) {
+        return new ShardRoutingAspect(shardResolver);
+    }
+
+    /**
+     * Creates the tool moving URL mappings to their owning shards.
+     *
+     * @param shardRoutingDataSource the shard routing data source
+     * @param shardResolver          the shard resolver
+     * @param shardingProperties     the sharding properties
+     * @return the shard rebalancer
+     */
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardRoutingDataSource shardRoutingDataSource, ShardResolver shardResolver,
+                                           ShardingProperties shardingProperties) {
+        return new ShardRebalancer(shardRoutingDataSource.getShards(), shardResolver, shardingProperties.getRebalanceBatchSize());
+    }
+
+    /**
+     * Creates the runner rebalancing the shards when started with --rebalance-shards.
+     *
+     * @param shardRebalancer the shard rebalancer
+     * @param context         the application context
+     * @return the shard rebalance runner
+     */
+    @Bean
+    public ShardRebalanceRunner shardRebalanceRunner(ShardRebalancer shardRebalancer, ConfigurableApplicationContext context) {
+        return new ShardRebalanceRunner(shardRebalancer, context);
+    }
+}
@@ -0,0 +1,63 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for sharding URL mappings across multiple databases by short URL.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.datasource.sharding")
+public class ShardingProperties {
+    /**
+     * Whether URL mappings are sharded across the configured databases.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The shards. Shard names place the shards on the hash ring and must stay stable.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * The number of points each shard occupies on the consistent hash ring.
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * The number of rows read and moved at once by the shard rebalancer.
+     */
+    private int rebalanceBatchSize = 1000;
+
+    /**
+     * Connection settings of a single shard.
+     */
+    @Getter
+    @Setter
+    public static class Shard {
+        /**
+         * The stable name of the shard.
+         */
+        private String name;
+
+        /**
+         * The JDBC URL of the shard.
+         */
+        private String url;
+
+        /**
+         * The username for the shard, defaults to the spring.datasource username.
+         */
+        private String username;
+
+        /**
+         * The password for the shard, defaults to the spring.datasource password.
+         */
+        private String password;
+    }
+}
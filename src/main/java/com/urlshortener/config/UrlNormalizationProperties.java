@@ -0,0 +1,32 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for canonicalizing URLs before they are shortened.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.normalization")
+public class UrlNormalizationProperties {
+    /**
+     * Whether tracking query parameters are removed.
+     */
+    private boolean stripTrackingParams = false;
+
+    /**
+     * Names of the tracking query parameters; names ending with '*' match by prefix.
+     */
+    private List<String> trackingParams = new ArrayList<>(List.of(
+            "utm_*", "fbclid", "gclid", "dclid", "msclkid", "mc_cid", "mc_eid", "igshid", "yclid"));
+
+    /**
+     * Whether query parameters are sorted by name.
+     */
+    private boolean sortQueryParams = false;
+}
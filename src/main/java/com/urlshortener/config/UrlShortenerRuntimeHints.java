@@ -0,0 +1,48 @@
+package com.urlshortener.config;
+
+import com.urlshortener.dto.ResolveStatus;
+import com.urlshortener.dto.ResolvedUrlDto;
+import com.urlshortener.dto.ShortUrlClickStatsResponseDto;
+import com.urlshortener.dto.UrlResolveRequestDto;
+import com.urlshortener.dto.UrlResolveResponseDto;
+import com.urlshortener.dto.UrlShortenedRequestDto;
+import com.urlshortener.dto.UrlShortenedResponseDto;
+import com.urlshortener.model.OriginalUrlIndexEntry;
+import com.urlshortener.model.Url;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.validation.UrlValidator;
+import com.urlshortener.validation.ValidUrl;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Runtime hints for a GraalVM native image of the URL shortener, covering what is only reached by reflection:
+ * the entity, the request and response bodies bound by Jackson and the URL constraint with its validator.
+ * Spring AOT writes them to {@code META-INF/native-image} when the application is processed ahead of time.
+ */
+public class UrlShortenerRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * Registers the reflection and proxy hints.
+     *
+     * @param hints       the hints to contribute to
+     * @param classLoader the class loader, if any
+     */
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(Url.class,
+                MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(OriginalUrlIndexEntry.class,
+                MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                UrlMapping.class, ResolveStatus.class, ResolvedUrlDto.class, ShortUrlClickStatsResponseDto.class,
+                UrlResolveRequestDto.class, UrlResolveResponseDto.class, UrlShortenedRequestDto.class, UrlShortenedResponseDto.class);
+
+        hints.reflection().registerType(ValidUrl.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.proxies().registerJdkProxy(ValidUrl.class);
+        hints.reflection().registerType(UrlValidator.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
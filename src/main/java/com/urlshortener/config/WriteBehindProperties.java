@@ -0,0 +1,35 @@
+package com.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration properties for the write-behind shortening mode.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "url-shortener.write-behind")
+public class WriteBehindProperties {
+    /**
+     * Whether new URL mappings are journaled locally and written to the database in the background.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The directory holding the journal segments of mappings not yet written to the database.
+     */
+    private Path journalDirectory = Path.of("write-behind-journal");
+
+    /**
+     * Whether every journal append is forced to disk before the short URL is returned.
+     */
+    private boolean fsync = true;
+
+    /**
+     * The maximum number of mappings written to the database in one batch.
+     */
+    private int batchSize = 500;
+}
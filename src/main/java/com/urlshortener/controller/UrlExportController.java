@@ -0,0 +1,102 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.config.ExportProperties;
+import com.urlshortener.exception.AdminAuthenticationException;
+import com.urlshortener.export.ExportFilter;
+import com.urlshortener.export.ExportFormat;
+import com.urlshortener.export.UrlExporter;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+
+/**
+ * REST controller for administrative exports of URL mappings. Only served when the export endpoint is enabled,
+ * and only to clients sending the configured admin token.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@Slf4j
+@ConditionalOnProperty(prefix = "url-shortener.export", name = "endpoint-enabled", havingValue = "true")
+public class UrlExportController {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final UrlExporter urlExporter;
+    private final byte[] adminToken;
+
+    /**
+     * Creates the controller.
+     *
+     * @param urlExporter      the URL exporter
+     * @param exportProperties the export properties
+     * @throws IllegalStateException if no admin token is configured
+     */
+    public UrlExportController(UrlExporter urlExporter, ExportProperties exportProperties) {
+        if (exportProperties.getAdminToken() == null || exportProperties.getAdminToken().isBlank()) {
+            throw new IllegalStateException("url-shortener.export.admin-token must be set when the export endpoint is enabled");
+        }
+        this.urlExporter = urlExporter;
+        this.adminToken = exportProperties.getAdminToken().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Endpoint streaming the URL mappings and their click counts as NDJSON or CSV.
+     * Rows are written to the response as they are read, so the response is not buffered in memory.
+     *
+     * @param format         the output format, ndjson or csv
+     * @param createdFrom    the inclusive lower bound of the creation date
+     * @param createdTo      the exclusive upper bound of the creation date
+     * @param expiresFrom    the inclusive lower bound of the expiration date
+     * @param expiresTo      the exclusive upper bound of the expiration date
+     * @param includeExpired whether mappings that have already expired are exported
+     * @param authorization  the Authorization header carrying the admin token
+     * @param response       the response the mappings are written to
+     * @throws IOException                  if writing the response fails
+     * @throws AdminAuthenticationException if the admin token is missing or wrong
+     */
+    @GetMapping("/export")
+    public void exportUrls(@RequestParam(defaultValue = "ndjson") String format,
+                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiresFrom,
+                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiresTo,
+                           @RequestParam(defaultValue = "false") boolean includeExpired,
+                           @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                           HttpServletResponse response) throws IOException {
+        authenticate(authorization);
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        ExportFilter filter = new ExportFilter(createdFrom, createdTo, expiresFrom, expiresTo, includeExpired);
+        log.info("Received request to export urls matching {} as {}", filter, exportFormat);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"urls." + exportFormat.getFileExtension() + "\"");
+        long exported = urlExporter.export(filter, exportFormat, response.getOutputStream());
+
+        log.info("Exported {} urls", exported);
+    }
+
+    /**
+     * Checks the admin token of a request, comparing in constant time.
+     *
+     * @param authorization the Authorization header, or null if absent
+     * @throws AdminAuthenticationException if the header does not carry the admin token
+     */
+    private void authenticate(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)
+                || !MessageDigest.isEqual(adminToken, authorization.substring(BEARER_PREFIX.length()).getBytes(StandardCharsets.UTF_8))) {
+            throw new AdminAuthenticationException("A valid admin token is required");
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package com.urlshortener.controller;
 
-import com.urlshortener.dto.ShortUrlClickStatsResponseDto;
-import com.urlshortener.dto.UrlShortenedRequestDto;
-import com.urlshortener.dto.UrlShortenedResponseDto;
-import com.urlshortener.model.Url;
+import com.urlshortener.dto.*;
+import com.urlshortener.model.UrlMapping;
 import com.urlshortener.service.UrlShorteningService;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
@@ -47,11 +45,11 @@ public class UrlShorteningController {
     @GetMapping("/{shortenUrl}")
     public ResponseEntity<Void> redirectToOriginalUrl(@PathVariable String shortenUrl, HttpServletResponse response) {
         log.info("Received request to redirect: {}", shortenUrl);
-        Url originalUrl = urlShorteningService.getOriginalUrl(shortenUrl);
+        UrlMapping originalUrl = urlShorteningService.getOriginalUrl(shortenUrl);
 
-        log.info("Redirecting to: {}",originalUrl.getOriginalUrl());
+        log.info("Redirecting to: {}",originalUrl.originalUrl());
 
-        response.setHeader(HttpHeaders.LOCATION, originalUrl.getOriginalUrl());
+        response.setHeader(HttpHeaders.LOCATION, originalUrl.originalUrl());
         response.setStatus(HttpServletResponse.SC_FOUND); // 302 Redirect
 
         return ResponseEntity.status(HttpStatus.FOUND).build();
@@ -71,4 +69,18 @@ public class UrlShorteningController {
 
         return new ResponseEntity<>(responseDto, HttpStatus.OK);
     }
+
+    /**
+     * Endpoint to resolve a batch of shortened URLs without redirecting or counting clicks.
+     *
+     * @param requestDto the request DTO containing the shortened URLs
+     * @return the response DTO with the destination, expiration and status of every shortened URL
+     */
+    @PostMapping("/resolve")
+    public ResponseEntity<UrlResolveResponseDto> resolveUrls(@Valid @RequestBody UrlResolveRequestDto requestDto) {
+        log.info("Received request to resolve {} short urls", requestDto.getShortUrls().size());
+        UrlResolveResponseDto responseDto = urlShorteningService.resolveUrls(requestDto.getShortUrls());
+
+        return new ResponseEntity<>(responseDto, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,61 @@
+package com.urlshortener.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Periodically measures the replication lag of every replica and excludes lagging or unreachable
+ * replicas from read routing.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    /**
+     * Creates a monitor for the replicas of the given routing data source.
+     *
+     * @param routingDataSource the routing data source whose replicas are monitored
+     * @param lagQuery          the query returning the replication lag in seconds
+     * @param maxLag            the maximum tolerated replication lag
+     */
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, String lagQuery, Duration maxLag) {
+        this.routingDataSource = routingDataSource;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Scheduled task checking the replication lag of all replicas.
+     * This method is executed with a fixed delay defined by the lag-check-interval-ms property.
+     */
+    @Scheduled(fixedDelayString = "${url-shortener.datasource.read-replicas.lag-check-interval-ms:5000}")
+    public void checkReplicationLag() {
+        for (Map.Entry<String, DataSource> replica : routingDataSource.getReplicas().entrySet()) {
+            routingDataSource.setLagging(replica.getKey(), isLagging(replica.getKey(), replica.getValue()));
+        }
+    }
+
+    /**
+     * Checks whether the given replica lags behind the primary by more than the allowed maximum.
+     *
+     * @param name       the replica name
+     * @param dataSource the replica data source
+     * @return true if the replica is lagging or unreachable, false otherwise
+     */
+    private boolean isLagging(String name, DataSource dataSource) {
+        try {
+            Double lagSeconds = new JdbcTemplate(dataSource).queryForObject(lagQuery, Double.class);
+            return lagSeconds != null && lagSeconds * 1000 > maxLag.toMillis();
+        } catch (RuntimeException e) {
+            log.error("Failed to check replication lag of replica {}.", name, e);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.urlshortener.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routing data source sending read-only transactions to read replicas and everything else to the primary.
+ * Replicas are picked round-robin; replicas marked as lagging are skipped and when none is available
+ * the read falls back to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final Set<String> laggingReplicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Creates a routing data source over the given primary and replicas.
+     *
+     * @param primary  the primary data source
+     * @param replicas the replica data sources keyed by name
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+        this.replicaKeys = List.copyOf(this.replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Returns the replica data sources keyed by name.
+     *
+     * @return the replica data sources
+     */
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Marks a replica as lagging (excluded from routing) or caught up (included again).
+     *
+     * @param replica the replica name
+     * @param lagging whether the replica is lagging
+     */
+    public void setLagging(String replica, boolean lagging) {
+        boolean changed = lagging ? laggingReplicas.add(replica) : laggingReplicas.remove(replica);
+        if (changed) {
+            log.warn("Replica {} {} read routing.", replica, lagging ? "removed from" : "returned to");
+        }
+    }
+
+    /**
+     * Determines the target data source for the current transaction.
+     *
+     * @return the key of a healthy replica for read-only transactions, the primary key otherwise
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size());
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String replica = replicaKeys.get((start + i) % replicaKeys.size());
+            if (!laggingReplicas.contains(replica)) {
+                return replica;
+            }
+        }
+
+        return PRIMARY;
+    }
+
+    /**
+     * Closes the replica connection pools. The primary is owned and closed by its own bean.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.urlshortener.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread's database calls are routed to.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Returns the shard bound to the current thread.
+     *
+     * @return the shard name, or null if no shard is bound
+     */
+    public static String current() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Runs the given action with the given shard bound to the current thread.
+     *
+     * @param shard  the shard name
+     * @param action the action to run
+     * @param <T>    the result type
+     * @return the result of the action
+     */
+    public static <T> T callOn(String shard, Supplier<T> action) {
+        String previous = bind(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Binds the given shard to the current thread.
+     *
+     * @param shard the shard name
+     * @return the previously bound shard, to be passed to {@link #restore(String)}
+     */
+    static String bind(String shard) {
+        String previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        return previous;
+    }
+
+    /**
+     * Restores the shard bound before the matching {@link #bind(String)} call.
+     *
+     * @param previous the previously bound shard
+     */
+    static void restore(String previous) {
+        if (previous == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(previous);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.urlshortener.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks the repository method parameter that determines the shard a call is routed to.
+ * The parameter may be a short URL, an original URL, a URL entity or a collection of those.
+ * Repository calls without a shard key are executed on every shard.
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+    /**
+     * The kind of value the annotated parameter holds.
+     *
+     * @return the shard key type
+     */
+    Type value() default Type.SHORT_URL;
+
+    /**
+     * Kinds of values a shard key can be derived from.
+     */
+    enum Type {
+        /**
+         * The shortened URL.
+         */
+        SHORT_URL,
+
+        /**
+         * The original URL, or the original URL of a URL entity, routed by the short URL generated from it.
+         */
+        ORIGINAL_URL
+    }
+}
@@ -0,0 +1,40 @@
+package com.urlshortener.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+
+/**
+ * Runs the {@link ShardRebalancer} and exits when the application is started with --rebalance-shards.
+ */
+@Slf4j
+@AllArgsConstructor
+public class ShardRebalanceRunner implements ApplicationRunner {
+    static final String OPTION = "rebalance-shards";
+
+    private final ShardRebalancer shardRebalancer;
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Rebalances the shards if the rebalance option is present.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        log.info("Rebalancing shards.");
+        Map<String, Long> moved = shardRebalancer.rebalance();
+        log.info("Shard rebalancing finished, moved urls per source shard: {}", moved);
+
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,160 @@
+package com.urlshortener.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Moves URL mappings stored on a shard other than the one the {@link ShardResolver} assigns them to,
+ * e.g. after shards were added or removed. Rows are copied to their owning shard before they are deleted
+ * from the old one, and copying skips rows already present, so an interrupted run can simply be repeated.
+ * Entries of the original URL index are moved the same way to the shard owning their original URL.
+ */
+@Slf4j
+public class ShardRebalancer {
+    private static final String SELECT_BATCH = "SELECT id, original_url, short_url, created_at, expiration_date, click_count "
+            + "FROM urls WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String INSERT_IF_ABSENT = "INSERT INTO urls (original_url, short_url, created_at, expiration_date, click_count) "
+            + "SELECT ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM urls WHERE short_url = ?)";
+    private static final String DELETE_BY_ID = "DELETE FROM urls WHERE id = ?";
+    private static final String SELECT_INDEX_BATCH = "SELECT original_url, short_url FROM original_url_index "
+            + "WHERE original_url > ? ORDER BY original_url LIMIT ?";
+    private static final String INSERT_INDEX_ENTRY_IF_ABSENT = "INSERT INTO original_url_index (original_url, short_url) "
+            + "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM original_url_index WHERE original_url = ?)";
+    private static final String DELETE_INDEX_ENTRY = "DELETE FROM original_url_index WHERE original_url = ?";
+
+    private final Map<String, DataSource> shards;
+    private final ShardResolver shardResolver;
+    private final int batchSize;
+
+    /**
+     * Creates a rebalancer for the given shards.
+     *
+     * @param shards        the shard data sources keyed by shard name
+     * @param shardResolver the resolver assigning short URLs to shards
+     * @param batchSize     the number of rows read and moved at once
+     */
+    public ShardRebalancer(Map<String, DataSource> shards, ShardResolver shardResolver, int batchSize) {
+        this.shards = shards;
+        this.shardResolver = shardResolver;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Moves every misplaced URL mapping to its owning shard.
+     *
+     * @return the number of moved mappings per source shard
+     */
+    public Map<String, Long> rebalance() {
+        Map<String, Long> moved = new LinkedHashMap<>();
+        for (String shard : shards.keySet()) {
+            moved.put(shard, rebalanceShard(shard));
+            rebalanceIndexShard(shard);
+        }
+
+        return moved;
+    }
+
+    /**
+     * Moves the misplaced URL mappings of a single shard, reading it in id order one batch at a time.
+     *
+     * @param source the shard to move mappings away from
+     * @return the number of moved mappings
+     */
+    private long rebalanceShard(String source) {
+        JdbcTemplate sourceJdbc = new JdbcTemplate(shards.get(source));
+        long moved = 0;
+        long lastId = 0;
+
+        while (true) {
+            List<Row> rows = sourceJdbc.query(SELECT_BATCH, (rs, rowNum) -> new Row(
+                    rs.getLong("id"),
+                    rs.getString("original_url"),
+                    rs.getString("short_url"),
+                    rs.getTimestamp("created_at"),
+                    rs.getTimestamp("expiration_date"),
+                    rs.getInt("click_count")), lastId, batchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            lastId = rows.getLast().id();
+
+            Map<String, List<Row>> misplaced = new LinkedHashMap<>();
+            for (Row row : rows) {
+                String target = shardResolver.resolve(row.shortUrl());
+                if (!target.equals(source)) {
+                    misplaced.computeIfAbsent(target, shard -> new ArrayList<>()).add(row);
+                }
+            }
+
+            for (Map.Entry<String, List<Row>> entry : misplaced.entrySet()) {
+                List<Row> batch = entry.getValue();
+                new JdbcTemplate(shards.get(entry.getKey())).batchUpdate(INSERT_IF_ABSENT, batch.stream()
+                        .map(row -> new Object[]{row.originalUrl(), row.shortUrl(), row.createdAt(),
+                                row.expirationDate(), row.clickCount(), row.shortUrl()})
+                        .toList());
+                sourceJdbc.batchUpdate(DELETE_BY_ID, batch.stream().map(row -> new Object[]{row.id()}).toList());
+                moved += batch.size();
+            }
+        }
+
+        log.info("Moved {} urls away from shard {}.", moved, source);
+        return moved;
+    }
+
+    /**
+     * Moves the misplaced original URL index entries of a single shard, reading it in original URL order one batch at a time.
+     *
+     * @param source the shard to move index entries away from
+     */
+    private void rebalanceIndexShard(String source) {
+        JdbcTemplate sourceJdbc = new JdbcTemplate(shards.get(source));
+        long moved = 0;
+        String lastOriginalUrl = "";
+
+        while (true) {
+            List<IndexEntry> entries = sourceJdbc.query(SELECT_INDEX_BATCH, (rs, rowNum) -> new IndexEntry(
+                    rs.getString("original_url"),
+                    rs.getString("short_url")), lastOriginalUrl, batchSize);
+            if (entries.isEmpty()) {
+                break;
+            }
+            lastOriginalUrl = entries.getLast().originalUrl();
+
+            Map<String, List<IndexEntry>> misplaced = new LinkedHashMap<>();
+            for (IndexEntry entry : entries) {
+                String target = shardResolver.resolveOriginalUrl(entry.originalUrl());
+                if (!target.equals(source)) {
+                    misplaced.computeIfAbsent(target, shard -> new ArrayList<>()).add(entry);
+                }
+            }
+
+            for (Map.Entry<String, List<IndexEntry>> target : misplaced.entrySet()) {
+                List<IndexEntry> batch = target.getValue();
+                new JdbcTemplate(shards.get(target.getKey())).batchUpdate(INSERT_INDEX_ENTRY_IF_ABSENT, batch.stream()
+                        .map(entry -> new Object[]{entry.originalUrl(), entry.shortUrl(), entry.originalUrl()})
+                        .toList());
+                sourceJdbc.batchUpdate(DELETE_INDEX_ENTRY, batch.stream().map(entry -> new Object[]{entry.originalUrl()}).toList());
+                moved += batch.size();
+            }
+        }
+
+        log.info("Moved {} original url index entries away from shard {}.", moved, source);
+    }
+
+    /**
+     * A row of the urls table.
+     */
+    private record Row(long id, String originalUrl, String shortUrl, Timestamp createdAt, Timestamp expirationDate,
+                       int clickCount) {
+    }
+
+    /**
+     * A row of the original URL index.
+     */
+    private record IndexEntry(String originalUrl, String shortUrl) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.urlshortener.datasource;
+
+import com.urlshortener.util.UrlUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Maps short URLs to shards using consistent hashing.
+ * Every shard occupies a number of virtual nodes on a hash ring and a short URL belongs to the first
+ * shard found clockwise from its hash, so adding or removing a shard only moves the keys adjacent to it.
+ */
+public class ShardResolver {
+    private final List<String> shards;
+    private final NavigableMap<Integer, String> ring = new TreeMap<>();
+
+    /**
+     * Creates a resolver for the given shards.
+     *
+     * @param shards       the shard names
+     * @param virtualNodes the number of ring points per shard
+     */
+    public ShardResolver(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        this.shards = List.copyOf(shards);
+        for (String shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    /**
+     * Returns all shard names.
+     *
+     * @return the shard names
+     */
+    public List<String> getShards() {
+        return shards;
+    }
+
+    /**
+     * Resolves the shard owning the given short URL.
+     *
+     * @param shortUrl the shortened URL
+     * @return the shard name
+     */
+    public String resolve(String shortUrl) {
+        Map.Entry<Integer, String> entry = ring.ceilingEntry(hash(shortUrl));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Resolves the shard owning the mapping of the given original URL.
+     * The mapping lives on the shard of the short URL generated from the original URL.
+     *
+     * @param originalUrl the original URL
+     * @return the shard name
+     */
+    public String resolveOriginalUrl(String originalUrl) {
+        return resolve(UrlUtil.generateShortUrl(originalUrl));
+    }
+
+    /**
+     * Computes the ring position of the given key.
+     *
+     * @param key the key
+     * @return the ring position
+     */
+    private static int hash(String key) {
+        CRC32C crc = new CRC32C();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,211 @@
+package com.urlshortener.datasource;
+
+import com.urlshortener.model.Url;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Aspect routing repository calls to shards.
+ * Calls with a {@link ShardKey} parameter or a URL entity argument run on the owning shard; collection keys
+ * are split per shard and the partial results merged. Calls without a shard key run on every shard.
+ * The aspect runs before any other advice, so a transaction of a repository method is opened after its shard is bound
+ * and every shard of a split or fanned out call gets a transaction of its own.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@AllArgsConstructor
+public class ShardRoutingAspect {
+    private final ShardResolver shardResolver;
+
+    /**
+     * Routes a repository call to the shard or shards owning its data.
+     *
+     * @param joinPoint the repository call
+     * @return the (merged) result of the call
+     * @throws Throwable if the repository call fails
+     */
+    @Around("target(com.urlshortener.repository.UrlRepository) || target(com.urlshortener.repository.UrlJdbcRepository)")
+    public Object routeToShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        if (ShardContext.current() != null || method.getDeclaringClass() == Object.class) {
+            return joinPoint.proceed();
+        }
+
+        Object[] args = joinPoint.getArgs();
+        int keyIndex = findShardKeyIndex(method, args);
+        if (keyIndex < 0) {
+            return proceedOnAllShards(joinPoint, method, args);
+        }
+
+        ShardKey.Type keyType = findShardKeyType(method, keyIndex);
+        if (!(args[keyIndex] instanceof Iterable<?> keys)) {
+            return proceedOn(shardOf(args[keyIndex], keyType), joinPoint, args);
+        }
+
+        Map<String, List<Object>> partitions = new LinkedHashMap<>();
+        for (Object key : keys) {
+            partitions.computeIfAbsent(shardOf(key, keyType), shard -> new ArrayList<>()).add(key);
+        }
+
+        List<Object> results = new ArrayList<>();
+        for (Map.Entry<String, List<Object>> partition : partitions.entrySet()) {
+            Object[] partitionArgs = args.clone();
+            partitionArgs[keyIndex] = partition.getValue();
+            results.add(proceedOn(partition.getKey(), joinPoint, partitionArgs));
+        }
+
+        return merge(method, results);
+    }
+
+    /**
+     * Runs a call without a shard key on every shard.
+     *
+     * @param joinPoint the repository call
+     * @param method    the called method
+     * @param args      the call arguments
+     * @return the merged result of the call
+     * @throws Throwable if the repository call fails
+     */
+    private Object proceedOnAllShards(ProceedingJoinPoint joinPoint, Method method, Object[] args) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Repository method " + method.getName()
+                    + " has no shard key and cannot run on all shards inside a transaction");
+        }
+
+        List<Object> results = new ArrayList<>();
+        for (String shard : shardResolver.getShards()) {
+            results.add(proceedOn(shard, joinPoint, args));
+        }
+
+        return merge(method, results);
+    }
+
+    /**
+     * Runs the repository call on the given shard.
+     *
+     * @param shard     the shard name
+     * @param joinPoint the repository call
+     * @param args      the call arguments
+     * @return the result of the call
+     * @throws Throwable if the repository call fails
+     */
+    private Object proceedOn(String shard, ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        String previous = ShardContext.bind(shard);
+        try {
+            return joinPoint.proceed(args);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    /**
+     * Finds the argument the call is routed by: a {@link ShardKey} parameter, or else a URL entity
+     * or collection of URL entities.
+     *
+     * @param method the called method
+     * @param args   the call arguments
+     * @return the index of the shard key argument, or -1 if there is none
+     */
+    private int findShardKeyIndex(Method method, Object[] args) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return i;
+                }
+            }
+        }
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Url
+                    || args[i] instanceof Iterable<?> values && values.iterator().hasNext() && values.iterator().next() instanceof Url) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the type of the shard key at the given parameter index.
+     *
+     * @param method   the called method
+     * @param keyIndex the index of the shard key parameter
+     * @return the shard key type
+     */
+    private ShardKey.Type findShardKeyType(Method method, int keyIndex) {
+        for (Annotation annotation : method.getParameterAnnotations()[keyIndex]) {
+            if (annotation instanceof ShardKey shardKey) {
+                return shardKey.value();
+            }
+        }
+
+        return ShardKey.Type.SHORT_URL;
+    }
+
+    /**
+     * Resolves the shard owning the given key.
+     *
+     * @param key     a short URL, an original URL or a URL entity
+     * @param keyType the kind of key, telling whether a URL entity is routed by its short URL or its original URL
+     * @return the shard name
+     */
+    private String shardOf(Object key, ShardKey.Type keyType) {
+        if (key instanceof Url url) {
+            return keyType == ShardKey.Type.ORIGINAL_URL
+                    ? shardResolver.resolveOriginalUrl(url.getOriginalUrl())
+                    : shardResolver.resolve(url.getShortUrl());
+        }
+
+        return keyType == ShardKey.Type.ORIGINAL_URL
+                ? shardResolver.resolveOriginalUrl((String) key)
+                : shardResolver.resolve((String) key);
+    }
+
+    /**
+     * Merges the results of a call executed on several shards.
+     *
+     * @param method  the called method
+     * @param results the per-shard results
+     * @return the merged result
+     */
+    private Object merge(Method method, List<Object> results) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class) {
+            return null;
+        }
+        if (results.size() == 1) {
+            return results.getFirst();
+        }
+        if (Iterable.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(List.class)) {
+            List<Object> merged = new ArrayList<>();
+            results.forEach(result -> ((Iterable<?>) result).forEach(merged::add));
+            return merged;
+        }
+        if (returnType == Optional.class) {
+            return results.stream()
+                    .map(Optional.class::cast)
+                    .filter(Optional::isPresent)
+                    .findFirst()
+                    .orElse(Optional.empty());
+        }
+        if (returnType == long.class || returnType == Long.class) {
+            return results.stream().mapToLong(result -> ((Number) result).longValue()).sum();
+        }
+        if (returnType == int.class || returnType == Integer.class) {
+            return results.stream().mapToInt(result -> ((Number) result).intValue()).sum();
+        }
+
+        throw new UnsupportedOperationException("Cannot merge results of " + method.getName() + " across shards");
+    }
+}
@@ -0,0 +1,59 @@
+package com.urlshortener.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Routing data source sending each connection to the shard bound in {@link ShardContext}.
+ * Connections requested without a bound shard, such as schema validation at startup, use the first shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private final Map<String, DataSource> shards;
+
+    /**
+     * Creates a routing data source over the given shards.
+     *
+     * @param shards the shard data sources keyed by shard name
+     */
+    public ShardRoutingDataSource(Map<String, DataSource> shards) {
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.values().iterator().next());
+    }
+
+    /**
+     * Returns the shard data sources keyed by shard name.
+     *
+     * @return the shard data sources
+     */
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    /**
+     * Determines the shard for the current connection.
+     *
+     * @return the shard bound to the current thread
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    /**
+     * Closes the shard connection pools.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards.values()) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
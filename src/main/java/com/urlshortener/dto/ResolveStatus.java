@@ -0,0 +1,21 @@
+package com.urlshortener.dto;
+
+/**
+ * Resolution status of a shortened URL.
+ */
+public enum ResolveStatus {
+    /**
+     * The shortened URL exists and is valid.
+     */
+    FOUND,
+
+    /**
+     * The shortened URL exists but has expired.
+     */
+    EXPIRED,
+
+    /**
+     * The shortened URL does not exist.
+     */
+    NOT_FOUND
+}
@@ -0,0 +1,36 @@
+package com.urlshortener.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for representing the resolution result of a single shortened URL.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class ResolvedUrlDto {
+    /**
+     * The shortened URL.
+     */
+    private String shortUrl;
+
+    /**
+     * The original URL, or null if the shortened URL was not found.
+     */
+    private String originalUrl;
+
+    /**
+     * The date and time when the URL will expire. Only known when resolved from the database;
+     * URLs resolved from cache are guaranteed not to be expired.
+     */
+    private LocalDateTime expirationDate;
+
+    /**
+     * The resolution status.
+     */
+    private ResolveStatus status;
+}
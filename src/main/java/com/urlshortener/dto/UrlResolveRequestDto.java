@@ -0,0 +1,28 @@
+package com.urlshortener.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for batch resolution requests of shortened URLs.
+ */
+@Getter
+@Setter
+public class UrlResolveRequestDto {
+    /**
+     * The maximum number of shortened URLs resolved in one request.
+     */
+    public static final int MAX_SHORT_URLS = 1000;
+
+    /**
+     * The shortened URLs to be resolved.
+     */
+    @NotEmpty(message = "Short URLs cannot be empty")
+    @Size(max = MAX_SHORT_URLS, message = "At most " + MAX_SHORT_URLS + " short URLs can be resolved at once")
+    private List<@Pattern(regexp = "[A-Za-z0-9_-]+", message = "Invalid short URL format") String> shortUrls;
+}
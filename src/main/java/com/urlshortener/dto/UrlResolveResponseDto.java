@@ -0,0 +1,20 @@
+package com.urlshortener.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for batch resolution responses of shortened URLs.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class UrlResolveResponseDto {
+    /**
+     * The resolution results, in the order of the requested shortened URLs.
+     */
+    private List<ResolvedUrlDto> results;
+}
@@ -0,0 +1,15 @@
+package com.urlshortener.exception;
+
+/**
+ * Custom exception thrown when a request to an admin endpoint lacks a valid admin token.
+ */
+public class AdminAuthenticationException extends RuntimeException {
+    /**
+     * Constructs a new AdminAuthenticationException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public AdminAuthenticationException(String message) {
+        super(message);
+    }
+}
@@ -1,11 +1,13 @@
 package com.urlshortener.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -38,6 +40,54 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.GONE);
     }
 
+    /**
+     * Handles UnsupportedExportFormatException and returns a detailed error response.
+     *
+     * @param ex the UnsupportedExportFormatException
+     * @return a ResponseEntity containing the error details
+     */
+    @ExceptionHandler(UnsupportedExportFormatException.class)
+    public ResponseEntity<String> handleUnsupportedExportFormatException(UnsupportedExportFormatException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles AdminAuthenticationException and returns 401 with a Bearer challenge.
+     *
+     * @param ex the AdminAuthenticationException
+     * @return a ResponseEntity containing the error details
+     */
+    @ExceptionHandler(AdminAuthenticationException.class)
+    public ResponseEntity<String> handleAdminAuthenticationException(AdminAuthenticationException ex) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        return new ResponseEntity<>(ex.getMessage(), headers, HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Handles RateLimitExceededException and returns 429 with the seconds to wait in the Retry-After header.
+     *
+     * @param ex the RateLimitExceededException
+     * @return a ResponseEntity containing the error details
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<String> handleRateLimitExceededException(RateLimitExceededException ex) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000)));
+        return new ResponseEntity<>(ex.getMessage(), headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Handles MethodArgumentTypeMismatchException, e.g. a malformed date, and returns a detailed error response.
+     *
+     * @param ex the MethodArgumentTypeMismatchException
+     * @return a ResponseEntity containing the error details
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<String> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        return new ResponseEntity<>("Invalid value for parameter " + ex.getName() + ": " + ex.getValue(), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles MethodArgumentNotValidException and returns a detailed error response.
      *
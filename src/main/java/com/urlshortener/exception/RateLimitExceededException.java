@@ -0,0 +1,27 @@
+package com.urlshortener.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Custom exception thrown when a client has used up its rate limit.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+    /**
+     * How long the client has to wait before its next request is admitted.
+     */
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new RateLimitExceededException with the specified detail message.
+     *
+     * @param message    the detail message
+     * @param retryAfter how long the client has to wait before its next request is admitted
+     */
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,15 @@
+package com.urlshortener.exception;
+
+/**
+ * Custom exception thrown when an export is requested in an unknown format.
+ */
+public class UnsupportedExportFormatException extends RuntimeException {
+    /**
+     * Constructs a new UnsupportedExportFormatException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public UnsupportedExportFormatException(String message) {
+        super(message);
+    }
+}
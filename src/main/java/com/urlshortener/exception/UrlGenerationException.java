@@ -4,6 +4,15 @@ package com.urlshortener.exception;
  * Custom exception thrown when there is an error generating the short URL.
  */
 public class UrlGenerationException extends RuntimeException {
+    /**
+     * Constructs a new UrlGenerationException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public UrlGenerationException(String message) {
+        super(message);
+    }
+
     /**
      * Constructs a new UrlGenerationException with the specified detail message.
      *
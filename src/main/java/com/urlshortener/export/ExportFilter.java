@@ -0,0 +1,21 @@
+package com.urlshortener.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selects the URL mappings to export. Date ranges are half-open, {@code [from, to)}, and a {@code null} bound
+ * leaves that side of the range open.
+ *
+ * @param createdFrom    the inclusive lower bound of the creation date, or {@code null}
+ * @param createdTo      the exclusive upper bound of the creation date, or {@code null}
+ * @param expiresFrom    the inclusive lower bound of the expiration date, or {@code null}
+ * @param expiresTo      the exclusive upper bound of the expiration date, or {@code null}
+ * @param includeExpired whether mappings that have already expired are exported
+ */
+public record ExportFilter(LocalDateTime createdFrom, LocalDateTime createdTo,
+                           LocalDateTime expiresFrom, LocalDateTime expiresTo, boolean includeExpired) {
+    /**
+     * A filter selecting every active mapping.
+     */
+    public static final ExportFilter ACTIVE = new ExportFilter(null, null, null, null, false);
+}
@@ -0,0 +1,184 @@
+package com.urlshortener.export;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.urlshortener.exception.UnsupportedExportFormatException;
+import com.urlshortener.model.Url;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Formats of exported URL mappings. Every mapping is written as one line as soon as it is read.
+ */
+@Getter
+public enum ExportFormat {
+    /**
+     * Newline-delimited JSON: one JSON object per mapping.
+     */
+    NDJSON("application/x-ndjson", "ndjson") {
+        /**
+         * Writes nothing, as NDJSON has no header.
+         *
+         * @param writer the writer
+         */
+        @Override
+        public void writeHeader(Writer writer) {
+        }
+
+        /**
+         * Writes a mapping as a JSON object on its own line.
+         *
+         * @param writer the writer
+         * @param url    the URL entity
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void writeRow(Writer writer, Url url) throws IOException {
+            writer.write("{\"shortUrl\":");
+            writeJsonString(writer, url.getShortUrl());
+            writer.write(",\"originalUrl\":");
+            writeJsonString(writer, url.getOriginalUrl());
+            writer.write(",\"createdAt\":");
+            writeJsonString(writer, format(url.getCreatedAt()));
+            writer.write(",\"expirationDate\":");
+            writeJsonString(writer, format(url.getExpirationDate()));
+            writer.write(",\"clickCount\":");
+            writer.write(Integer.toString(url.getClickCount()));
+            writer.write("}\n");
+        }
+    },
+
+    /**
+     * Comma-separated values with a header line, quoted as described in RFC 4180.
+     */
+    CSV("text/csv", "csv") {
+        /**
+         * Writes the line naming the columns.
+         *
+         * @param writer the writer
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void writeHeader(Writer writer) throws IOException {
+            writer.write("short_url,original_url,created_at,expiration_date,click_count\r\n");
+        }
+
+        /**
+         * Writes a mapping as a CSV record.
+         *
+         * @param writer the writer
+         * @param url    the URL entity
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void writeRow(Writer writer, Url url) throws IOException {
+            writeCsvField(writer, url.getShortUrl());
+            writer.write(',');
+            writeCsvField(writer, url.getOriginalUrl());
+            writer.write(',');
+            writeCsvField(writer, format(url.getCreatedAt()));
+            writer.write(',');
+            writeCsvField(writer, format(url.getExpirationDate()));
+            writer.write(',');
+            writer.write(Integer.toString(url.getClickCount()));
+            writer.write("\r\n");
+        }
+    };
+
+    private final String contentType;
+    private final String fileExtension;
+
+    /**
+     * Creates an export format.
+     *
+     * @param contentType   the media type of the format
+     * @param fileExtension the file extension of the format
+     */
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Writes what precedes the first mapping.
+     *
+     * @param writer the writer
+     * @throws IOException if writing fails
+     */
+    public abstract void writeHeader(Writer writer) throws IOException;
+
+    /**
+     * Writes a single mapping as one line.
+     *
+     * @param writer the writer
+     * @param url    the URL entity
+     * @throws IOException if writing fails
+     */
+    public abstract void writeRow(Writer writer, Url url) throws IOException;
+
+    /**
+     * Finds the format with the given name, ignoring case.
+     *
+     * @param name the format name, e.g. {@code csv}
+     * @return the format
+     * @throws UnsupportedExportFormatException if there is no such format
+     */
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new UnsupportedExportFormatException("Unsupported export format: " + name);
+    }
+
+    /**
+     * Formats a date and time as ISO-8601.
+     *
+     * @param dateTime the date and time, or null
+     * @return the formatted date and time, or null
+     */
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toString() : null;
+    }
+
+    /**
+     * Writes a JSON string literal, or null.
+     *
+     * @param writer the writer
+     * @param value  the string, or null
+     * @throws IOException if writing fails
+     */
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        writer.write(JsonStringEncoder.getInstance().quoteAsString(value));
+        writer.write('"');
+    }
+
+    /**
+     * Writes a CSV field, quoting it if it contains a separator, a quote or a line break. Null is written as an empty field.
+     *
+     * @param writer the writer
+     * @param value  the field value, or null
+     * @throws IOException if writing fails
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,90 @@
+package com.urlshortener.export;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs the {@link UrlExporter} and exits when the application is started with --export=&lt;file&gt;.
+ * Files ending in .gz are gzip-compressed. The format is taken from --export-format, or else from the file name.
+ * Mappings can be filtered with --created-from, --created-to, --expires-from and --expires-to (ISO-8601 date and time)
+ * and expired mappings included with --include-expired.
+ */
+@Slf4j
+@AllArgsConstructor
+public class UrlExportRunner implements ApplicationRunner {
+    static final String OPTION = "export";
+    private static final String GZIP_EXTENSION = ".gz";
+
+    private final UrlExporter urlExporter;
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Exports the mappings if the export option is present.
+     *
+     * @param args the application arguments
+     * @throws IOException if the export file cannot be written
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        Path file = Path.of(requiredOption(args, OPTION));
+        String fileName = file.getFileName().toString();
+        boolean gzip = fileName.endsWith(GZIP_EXTENSION);
+        ExportFormat format = args.containsOption("export-format")
+                ? ExportFormat.fromName(requiredOption(args, "export-format"))
+                : fileName.replace(GZIP_EXTENSION, "").endsWith("." + ExportFormat.CSV.getFileExtension()) ? ExportFormat.CSV : ExportFormat.NDJSON;
+        ExportFilter filter = new ExportFilter(dateTimeOption(args, "created-from"), dateTimeOption(args, "created-to"),
+                dateTimeOption(args, "expires-from"), dateTimeOption(args, "expires-to"), args.containsOption("include-expired"));
+
+        log.info("Exporting urls matching {} as {} to {}.", filter, format, file);
+        long exported;
+        try (OutputStream output = gzip ? new GZIPOutputStream(Files.newOutputStream(file)) : Files.newOutputStream(file)) {
+            exported = urlExporter.export(filter, format, output);
+        }
+        log.info("Url export finished, exported {} urls.", exported);
+
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    /**
+     * Reads the value of an option.
+     *
+     * @param args the application arguments
+     * @param name the option name
+     * @return the option value
+     * @throws IllegalArgumentException if the option has no value
+     */
+    private static String requiredOption(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.isEmpty() || values.getFirst().isBlank()) {
+            throw new IllegalArgumentException("Option --" + name + " requires a value");
+        }
+        return values.getFirst();
+    }
+
+    /**
+     * Reads an optional date and time option.
+     *
+     * @param args the application arguments
+     * @param name the option name
+     * @return the date and time, or null if the option is absent
+     */
+    private static LocalDateTime dateTimeOption(ApplicationArguments args, String name) {
+        return args.containsOption(name) ? LocalDateTime.parse(requiredOption(args, name)) : null;
+    }
+}
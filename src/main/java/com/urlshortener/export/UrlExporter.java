@@ -0,0 +1,58 @@
+package com.urlshortener.export;
+
+import com.urlshortener.repository.UrlJdbcRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exports URL mappings with their click counts. Rows are written to the output as they are read from the database,
+ * so an export of any size needs only a fixed amount of memory.
+ */
+@Slf4j
+@AllArgsConstructor
+public class UrlExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_INTERVAL = 1_000_000;
+
+    private final UrlJdbcRepository urlJdbcRepository;
+    private final int fetchSize;
+
+    /**
+     * Writes the mappings selected by the filter to the output. The output is flushed but not closed.
+     *
+     * @param filter the filter selecting the mappings
+     * @param format the output format
+     * @param output the output
+     * @return the number of exported mappings
+     * @throws IOException if writing fails
+     */
+    public long export(ExportFilter filter, ExportFormat format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        format.writeHeader(writer);
+        long[] exported = new long[1];
+        try {
+            urlJdbcRepository.streamAll(filter, fetchSize, url -> {
+                try {
+                    format.writeRow(writer, url);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++exported[0] % PROGRESS_INTERVAL == 0) {
+                    log.info("Exported {} urls.", exported[0]);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return exported[0];
+    }
+}
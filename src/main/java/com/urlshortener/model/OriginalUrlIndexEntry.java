@@ -0,0 +1,35 @@
+package com.urlshortener.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity class representing the short URL a loaded original URL is stored under.
+ * With sharding, entries live on the shard of the short URL generated from the original URL, where original URL
+ * lookups are routed, so loaded mappings stored on the shard of another short URL can still be found by original URL.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "original_url_index")
+public class OriginalUrlIndexEntry {
+    /**
+     * The original URL.
+     */
+    @Id
+    private String originalUrl;
+
+    /**
+     * The shortened URL the original URL is stored under.
+     */
+    @Column(nullable = false)
+    private String shortUrl;
+}
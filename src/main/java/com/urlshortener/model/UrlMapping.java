@@ -0,0 +1,13 @@
+package com.urlshortener.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable projection of a URL entity holding only what is needed to resolve a shortened URL.
+ *
+ * @param shortUrl       the shortened URL
+ * @param originalUrl    the original URL
+ * @param expirationDate the date and time when the URL will expire, or null if resolved from cache
+ */
+public record UrlMapping(String shortUrl, String originalUrl, LocalDateTime expirationDate) {
+}
@@ -0,0 +1,50 @@
+package com.urlshortener.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Base of the JFR events of the URL shortener. Besides the duration of the whole operation, every event carries
+ * the time spent in Redis and in the database, measured by the {@link OperationTimingAspect}.
+ * Time of a call made from within another, such as click counts stored while draining them from Redis,
+ * counts only for the inner call. Fields are package-private, as JFR ignores private fields of event superclasses.
+ */
+@Category("URL Shortener")
+@StackTrace(false)
+public abstract class OperationEvent extends jdk.jfr.Event {
+    @Label("Redis Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long redisTime;
+
+    @Label("Redis Calls")
+    int redisCalls;
+
+    @Label("Database Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long databaseTime;
+
+    @Label("Database Calls")
+    int databaseCalls;
+
+    /**
+     * Adds a Redis call to the event.
+     *
+     * @param nanos the time spent in the call, excluding nested calls
+     */
+    void addRedisCall(long nanos) {
+        redisTime += nanos;
+        redisCalls++;
+    }
+
+    /**
+     * Adds a database call to the event.
+     *
+     * @param nanos the time spent in the call, excluding nested calls
+     */
+    void addDatabaseCall(long nanos) {
+        databaseTime += nanos;
+        databaseCalls++;
+    }
+}
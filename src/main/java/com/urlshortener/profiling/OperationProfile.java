@@ -0,0 +1,96 @@
+package com.urlshortener.profiling;
+
+/**
+ * Times an operation as a JFR event and collects the Redis and database time spent in it on the current thread.
+ * Start it with try-with-resources around the operation; closing it commits the event.
+ * While no recording enables the event, it is not bound to the thread and calls are not timed.
+ */
+public final class OperationProfile implements AutoCloseable {
+    private static final ThreadLocal<OperationProfile> CURRENT = new ThreadLocal<>();
+
+    private final OperationEvent event;
+    private final OperationProfile outer;
+    private final boolean bound;
+    private long nestedNanos;
+
+    /**
+     * Creates a profile of an event.
+     *
+     * @param event the event
+     * @param outer the profile of the enclosing operation on this thread, if any
+     * @param bound whether the profile is bound to the thread
+     */
+    private OperationProfile(OperationEvent event, OperationProfile outer, boolean bound) {
+        this.event = event;
+        this.outer = outer;
+        this.bound = bound;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @param event the event of the operation
+     * @return the profile, to be closed when the operation ends
+     */
+    public static OperationProfile start(OperationEvent event) {
+        event.begin();
+        OperationProfile profile = new OperationProfile(event, CURRENT.get(), event.isEnabled());
+        if (profile.bound) {
+            CURRENT.set(profile);
+        }
+        return profile;
+    }
+
+    /**
+     * Returns the profile of the operation running on the current thread.
+     *
+     * @return the profile, or null if no enabled event is being timed
+     */
+    static OperationProfile current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Enters a Redis or database call. The time of calls made from within it is collected separately.
+     *
+     * @return the time of nested calls collected so far by the enclosing call, to be passed to {@link #exit}
+     */
+    long enter() {
+        long outerNestedNanos = nestedNanos;
+        nestedNanos = 0;
+        return outerNestedNanos;
+    }
+
+    /**
+     * Exits a Redis or database call and adds its own time, excluding calls made from within it, to the event.
+     *
+     * @param redis            true for a Redis call, false for a database call
+     * @param outerNestedNanos the value returned by {@link #enter}
+     * @param elapsedNanos     the time spent in the call
+     */
+    void exit(boolean redis, long outerNestedNanos, long elapsedNanos) {
+        long ownNanos = elapsedNanos - nestedNanos;
+        if (redis) {
+            event.addRedisCall(ownNanos);
+        } else {
+            event.addDatabaseCall(ownNanos);
+        }
+        nestedNanos = outerNestedNanos + elapsedNanos;
+    }
+
+    /**
+     * Ends the operation, unbinds the profile from the thread and commits the event if it passes the recording settings.
+     */
+    @Override
+    public void close() {
+        if (bound) {
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+        event.end();
+        event.commit();
+    }
+}
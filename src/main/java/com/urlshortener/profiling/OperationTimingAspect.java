@@ -0,0 +1,60 @@
+package com.urlshortener.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Aspect timing Redis cache and database calls made during a profiled operation and adding them to its JFR event.
+ * Outside profiled operations, calls are passed through untimed.
+ */
+@Aspect
+public class OperationTimingAspect {
+
+    /**
+     * Times a call to the URL cache as Redis time.
+     *
+     * @param joinPoint the cache call
+     * @return the result of the call
+     * @throws Throwable if the call fails
+     */
+    @Around("target(com.urlshortener.cache.UrlCache)")
+    public Object timeRedisCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, true);
+    }
+
+    /**
+     * Times a call to a repository as database time.
+     *
+     * @param joinPoint the repository call
+     * @return the result of the call
+     * @throws Throwable if the call fails
+     */
+    @Around("target(com.urlshortener.repository.UrlRepository) || target(com.urlshortener.repository.UrlJdbcRepository)")
+    public Object timeDatabaseCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, false);
+    }
+
+    /**
+     * Times a call if an operation is being profiled on the current thread.
+     *
+     * @param joinPoint the call
+     * @param redis     true for a Redis call, false for a database call
+     * @return the result of the call
+     * @throws Throwable if the call fails
+     */
+    private Object time(ProceedingJoinPoint joinPoint, boolean redis) throws Throwable {
+        OperationProfile profile = OperationProfile.current();
+        if (profile == null) {
+            return joinPoint.proceed();
+        }
+
+        long outerNestedNanos = profile.enter();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            profile.exit(redis, outerNestedNanos, System.nanoTime() - start);
+        }
+    }
+}
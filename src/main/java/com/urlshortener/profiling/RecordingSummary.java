@@ -0,0 +1,194 @@
+package com.urlshortener.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes the events of the URL shortener in a JFR recording: per event and tier (per job for scheduled jobs)
+ * the latency percentiles and how the mean latency splits into Redis, database and other time, overall and for the
+ * slowest percent of the operations, so tail latency can be traced to the tier causing it.
+ * Run it with {@code mvn -Pjfr-summary compile exec:exec -Drecording=<file.jfr>}.
+ */
+public final class RecordingSummary {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double TAIL_PERCENTILE = 0.99;
+
+    private final Map<String, List<Sample>> samplesByGroup = new TreeMap<>();
+
+    /**
+     * Creates an empty summary.
+     */
+    private RecordingSummary() {
+    }
+
+    /**
+     * Prints the summary of a recording.
+     *
+     * @param args the path of the recording
+     * @throws IOException if the recording cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: RecordingSummary <recording.jfr>");
+            System.exit(2);
+        }
+        read(Path.of(args[0])).print(System.out);
+    }
+
+    /**
+     * Reads the events of the URL shortener from a recording.
+     *
+     * @param recording the recording file
+     * @return the summary
+     * @throws IOException if the recording cannot be read
+     */
+    public static RecordingSummary read(Path recording) throws IOException {
+        RecordingSummary summary = new RecordingSummary();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String name = event.getEventType().getName();
+                String group = switch (name) {
+                    case ShortenEvent.NAME, RedirectEvent.NAME -> event.getEventType().getLabel() + " / " + event.getString("tier");
+                    case ScheduledJobEvent.NAME -> event.getEventType().getLabel() + " / " + event.getString("job");
+                    default -> null;
+                };
+                if (group != null) {
+                    summary.samplesByGroup.computeIfAbsent(group, key -> new ArrayList<>()).add(new Sample(
+                            event.getDuration().toNanos(), event.getDuration("redisTime").toNanos(), event.getDuration("databaseTime").toNanos()));
+                }
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Summarizes the events per group.
+     *
+     * @return the group summaries, ordered by group
+     */
+    public List<GroupSummary> groups() {
+        List<GroupSummary> groups = new ArrayList<>();
+        samplesByGroup.forEach((group, samples) -> {
+            List<Sample> sorted = samples.stream().sorted(Comparator.comparingLong(Sample::totalNanos)).toList();
+            List<Sample> tail = sorted.subList(percentileIndex(sorted.size(), TAIL_PERCENTILE), sorted.size());
+            groups.add(new GroupSummary(group, sorted.size(), percentile(sorted, 0.5), percentile(sorted, 0.9),
+                    percentile(sorted, TAIL_PERCENTILE), millis(sorted.getLast().totalNanos()), Breakdown.of(sorted), Breakdown.of(tail)));
+        });
+        return groups;
+    }
+
+    /**
+     * Prints the group summaries as a table, durations in milliseconds.
+     *
+     * @param out the stream to print to
+     */
+    public void print(PrintStream out) {
+        out.printf("%-40s %8s %9s %9s %9s %9s | %-26s | %-26s%n", "Event / tier", "Count", "p50", "p90", "p99", "max",
+                "mean redis / db / other", "p99+ redis / db / other");
+        for (GroupSummary group : groups()) {
+            out.printf("%-40s %8d %9.3f %9.3f %9.3f %9.3f | %s | %s%n", group.group(), group.count(), group.p50Millis(), group.p90Millis(),
+                    group.p99Millis(), group.maxMillis(), group.mean(), group.tail());
+        }
+    }
+
+    /**
+     * Returns the duration at a percentile, by the nearest-rank method.
+     *
+     * @param sorted     the samples sorted by duration
+     * @param percentile the percentile between 0 and 1
+     * @return the duration in milliseconds
+     */
+    private static double percentile(List<Sample> sorted, double percentile) {
+        return millis(sorted.get(percentileIndex(sorted.size(), percentile)).totalNanos());
+    }
+
+    /**
+     * Returns the index of a percentile in a sorted list, by the nearest-rank method.
+     *
+     * @param size       the size of the list
+     * @param percentile the percentile between 0 and 1
+     * @return the index
+     */
+    private static int percentileIndex(int size, double percentile) {
+        return Math.max(0, (int) Math.ceil(percentile * size) - 1);
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     *
+     * @param nanos the nanoseconds
+     * @return the milliseconds
+     */
+    private static double millis(double nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * The durations of one event.
+     *
+     * @param totalNanos    the duration of the operation
+     * @param redisNanos    the time spent in Redis
+     * @param databaseNanos the time spent in the database
+     */
+    private record Sample(long totalNanos, long redisNanos, long databaseNanos) {
+    }
+
+    /**
+     * Summary of the events of one event type and tier or job.
+     *
+     * @param group     the event label and tier or job
+     * @param count     the number of events
+     * @param p50Millis the median duration
+     * @param p90Millis the 90th percentile duration
+     * @param p99Millis the 99th percentile duration
+     * @param maxMillis the longest duration
+     * @param mean      the mean time split of all events
+     * @param tail      the mean time split of the events at or above the 99th percentile
+     */
+    public record GroupSummary(String group, int count, double p50Millis, double p90Millis, double p99Millis, double maxMillis,
+                               Breakdown mean, Breakdown tail) {
+    }
+
+    /**
+     * Mean split of the duration of events into Redis, database and other time.
+     *
+     * @param redisMillis    the mean time spent in Redis
+     * @param databaseMillis the mean time spent in the database
+     * @param otherMillis    the mean remaining time, e.g. in the application or waiting for a lock or a coalesced request
+     */
+    public record Breakdown(double redisMillis, double databaseMillis, double otherMillis) {
+
+        /**
+         * Computes the mean split of the given samples.
+         *
+         * @param samples the samples, not empty
+         * @return the mean split
+         */
+        private static Breakdown of(List<Sample> samples) {
+            double redis = samples.stream().mapToLong(Sample::redisNanos).average().orElse(0);
+            double database = samples.stream().mapToLong(Sample::databaseNanos).average().orElse(0);
+            double total = samples.stream().mapToLong(Sample::totalNanos).average().orElse(0);
+            return new Breakdown(millis(redis), millis(database), millis(Math.max(0, total - redis - database)));
+        }
+
+        /**
+         * Formats the split as milliseconds.
+         *
+         * @return the formatted split
+         */
+        @Override
+        public String toString() {
+            return String.format("%8.3f %8.3f %8.3f", redisMillis, databaseMillis, otherMillis);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.urlshortener.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of looking up the original URL of a redirect.
+ */
+@Name(RedirectEvent.NAME)
+@Label("Redirect Lookup")
+@Description("Lookup of the original URL of a short code, with the tier that served it")
+public class RedirectEvent extends RequestEvent {
+    /**
+     * The name of the event, as used in recording settings.
+     */
+    public static final String NAME = "com.urlshortener.Redirect";
+}
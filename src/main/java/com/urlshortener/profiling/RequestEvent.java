@@ -0,0 +1,32 @@
+package com.urlshortener.profiling;
+
+import jdk.jfr.Label;
+
+/**
+ * Base of the JFR events of requests for a single short code.
+ */
+public abstract class RequestEvent extends OperationEvent {
+    @Label("Short Code")
+    String shortCode;
+
+    @Label("Tier")
+    String tier;
+
+    /**
+     * Sets the short code the request is for.
+     *
+     * @param shortCode the short code
+     */
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+
+    /**
+     * Sets the tier that served the request.
+     *
+     * @param tier the serving tier
+     */
+    public void setTier(ServingTier tier) {
+        this.tier = tier.name();
+    }
+}
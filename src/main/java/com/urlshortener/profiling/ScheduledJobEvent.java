@@ -0,0 +1,49 @@
+package com.urlshortener.profiling;
+
+import com.urlshortener.scheduling.CodeRange;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of a scheduled job processing one short URL range.
+ */
+@Name(ScheduledJobEvent.NAME)
+@Label("Scheduled Job")
+@Description("Run of a scheduled job for one short URL range")
+public class ScheduledJobEvent extends OperationEvent {
+    /**
+     * The name of the event, as used in recording settings.
+     */
+    public static final String NAME = "com.urlshortener.ScheduledJob";
+
+    @Label("Job")
+    String job;
+
+    @Label("Short URL Range")
+    String range;
+
+    @Label("Items")
+    @Description("Number of URLs or click counts processed")
+    long items;
+
+    /**
+     * Creates the event of a job run for a range.
+     *
+     * @param job   the name of the job
+     * @param range the short URL range
+     */
+    public ScheduledJobEvent(String job, CodeRange range) {
+        this.job = job;
+        this.range = (range.from() != null ? range.from() : "") + ".." + (range.to() != null ? range.to() : "");
+    }
+
+    /**
+     * Sets the number of items the job processed.
+     *
+     * @param items the number of URLs or click counts processed
+     */
+    public void setItems(long items) {
+        this.items = items;
+    }
+}
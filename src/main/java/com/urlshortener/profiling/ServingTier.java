@@ -0,0 +1,26 @@
+package com.urlshortener.profiling;
+
+/**
+ * Tiers serving a shortening or redirect request.
+ */
+public enum ServingTier {
+    /**
+     * Answered from the Redis cache.
+     */
+    CACHE,
+
+    /**
+     * Answered from or stored in the database.
+     */
+    DATABASE,
+
+    /**
+     * Stored in the write-behind journal.
+     */
+    JOURNAL,
+
+    /**
+     * Answered by a concurrent shortening of the same URL on this node.
+     */
+    IN_FLIGHT
+}
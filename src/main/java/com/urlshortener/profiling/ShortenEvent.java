@@ -0,0 +1,18 @@
+package com.urlshortener.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of shortening a URL.
+ */
+@Name(ShortenEvent.NAME)
+@Label("Shorten URL")
+@Description("Shortening of a URL, with the tier that provided the short code")
+public class ShortenEvent extends RequestEvent {
+    /**
+     * The name of the event, as used in recording settings.
+     */
+    public static final String NAME = "com.urlshortener.Shorten";
+}
@@ -0,0 +1,14 @@
+package com.urlshortener.ratelimit;
+
+/**
+ * Snapshot of a client's token bucket as held by this instance.
+ *
+ * @param client          the bucket identifier, e.g. {@code ip:192.0.2.1}
+ * @param tokens          the requests the client can send right now; negative while it repays requests admitted
+ *                        by other instances
+ * @param capacity        the capacity of the bucket
+ * @param refillPerSecond the refill rate of the bucket
+ * @param unsynced        the requests admitted since the bucket was last reconciled through Redis
+ */
+public record BucketState(String client, double tokens, int capacity, double refillPerSecond, double unsynced) {
+}
@@ -0,0 +1,272 @@
+package com.urlshortener.ratelimit;
+
+import com.urlshortener.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Rate limiter keeping a token bucket per client in a local map, so admitting a request needs no network round trip.
+ * The map is split into stripes with a lock each, and each stripe drops its least recently used buckets beyond its share
+ * of the maximum. Periodically every bucket that was used or is not full is reconciled with a bucket shared by all
+ * instances in Redis: the requests admitted locally are charged to the shared bucket, whose tokens the local bucket adopts.
+ * Between reconciliations, a client spreading requests over instances can exceed its limit by the refill of one interval
+ * per instance, which the shared bucket charges back. If Redis is unavailable, every instance enforces the limits alone.
+ */
+@Slf4j
+public class ClientRateLimiter {
+    static final String KEY_PREFIX = "ratelimit:";
+
+    /**
+     * Refills the shared bucket by Redis server time, charges the tokens taken by an instance, and returns its tokens.
+     * Tokens are kept in thousandths. Arguments: tokens taken, capacity, refill per millisecond, time to live in milliseconds.
+     */
+    private static final RedisScript<Long> RECONCILE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'updated')
+            local capacity = tonumber(ARGV[2])
+            local tokens = tonumber(state[1]) or capacity
+            local updated = tonumber(state[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - updated) * tonumber(ARGV[3]))
+            tokens = math.floor(math.max(-capacity, tokens - tonumber(ARGV[1])))
+            redis.call('HSET', KEYS[1], 'tokens', tokens, 'updated', now)
+            redis.call('PEXPIRE', KEYS[1], ARGV[4])
+            return tokens
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Clock clock;
+    private final List<Map<String, TokenBucket>> stripes;
+    private final Map<String, Counter> admitted = new HashMap<>();
+    private final Map<String, Counter> rejected = new HashMap<>();
+
+    /**
+     * Creates a rate limiter and registers its metrics in the given registry.
+     *
+     * @param redisTemplate the Redis template holding the shared buckets
+     * @param properties    the rate limit properties
+     * @param meterRegistry the meter registry
+     */
+    public ClientRateLimiter(RedisTemplate<String, String> redisTemplate, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(redisTemplate, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a rate limiter with the given clock.
+     *
+     * @param redisTemplate the Redis template holding the shared buckets
+     * @param properties    the rate limit properties
+     * @param meterRegistry the meter registry
+     * @param clock         the clock the buckets refill by
+     */
+    ClientRateLimiter(RedisTemplate<String, String> redisTemplate, RateLimitProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.clock = clock;
+        int bucketsPerStripe = Math.max(1, properties.getMaxBuckets() / properties.getStripes());
+        stripes = new ArrayList<>(properties.getStripes());
+        for (int i = 0; i < properties.getStripes(); i++) {
+            stripes.add(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                    return size() > bucketsPerStripe;
+                }
+            });
+        }
+
+        for (String type : List.of(RateLimitClient.API_KEY, RateLimitClient.IP)) {
+            admitted.put(type, Counter.builder("url.ratelimit.requests").tag("client", type).tag("result", "admitted")
+                    .description("Shortening requests admitted by the rate limiter").register(meterRegistry));
+            rejected.put(type, Counter.builder("url.ratelimit.requests").tag("client", type).tag("result", "rejected")
+                    .description("Shortening requests rejected by the rate limiter").register(meterRegistry));
+        }
+        Gauge.builder("url.ratelimit.buckets", this, ClientRateLimiter::getBucketCount)
+                .description("Client token buckets held by this instance").register(meterRegistry);
+    }
+
+    /**
+     * Admits a request of the client if its bucket holds a token.
+     *
+     * @param client the client
+     * @return zero if the request is admitted, otherwise how long the client has to wait for the next token
+     */
+    public Duration tryAcquire(RateLimitClient client) {
+        String id = client.id();
+        Map<String, TokenBucket> stripe = stripe(id);
+        long waitMillis;
+        synchronized (stripe) {
+            long now = clock.millis();
+            TokenBucket bucket = stripe.computeIfAbsent(id, key ->
+                    new TokenBucket(client.limit().getCapacity(), client.limit().getRefillPerSecond(), now));
+            waitMillis = bucket.tryConsume(now);
+        }
+
+        if (waitMillis == 0) {
+            admitted.get(client.type()).increment();
+            return Duration.ZERO;
+        }
+        rejected.get(client.type()).increment();
+        log.debug("Rejected request of {}, next token in {} ms.", id, waitMillis);
+        return Duration.ofMillis(waitMillis);
+    }
+
+    /**
+     * Scheduled task reconciling the local buckets with the buckets shared through Redis, in one pipeline.
+     * This method is executed with a fixed delay defined by the sync-interval-ms property.
+     */
+    @Scheduled(fixedDelayString = "${url-shortener.rate-limit.sync-interval-ms:1000}")
+    public void reconcile() {
+        List<PendingSync> pending = new ArrayList<>();
+        for (Map<String, TokenBucket> stripe : stripes) {
+            synchronized (stripe) {
+                long now = clock.millis();
+                stripe.forEach((id, bucket) -> {
+                    if (bucket.needsSync(now)) {
+                        pending.add(new PendingSync(id, bucket, bucket.takeUnsynced()));
+                    }
+                });
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Object> sharedTokens;
+        try {
+            byte[] script = RECONCILE_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+            sharedTokens = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                pending.forEach(sync -> eval(connection, script, sync));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile {} rate limit buckets through Redis, enforcing local limits only.", pending.size(), e);
+            for (PendingSync sync : pending) {
+                synchronized (stripe(sync.id())) {
+                    sync.bucket().restoreUnsynced(sync.taken());
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < pending.size(); i++) {
+            PendingSync sync = pending.get(i);
+            synchronized (stripe(sync.id())) {
+                sync.bucket().reconcile(((Number) sharedTokens.get(i)).longValue() / 1000.0, clock.millis());
+            }
+        }
+        log.debug("Reconciled {} rate limit buckets through Redis.", pending.size());
+    }
+
+    /**
+     * Returns the state of a client's bucket.
+     *
+     * @param client the bucket identifier, e.g. {@code ip:192.0.2.1}
+     * @return the state of the bucket, or empty if this instance holds no bucket for the client
+     */
+    public Optional<BucketState> getBucket(String client) {
+        Map<String, TokenBucket> stripe = stripe(client);
+        synchronized (stripe) {
+            TokenBucket bucket = stripe.get(client);
+            return bucket != null ? Optional.of(bucket.toState(client, clock.millis())) : Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the states of the emptiest buckets, i.e. the clients closest to or over their limit.
+     *
+     * @param limit the maximum number of buckets returned
+     * @return the states of the buckets, the one with the fewest tokens first
+     */
+    public List<BucketState> getEmptiestBuckets(int limit) {
+        List<BucketState> states = new ArrayList<>();
+        for (Map<String, TokenBucket> stripe : stripes) {
+            synchronized (stripe) {
+                long now = clock.millis();
+                stripe.forEach((id, bucket) -> states.add(bucket.toState(id, now)));
+            }
+        }
+        return states.stream().sorted(Comparator.comparingDouble(BucketState::tokens)).limit(limit).toList();
+    }
+
+    /**
+     * Counts the buckets held by this instance.
+     *
+     * @return the number of buckets
+     */
+    public int getBucketCount() {
+        int count = 0;
+        for (Map<String, TokenBucket> stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the stripe holding the bucket of a client. Its monitor guards the stripe and its buckets.
+     *
+     * @param id the bucket identifier
+     * @return the stripe
+     */
+    private Map<String, TokenBucket> stripe(String id) {
+        return stripes.get(Math.floorMod(id.hashCode(), stripes.size()));
+    }
+
+    /**
+     * Queues the reconcile script for a bucket. Plain EVAL is used, as EVALSHA cannot fall back to it inside a pipeline.
+     *
+     * @param connection the pipelined connection
+     * @param script     the script source
+     * @param sync       the bucket to reconcile
+     */
+    private static void eval(RedisConnection connection, byte[] script, PendingSync sync) {
+        TokenBucket bucket = sync.bucket();
+        long timeToLive = (long) Math.ceil(2 * bucket.getCapacity() * 1000 / bucket.getRefillPerSecond()) + 1000;
+        connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1,
+                bytes(KEY_PREFIX + sync.id()),
+                bytes(Long.toString(Math.round(sync.taken() * 1000))),
+                bytes(Long.toString(bucket.getCapacity() * 1000L)),
+                bytes(Double.toString(bucket.getRefillPerSecond())),
+                bytes(Long.toString(timeToLive)));
+    }
+
+    /**
+     * Encodes a string as UTF-8.
+     *
+     * @param value the string
+     * @return the bytes
+     */
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A bucket handed over for reconciliation.
+     *
+     * @param id     the bucket identifier
+     * @param bucket the local bucket
+     * @param taken  the tokens taken locally since the previous reconciliation
+     */
+    private record PendingSync(String id, TokenBucket bucket, double taken) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.urlshortener.ratelimit;
+
+import com.urlshortener.config.RateLimitProperties;
+
+/**
+ * A rate limited client: an API key or an IP address, with the limit applying to it.
+ *
+ * @param type  the kind of client, {@link #API_KEY} or {@link #IP}
+ * @param name  the name of the API key or the IP address
+ * @param limit the limit of the client
+ */
+public record RateLimitClient(String type, String name, RateLimitProperties.Limit limit) {
+    public static final String API_KEY = "api-key";
+    public static final String IP = "ip";
+
+    /**
+     * Returns the identifier of the client's bucket, e.g. {@code ip:192.0.2.1}.
+     *
+     * @return the bucket identifier
+     */
+    public String id() {
+        return type + ":" + name;
+    }
+}
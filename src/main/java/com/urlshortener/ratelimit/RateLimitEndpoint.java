@@ -0,0 +1,87 @@
+package com.urlshortener.ratelimit;
+
+import com.urlshortener.config.RateLimitProperties;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint showing the configured limits and the token buckets held by this instance.
+ * API keys are listed by name only.
+ */
+@Endpoint(id = "ratelimits")
+public class RateLimitEndpoint {
+    private static final int LISTED_BUCKETS = 100;
+
+    private final ClientRateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+
+    /**
+     * Creates the endpoint.
+     *
+     * @param rateLimiter the rate limiter
+     * @param properties  the rate limit properties
+     */
+    public RateLimitEndpoint(ClientRateLimiter rateLimiter, RateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+    }
+
+    /**
+     * Describes the limits, the number of buckets and the emptiest buckets.
+     *
+     * @return the limits and bucket states
+     */
+    @ReadOperation
+    public RateLimitsDescriptor rateLimits() {
+        Map<String, LimitDescriptor> limits = new LinkedHashMap<>();
+        limits.put(RateLimitClient.IP, LimitDescriptor.of(properties.getIp()));
+        for (RateLimitProperties.ApiKey apiKey : properties.getApiKeys()) {
+            limits.put(RateLimitClient.API_KEY + ":" + apiKey.getName(), LimitDescriptor.of(apiKey));
+        }
+        return new RateLimitsDescriptor(limits, rateLimiter.getBucketCount(), rateLimiter.getEmptiestBuckets(LISTED_BUCKETS));
+    }
+
+    /**
+     * Describes the bucket of one client.
+     *
+     * @param client the bucket identifier, e.g. {@code ip:192.0.2.1}
+     * @return the state of the bucket, or null if this instance holds no bucket for the client
+     */
+    @ReadOperation
+    public BucketState bucket(@Selector String client) {
+        return rateLimiter.getBucket(client).orElse(null);
+    }
+
+    /**
+     * The limits and bucket states of this instance.
+     *
+     * @param limits   the limits by IP or API key name
+     * @param buckets  the number of buckets held
+     * @param emptiest the emptiest buckets, the one with the fewest tokens first
+     */
+    public record RateLimitsDescriptor(Map<String, LimitDescriptor> limits, int buckets, List<BucketState> emptiest) {
+    }
+
+    /**
+     * A token bucket limit.
+     *
+     * @param capacity        the maximum number of requests a client can send at once
+     * @param refillPerSecond the number of requests per second a client can sustain
+     */
+    public record LimitDescriptor(int capacity, double refillPerSecond) {
+        /**
+         * Describes a configured limit.
+         *
+         * @param limit the limit
+         * @return the descriptor
+         */
+        static LimitDescriptor of(RateLimitProperties.Limit limit) {
+            return new LimitDescriptor(limit.getCapacity(), limit.getRefillPerSecond());
+        }
+    }
+}
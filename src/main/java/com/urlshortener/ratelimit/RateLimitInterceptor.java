@@ -0,0 +1,72 @@
+package com.urlshortener.ratelimit;
+
+import com.urlshortener.config.RateLimitProperties;
+import com.urlshortener.exception.RateLimitExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interceptor rate limiting POST requests per client. A request carrying a configured API key is charged to that key,
+ * any other request to its IP address, so unknown keys cannot be used to evade the limit of an address.
+ * Behind a proxy, the client address is only the original one with {@code server.forward-headers-strategy} set.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private final ClientRateLimiter rateLimiter;
+    private final String apiKeyHeader;
+    private final RateLimitProperties.Limit ipLimit;
+    private final Map<String, RateLimitClient> clientsByApiKey = new HashMap<>();
+
+    /**
+     * Creates an interceptor for the configured clients.
+     *
+     * @param rateLimiter the rate limiter
+     * @param properties  the rate limit properties
+     */
+    public RateLimitInterceptor(ClientRateLimiter rateLimiter, RateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.apiKeyHeader = properties.getApiKeyHeader();
+        this.ipLimit = properties.getIp();
+        for (RateLimitProperties.ApiKey apiKey : properties.getApiKeys()) {
+            clientsByApiKey.put(apiKey.getKey(), new RateLimitClient(RateLimitClient.API_KEY, apiKey.getName(), apiKey));
+        }
+    }
+
+    /**
+     * Admits the request if its client has a token left.
+     *
+     * @param request  the request
+     * @param response the response
+     * @param handler  the handler
+     * @return true, as rejected requests end with an exception
+     * @throws RateLimitExceededException if the client has used up its limit
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        Duration retryAfter = rateLimiter.tryAcquire(resolveClient(request));
+        if (!retryAfter.isZero()) {
+            throw new RateLimitExceededException("Too many requests, retry after " + retryAfter.toMillis() + " ms", retryAfter);
+        }
+        return true;
+    }
+
+    /**
+     * Determines the client a request is charged to.
+     *
+     * @param request the request
+     * @return the client of the configured API key, or the client of the IP address
+     */
+    private RateLimitClient resolveClient(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        RateLimitClient client = apiKey != null ? clientsByApiKey.get(apiKey) : null;
+        return client != null ? client : new RateLimitClient(RateLimitClient.IP, request.getRemoteAddr(), ipLimit);
+    }
+}
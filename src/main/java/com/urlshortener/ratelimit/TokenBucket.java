@@ -0,0 +1,115 @@
+package com.urlshortener.ratelimit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Local token bucket of a client. It admits a request per token and refills continuously up to its capacity.
+ * Requests admitted since the last reconciliation are counted, so they can be charged to the bucket shared through Redis.
+ * Not thread-safe; the limiter guards every bucket by the lock of its stripe.
+ */
+class TokenBucket {
+    @Getter(AccessLevel.PACKAGE)
+    private final int capacity;
+    @Getter(AccessLevel.PACKAGE)
+    private final double refillPerSecond;
+    private double tokens;
+    private long updatedAt;
+    private double unsynced;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param capacity        the capacity of the bucket
+     * @param refillPerSecond the tokens added per second
+     * @param now             the current time in milliseconds
+     */
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.tokens = capacity;
+        this.updatedAt = now;
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param now the current time in milliseconds
+     * @return 0 if a token was taken, otherwise the milliseconds until the next token is available
+     */
+    long tryConsume(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens--;
+            unsynced++;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * 1000 / refillPerSecond);
+    }
+
+    /**
+     * Checks whether the bucket differs from a full bucket nobody used, so reconciling it may change either side.
+     *
+     * @param now the current time in milliseconds
+     * @return true if tokens were taken since the last reconciliation or the bucket is not full
+     */
+    boolean needsSync(long now) {
+        refill(now);
+        return unsynced > 0 || tokens < capacity;
+    }
+
+    /**
+     * Hands over the tokens taken since the last reconciliation.
+     *
+     * @return the tokens taken
+     */
+    double takeUnsynced() {
+        double taken = unsynced;
+        unsynced = 0;
+        return taken;
+    }
+
+    /**
+     * Gives back tokens handed over for a reconciliation that failed, so the next one charges them.
+     *
+     * @param taken the tokens handed over
+     */
+    void restoreUnsynced(double taken) {
+        unsynced += taken;
+    }
+
+    /**
+     * Adopts the tokens of the shared bucket, minus the tokens taken locally while the reconciliation was in flight.
+     *
+     * @param sharedTokens the tokens of the shared bucket after charging the handed over tokens
+     * @param now          the current time in milliseconds
+     */
+    void reconcile(double sharedTokens, long now) {
+        tokens = Math.max(-capacity, Math.min(capacity, sharedTokens - unsynced));
+        updatedAt = now;
+    }
+
+    /**
+     * Captures the state of the bucket.
+     *
+     * @param client the bucket identifier
+     * @param now    the current time in milliseconds
+     * @return the state of the bucket
+     */
+    BucketState toState(String client, long now) {
+        refill(now);
+        return new BucketState(client, tokens, capacity, refillPerSecond, unsynced);
+    }
+
+    /**
+     * Adds the tokens accrued since the last update, up to the capacity.
+     *
+     * @param now the current time in milliseconds
+     */
+    private void refill(long now) {
+        if (now > updatedAt) {
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * refillPerSecond / 1000);
+            updatedAt = now;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.urlshortener.repository;
+
+import com.urlshortener.datasource.ShardKey;
+import com.urlshortener.export.ExportFilter;
+import com.urlshortener.model.Url;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.scheduling.CodeRange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * JDBC repository for idempotent and bulk writes and deletes of URL entities, for streaming reads of the whole table,
+ * and for the index of loaded original URLs.
+ * JPA can neither batch inserts of entities with IDENTITY keys nor express INSERT ... ON CONFLICT, so these writes use plain SQL.
+ * PostgreSQL resolves conflicts with ON CONFLICT DO NOTHING; other databases (e.g. H2) fall back to portable statements.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class UrlJdbcRepository {
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+    private static final String INSERT_PREFIX = "INSERT INTO urls (original_url, short_url, created_at, expiration_date, click_count) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?)";
+    private static final String ON_CONFLICT_DO_NOTHING = " ON CONFLICT DO NOTHING";
+    private static final String UPSERT_RETURNING_MAPPING = "WITH inserted AS ("
+            + "INSERT INTO urls (original_url, short_url, created_at, expiration_date, click_count) VALUES (:originalUrl, :shortUrl, :createdAt, :expirationDate, 0) "
+            + "ON CONFLICT DO NOTHING RETURNING short_url, original_url, expiration_date) "
+            + "SELECT short_url, original_url, expiration_date FROM inserted "
+            + "UNION ALL SELECT short_url, original_url, expiration_date FROM urls WHERE original_url = :originalUrl "
+            + "LIMIT 1";
+    private static final String INSERT_IF_ABSENT = "INSERT INTO urls (original_url, short_url, created_at, expiration_date, click_count) "
+            + "SELECT :originalUrl, :shortUrl, :createdAt, :expirationDate, 0 "
+            + "WHERE NOT EXISTS (SELECT 1 FROM urls WHERE original_url = :originalUrl OR short_url = :shortUrl)";
+    private static final String CREATE_STAGING_TABLE = "CREATE TEMPORARY TABLE IF NOT EXISTS urls_staging "
+            + "(original_url TEXT, short_url TEXT, created_at TIMESTAMP, expiration_date TIMESTAMP, click_count INT) "
+            + "ON COMMIT DELETE ROWS";
+    private static final String COPY_INTO_STAGING_TABLE = "COPY urls_staging (original_url, short_url, created_at, expiration_date, click_count) "
+            + "FROM STDIN WITH (FORMAT csv)";
+    private static final String MOVE_STAGED_ROWS = "INSERT INTO urls (original_url, short_url, created_at, expiration_date, click_count) "
+            + "SELECT original_url, short_url, created_at, expiration_date, click_count FROM urls_staging "
+            + "ON CONFLICT DO NOTHING RETURNING short_url";
+    private static final String INDEX_ORIGINAL_URL_IF_ABSENT = "INSERT INTO original_url_index (original_url, short_url) "
+            + "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM original_url_index WHERE original_url = ?)";
+    private static final String SELECT_INDEXED_SHORT_URL = "SELECT short_url FROM original_url_index WHERE original_url = :originalUrl";
+    private static final String SELECT_MAPPING_BY_ORIGINAL_URL = "SELECT short_url, original_url, expiration_date FROM urls WHERE original_url = :originalUrl";
+    private static final RowMapper<UrlMapping> MAPPING_ROW_MAPPER = (rs, rowNum) -> new UrlMapping(
+            rs.getString("short_url"), rs.getString("original_url"), rs.getObject("expiration_date", LocalDateTime.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    /**
+     * Inserts the given URL entity unless its original URL or short URL is already stored,
+     * and returns the mapping stored for its original URL. Concurrent calls for the same URL never fail on the unique constraints.
+     * On PostgreSQL this takes a single round trip.
+     *
+     * @param url the URL entity to insert
+     * @return the mapping stored for the original URL, or empty if its short URL is taken by another original URL
+     */
+    public Optional<UrlMapping> insertIfAbsent(@ShardKey Url url) {
+        Map<String, Object> params = Map.of(
+                "originalUrl", url.getOriginalUrl(),
+                "shortUrl", url.getShortUrl(),
+                "createdAt", url.getCreatedAt(),
+                "expirationDate", url.getExpirationDate());
+
+        if (isPostgres()) {
+            Optional<UrlMapping> mapping = jdbcTemplate.query(UPSERT_RETURNING_MAPPING, params, MAPPING_ROW_MAPPER).stream().findFirst();
+            if (mapping.isPresent()) {
+                return mapping;
+            }
+            // The conflicting row was committed by a concurrent insert after this statement's snapshot was taken
+        } else {
+            Optional<UrlMapping> existing = findMappingByOriginalUrl(params);
+            if (existing.isPresent()) {
+                return existing;
+            }
+            try {
+                jdbcTemplate.update(INSERT_IF_ABSENT, params);
+            } catch (DataIntegrityViolationException e) {
+                log.info("Url {} was inserted concurrently.", url.getOriginalUrl());
+            }
+        }
+
+        return findMappingByOriginalUrl(params);
+    }
+
+    /**
+     * Inserts the given URL entities, skipping those whose short URL or original URL is already stored.
+     * Rows are written with multi-row INSERT statements; if a statement hits a conflicting row, its rows are inserted one by one.
+     *
+     * @param urls the URL entities to insert
+     * @return the number of inserted rows
+     */
+    public int insertAllIfAbsent(@ShardKey List<Url> urls) {
+        int inserted = 0;
+        for (int from = 0; from < urls.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Url> chunk = urls.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, urls.size()));
+            inserted += isPostgres() ? insert(chunk, ON_CONFLICT_DO_NOTHING) : insertChunkIfAbsent(chunk).size();
+        }
+        return inserted;
+    }
+
+    /**
+     * Inserts a large batch of URL entities, skipping those whose short URL or original URL is already stored,
+     * and returns the short URLs that were inserted. On PostgreSQL the rows are streamed with COPY into a temporary
+     * staging table and moved into the urls table with a single INSERT ... ON CONFLICT DO NOTHING; other databases
+     * use multi-row INSERT statements.
+     *
+     * @param urls the URL entities to insert
+     * @return the short URLs of the inserted rows
+     */
+    @Transactional
+    public List<String> bulkInsertIfAbsent(@ShardKey List<Url> urls) {
+        if (isPostgres()) {
+            return copyIfAbsent(urls);
+        }
+
+        List<String> inserted = new ArrayList<>();
+        for (int from = 0; from < urls.size(); from += MAX_ROWS_PER_STATEMENT) {
+            insertChunkIfAbsent(urls.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, urls.size())))
+                    .forEach(url -> inserted.add(url.getShortUrl()));
+        }
+        return inserted;
+    }
+
+    /**
+     * Indexes the short URLs of the given URL entities by their original URLs, skipping original URLs already indexed.
+     * When sharding is enabled, the entries are stored on the shards of the short URLs generated from the original URLs.
+     *
+     * @param urls the URL entities to index
+     */
+    @Transactional
+    public void indexOriginalUrls(@ShardKey(ShardKey.Type.ORIGINAL_URL) List<Url> urls) {
+        jdbcTemplate.getJdbcOperations().batchUpdate(INDEX_ORIGINAL_URL_IF_ABSENT, urls.stream()
+                .map(url -> new Object[]{url.getOriginalUrl(), url.getShortUrl(), url.getOriginalUrl()})
+                .toList());
+    }
+
+    /**
+     * Finds the short URL an original URL is indexed under.
+     *
+     * @param originalUrl the original URL
+     * @return an Optional containing the indexed short URL, or empty if the original URL is not indexed
+     */
+    public Optional<String> findIndexedShortUrl(@ShardKey(ShardKey.Type.ORIGINAL_URL) String originalUrl) {
+        return jdbcTemplate.queryForList(SELECT_INDEXED_SHORT_URL, Map.of("originalUrl", originalUrl), String.class).stream().findFirst();
+    }
+
+    /**
+     * Deletes the URL entities of a short URL range that expired before the given date and time.
+     * Rows are deleted in batches, each committed on its own, so a large cleanup never holds long-running locks.
+     * Runs on every shard when sharding is enabled.
+     *
+     * @param dateTime  the date and time to compare against
+     * @param range     the short URL range to clean up
+     * @param batchSize the maximum number of rows deleted by one statement
+     * @return the number of deleted rows
+     */
+    public int deleteExpiredInRange(LocalDateTime dateTime, CodeRange range, int batchSize) {
+        StringBuilder sql = new StringBuilder("DELETE FROM urls WHERE id IN (SELECT id FROM urls WHERE expiration_date < :dateTime");
+        Map<String, Object> params = new HashMap<>();
+        params.put("dateTime", dateTime);
+        params.put("batchSize", batchSize);
+        if (range.from() != null) {
+            sql.append(" AND short_url >= :from");
+            params.put("from", range.from());
+        }
+        if (range.to() != null) {
+            sql.append(" AND short_url < :to");
+            params.put("to", range.to());
+        }
+        sql.append(" LIMIT :batchSize)");
+
+        int deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update(sql.toString(), params);
+            deleted += batch;
+        } while (batch >= batchSize);
+        return deleted;
+    }
+
+    /**
+     * Streams the URL entities selected by the filter to the consumer, one at a time.
+     * Rows are read through a forward-only cursor fetching the given number of rows per round trip, so memory use does not
+     * depend on the table size. PostgreSQL only uses a server-side cursor inside a transaction, which this method runs in;
+     * being read-only, it is served by a read replica when replica routing is enabled. When sharding is enabled, the shards are
+     * streamed one after another, each in a read-only transaction of its own, so this method must not be called inside a transaction.
+     *
+     * @param filter    the filter selecting the URL entities
+     * @param fetchSize the number of rows fetched per round trip
+     * @param consumer  the consumer of the URL entities; the entities are not managed and must not be kept
+     * @return the number of streamed rows
+     */
+    @Transactional(readOnly = true)
+    public long streamAll(ExportFilter filter, int fetchSize, Consumer<Url> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT short_url, original_url, created_at, expiration_date, click_count FROM urls WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        appendBound(sql, args, "created_at >= ?", filter.createdFrom());
+        appendBound(sql, args, "created_at < ?", filter.createdTo());
+        appendBound(sql, args, "expiration_date >= ?", filter.expiresFrom());
+        appendBound(sql, args, "expiration_date < ?", filter.expiresTo());
+        if (!filter.includeExpired()) {
+            sql.append(" AND (expiration_date IS NULL OR expiration_date > ?)");
+            args.add(LocalDateTime.now());
+        }
+
+        long[] rows = new long[1];
+        jdbcTemplate.getJdbcOperations().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            consumer.accept(new Url(null, rs.getString("original_url"), rs.getString("short_url"),
+                    rs.getObject("created_at", LocalDateTime.class), rs.getObject("expiration_date", LocalDateTime.class),
+                    rs.getInt("click_count")));
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    /**
+     * Appends a condition on a bound to a query if the bound is set.
+     *
+     * @param sql       the query
+     * @param args      the query arguments
+     * @param condition the condition with a placeholder for the bound
+     * @param bound     the bound, or null
+     */
+    private void appendBound(StringBuilder sql, List<Object> args, String condition, LocalDateTime bound) {
+        if (bound != null) {
+            sql.append(" AND ").append(condition);
+            args.add(bound);
+        }
+    }
+
+    /**
+     * Inserts a chunk of URL entities with a single portable statement, skipping rows that are already stored.
+     * If the statement hits a conflicting row, the rows are inserted one by one.
+     *
+     * @param urls the URL entities to insert
+     * @return the inserted URL entities
+     */
+    private List<Url> insertChunkIfAbsent(List<Url> urls) {
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList("SELECT short_url FROM urls WHERE short_url IN (:shortUrls)",
+                Map.of("shortUrls", urls.stream().map(Url::getShortUrl).toList()), String.class));
+        List<Url> missing = urls.stream().filter(url -> !existing.contains(url.getShortUrl())).toList();
+        if (missing.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            insert(missing, "");
+            return missing;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Multi-row insert of {} urls conflicted with existing rows, inserting one by one.", missing.size());
+            List<Url> inserted = new ArrayList<>();
+            for (Url url : missing) {
+                try {
+                    insert(List.of(url), "");
+                    inserted.add(url);
+                } catch (DataIntegrityViolationException duplicate) {
+                    log.info("Url {} already exists, skipping.", url.getShortUrl());
+                }
+            }
+            return inserted;
+        }
+    }
+
+    /**
+     * Streams URL entities into a temporary staging table with the COPY protocol and moves them into the urls table,
+     * skipping rows that conflict with stored ones. The staging table is emptied when the transaction commits.
+     *
+     * @param urls the URL entities to insert
+     * @return the short URLs of the inserted rows
+     */
+    private List<String> copyIfAbsent(List<Url> urls) {
+        return jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<List<String>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_INTO_STAGING_TABLE), StandardCharsets.UTF_8))) {
+                for (Url url : urls) {
+                    writeCopyRow(writer, url);
+                }
+            } catch (IOException e) {
+                throw new SQLException("Failed to copy urls into the staging table", e);
+            }
+            List<String> inserted = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(MOVE_STAGED_ROWS)) {
+                while (rs.next()) {
+                    inserted.add(rs.getString(1));
+                }
+            }
+            return inserted;
+        });
+    }
+
+    /**
+     * Writes a URL entity as a row of COPY's CSV format, in which an unquoted empty field is NULL.
+     *
+     * @param writer the writer of the COPY stream
+     * @param url    the URL entity
+     * @throws IOException if writing fails
+     */
+    private void writeCopyRow(Writer writer, Url url) throws IOException {
+        writer.write(quoteCopyField(url.getOriginalUrl()));
+        writer.write(',');
+        writer.write(quoteCopyField(url.getShortUrl()));
+        writer.write(',');
+        writer.write(url.getCreatedAt() != null ? url.getCreatedAt().toString() : "");
+        writer.write(',');
+        writer.write(url.getExpirationDate() != null ? url.getExpirationDate().toString() : "");
+        writer.write(',');
+        writer.write(Integer.toString(url.getClickCount()));
+        writer.write('\n');
+    }
+
+    /**
+     * Quotes a text field of COPY's CSV format, so that empty strings are not read as NULL.
+     *
+     * @param value the field value
+     * @return the quoted field
+     */
+    private String quoteCopyField(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Inserts the given URL entities with a single multi-row INSERT statement.
+     *
+     * @param urls   the URL entities to insert
+     * @param suffix the clause appended to the statement
+     * @return the number of inserted rows
+     */
+    private int insert(List<Url> urls, String suffix) {
+        StringJoiner sql = new StringJoiner(", ", INSERT_PREFIX, suffix);
+        Object[] args = new Object[urls.size() * 5];
+        for (int i = 0; i < urls.size(); i++) {
+            Url url = urls.get(i);
+            sql.add(ROW_PLACEHOLDER);
+            args[i * 5] = url.getOriginalUrl();
+            args[i * 5 + 1] = url.getShortUrl();
+            args[i * 5 + 2] = url.getCreatedAt();
+            args[i * 5 + 3] = url.getExpirationDate();
+            args[i * 5 + 4] = url.getClickCount();
+        }
+        return jdbcTemplate.getJdbcOperations().update(sql.toString(), args);
+    }
+
+    /**
+     * Finds the mapping stored for an original URL.
+     *
+     * @param params the statement parameters holding the original URL
+     * @return an Optional containing the found mapping, or empty if not found
+     */
+    private Optional<UrlMapping> findMappingByOriginalUrl(Map<String, Object> params) {
+        return jdbcTemplate.query(SELECT_MAPPING_BY_ORIGINAL_URL, params, MAPPING_ROW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Checks whether the database is PostgreSQL. The result is determined once and cached.
+     *
+     * @return true if the database is PostgreSQL, false otherwise
+     */
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -1,53 +1,78 @@
 package com.urlshortener.repository;
 
+import com.urlshortener.datasource.ShardKey;
 import com.urlshortener.model.Url;
-import jakarta.transaction.Transactional;
+import com.urlshortener.model.UrlMapping;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for URL entities.
  * Extends JpaRepository to provide CRUD operations.
+ * Parameters annotated with {@link ShardKey} determine the shard a call is routed to when sharding is enabled.
  */
 @Repository
 public interface UrlRepository extends JpaRepository<Url, Long> {
 
     /**
      * Finds a URL entity by its original URL.
+     * Runs outside a read-only transaction so the shortening path always reads its own writes from the primary.
      *
      * @param originalUrl the original URL
      * @return an Optional containing the found URL entity, or empty if not found
      */
-    Optional<Url> findByOriginalUrl(String originalUrl);
+    Optional<Url> findByOriginalUrl(@ShardKey(ShardKey.Type.ORIGINAL_URL) String originalUrl);
 
     /**
-     * Finds a URL entity by its shortened URL.
+     * Finds the mapping of a shortened URL without loading the URL entity.
+     * Runs in a read-only transaction, so it is served by a read replica when replica routing is enabled.
      *
      * @param shortUrl the shortened URL
-     * @return an Optional containing the found URL entity, or empty if not found
+     * @return an Optional containing the found mapping, or empty if not found
      */
-    Optional<Url> findByShortUrl(String shortUrl);
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.urlshortener.model.UrlMapping(u.shortUrl, u.originalUrl, u.expirationDate) FROM Url u WHERE u.shortUrl = :shortUrl")
+    Optional<UrlMapping> findMappingByShortUrl(@ShardKey @Param("shortUrl") String shortUrl);
 
     /**
-     * Deletes URL entities with expiration dates before a given date and time.
+     * Finds the mappings of the given shortened URLs in a single query without loading the URL entities.
+     * Runs in a read-only transaction, so it is served by a read replica when replica routing is enabled.
      *
-     * @param dateTime the date and time to compare against
+     * @param shortUrls the shortened URLs
+     * @return the mappings of the shortened URLs that exist
      */
-    void deleteByExpirationDateBefore(LocalDateTime dateTime);
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.urlshortener.model.UrlMapping(u.shortUrl, u.originalUrl, u.expirationDate) FROM Url u WHERE u.shortUrl IN :shortUrls")
+    List<UrlMapping> findMappingsByShortUrlIn(@ShardKey @Param("shortUrls") Collection<String> shortUrls);
 
     /**
-     * Increments the click count of a URL entity by one.
+     * Finds the click count of a shortened URL without loading the URL entity.
+     * Runs in a read-only transaction, so it is served by a read replica when replica routing is enabled.
      *
      * @param shortUrl the shortened URL
+     * @return an Optional containing the click count, or empty if not found
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT u.clickCount FROM Url u WHERE u.shortUrl = :shortUrl")
+    Optional<Integer> findClickCountByShortUrl(@ShardKey @Param("shortUrl") String shortUrl);
+
+    /**
+     * Increments the click count of a URL entity.
+     *
+     * @param shortUrl   the shortened URL
+     * @param clickCount the number of clicks to add
+     * @return the number of updated URL entities, 0 if the shortened URL is not stored
      */
     @Modifying
     @Transactional
     @Query("UPDATE Url u SET u.clickCount = u.clickCount + :clickCount WHERE u.shortUrl = :shortUrl")
-    void incrementClickCount(@Param("shortUrl") String shortUrl, @Param("clickCount") int clickCount);
+    int incrementClickCount(@ShardKey @Param("shortUrl") String shortUrl, @Param("clickCount") int clickCount);
 }
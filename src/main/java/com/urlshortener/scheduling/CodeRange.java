@@ -0,0 +1,51 @@
+package com.urlshortener.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A half-open range of short URLs, {@code [from, to)}, used to split scheduled jobs into partitions.
+ * A {@code null} bound leaves that side of the range open, so the partitions of a job always cover every short URL.
+ *
+ * @param from the inclusive lower bound, or {@code null} for no lower bound
+ * @param to   the exclusive upper bound, or {@code null} for no upper bound
+ */
+public record CodeRange(String from, String to) {
+    /**
+     * The maximum number of partitions; bounds are two hexadecimal characters.
+     */
+    public static final int MAX_PARTITIONS = 256;
+
+    /**
+     * Splits the short URL space into ranges of roughly equal size.
+     * Generated short URLs are uppercase hexadecimal, so the bounds are two-character hexadecimal prefixes.
+     *
+     * @param count the number of ranges
+     * @return the ranges in ascending order
+     * @throws IllegalArgumentException if the count is not between 1 and {@link #MAX_PARTITIONS}
+     */
+    public static List<CodeRange> partition(int count) {
+        if (count < 1 || count > MAX_PARTITIONS) {
+            throw new IllegalArgumentException("Partition count must be between 1 and " + MAX_PARTITIONS + ": " + count);
+        }
+        List<CodeRange> ranges = new ArrayList<>(count);
+        String from = null;
+        for (int i = 1; i < count; i++) {
+            String to = String.format("%02X", i * MAX_PARTITIONS / count);
+            ranges.add(new CodeRange(from, to));
+            from = to;
+        }
+        ranges.add(new CodeRange(from, null));
+        return ranges;
+    }
+
+    /**
+     * Checks whether a short URL falls into this range.
+     *
+     * @param shortUrl the short URL
+     * @return true if the short URL is within the range, false otherwise
+     */
+    public boolean contains(String shortUrl) {
+        return (from == null || shortUrl.compareTo(from) >= 0) && (to == null || shortUrl.compareTo(to) < 0);
+    }
+}
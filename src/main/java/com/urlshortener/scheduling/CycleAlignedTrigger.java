@@ -0,0 +1,41 @@
+package com.urlshortener.scheduling;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.time.Instant;
+
+/**
+ * Trigger firing once at startup and then at the start of every job cycle.
+ * Cycles are aligned to the epoch, so all instances fire at the same moment and can share the partitions of a job.
+ */
+public class CycleAlignedTrigger implements Trigger {
+    private final long intervalMs;
+
+    /**
+     * Creates a trigger for cycles of the given length.
+     *
+     * @param intervalMs the length of a cycle in milliseconds
+     */
+    public CycleAlignedTrigger(long intervalMs) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("Cycle interval must be positive: " + intervalMs);
+        }
+        this.intervalMs = intervalMs;
+    }
+
+    /**
+     * Determines the next execution time: immediately for the first execution, otherwise the start of the next cycle.
+     *
+     * @param triggerContext the context of the previous executions
+     * @return the next execution time
+     */
+    @Override
+    public Instant nextExecution(TriggerContext triggerContext) {
+        if (triggerContext.lastScheduledExecution() == null) {
+            return triggerContext.getClock().instant();
+        }
+        long now = triggerContext.getClock().millis();
+        return Instant.ofEpochMilli((now / intervalMs + 1) * intervalMs);
+    }
+}
@@ -0,0 +1,19 @@
+package com.urlshortener.scheduling;
+
+import java.time.Duration;
+
+/**
+ * Hands out leases on scheduled work so that instances of the application do not run the same work concurrently.
+ */
+public interface JobCoordinator {
+
+    /**
+     * Tries to acquire a lease. A lease is not released explicitly; it expires after its time to live,
+     * so work done under a lease named after a job cycle is not repeated by other instances in that cycle.
+     *
+     * @param lease      the name of the lease
+     * @param timeToLive how long the lease is held
+     * @return true if this instance acquired the lease, false if another instance holds it
+     */
+    boolean tryAcquire(String lease, Duration timeToLive);
+}
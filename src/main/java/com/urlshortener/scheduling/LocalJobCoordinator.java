@@ -0,0 +1,26 @@
+package com.urlshortener.scheduling;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Job coordinator for uncoordinated instances. Every lease is granted, so every instance runs all scheduled work.
+ */
+@Component
+@ConditionalOnProperty(prefix = "url-shortener.scheduler", name = "coordinated", havingValue = "false")
+public class LocalJobCoordinator implements JobCoordinator {
+
+    /**
+     * Grants the lease.
+     *
+     * @param lease      the name of the lease
+     * @param timeToLive how long the lease is held
+     * @return always true
+     */
+    @Override
+    public boolean tryAcquire(String lease, Duration timeToLive) {
+        return true;
+    }
+}
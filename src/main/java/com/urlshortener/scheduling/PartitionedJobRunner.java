@@ -0,0 +1,78 @@
+package com.urlshortener.scheduling;
+
+import com.urlshortener.config.SchedulerProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Runs scheduled jobs split into short URL ranges.
+ * Each range is claimed through a lease named after the current job cycle, so across all instances
+ * it is processed once per cycle, and instances running the job at the same time share the ranges between them.
+ */
+@Slf4j
+@Component
+public class PartitionedJobRunner {
+    private final JobCoordinator jobCoordinator;
+    private final Clock clock;
+
+    /**
+     * Creates a runner claiming ranges through the given coordinator.
+     *
+     * @param jobCoordinator the coordinator handing out range leases
+     */
+    @Autowired
+    public PartitionedJobRunner(JobCoordinator jobCoordinator) {
+        this(jobCoordinator, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a runner deriving job cycles from the given clock.
+     *
+     * @param jobCoordinator the coordinator handing out range leases
+     * @param clock          the clock determining the current job cycle
+     */
+    PartitionedJobRunner(JobCoordinator jobCoordinator, Clock clock) {
+        this.jobCoordinator = jobCoordinator;
+        this.clock = clock;
+    }
+
+    /**
+     * Processes every range of the job that no other instance has claimed in the current cycle.
+     * Ranges are visited from a random starting point so that concurrently running instances rarely contend.
+     * A failing range is logged and left for the next cycle; the remaining ranges are still processed.
+     *
+     * @param job      the name of the job
+     * @param settings the cycle length and partition count of the job
+     * @param work     the work to run for each claimed range
+     * @return the number of ranges processed by this instance
+     */
+    public int run(String job, SchedulerProperties.Job settings, Consumer<CodeRange> work) {
+        List<CodeRange> ranges = CodeRange.partition(settings.getPartitions());
+        long cycle = clock.millis() / settings.getIntervalMs();
+        Duration leaseTime = Duration.ofMillis(settings.getIntervalMs());
+        int offset = ThreadLocalRandom.current().nextInt(ranges.size());
+
+        int processed = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            int partition = (offset + i) % ranges.size();
+            if (!jobCoordinator.tryAcquire(job + ":" + cycle + ":" + partition, leaseTime)) {
+                continue;
+            }
+            try {
+                work.accept(ranges.get(partition));
+                processed++;
+            } catch (RuntimeException e) {
+                log.error("Job {} failed for partition {} of cycle {}.", job, partition, cycle, e);
+            }
+        }
+        log.info("Job {} processed {} of {} partitions of cycle {} on this instance.", job, processed, ranges.size(), cycle);
+        return processed;
+    }
+}
@@ -0,0 +1,46 @@
+package com.urlshortener.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Job coordinator backed by Redis. A lease is a key set with {@code SET NX PX}, so exactly one instance acquires it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "url-shortener.scheduler", name = "coordinated", havingValue = "true", matchIfMissing = true)
+public class RedisJobCoordinator implements JobCoordinator {
+    static final String LEASE_PREFIX = "lease:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * Creates a coordinator storing its leases in Redis.
+     *
+     * @param redisTemplate the Redis template
+     */
+    public RedisJobCoordinator(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Tries to acquire a lease by setting its key if it does not exist yet.
+     * The key holds the name of the acquiring instance to make the current holder visible.
+     *
+     * @param lease      the name of the lease
+     * @param timeToLive how long the lease is held
+     * @return true if this instance acquired the lease, false if another instance holds it
+     */
+    @Override
+    public boolean tryAcquire(String lease, Duration timeToLive) {
+        boolean acquired = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LEASE_PREFIX + lease, owner, timeToLive));
+        log.debug("Lease {} {} by {}.", lease, acquired ? "acquired" : "already held", owner);
+        return acquired;
+    }
+}
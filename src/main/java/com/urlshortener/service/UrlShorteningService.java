@@ -1,24 +1,32 @@
 package com.urlshortener.service;
 
-import com.urlshortener.dto.UrlShortenedRequestDto;
-import com.urlshortener.dto.UrlShortenedResponseDto;
+import com.urlshortener.cache.CacheTtlPolicy;
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.config.ShardingProperties;
+import com.urlshortener.config.UrlNormalizationProperties;
+import com.urlshortener.dto.*;
 import com.urlshortener.exception.UrlExpiredException;
 import com.urlshortener.exception.UrlGenerationException;
 import com.urlshortener.exception.UrlNotFoundException;
 import com.urlshortener.model.Url;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.profiling.OperationProfile;
+import com.urlshortener.profiling.RedirectEvent;
+import com.urlshortener.profiling.ServingTier;
+import com.urlshortener.profiling.ShortenEvent;
+import com.urlshortener.repository.UrlJdbcRepository;
 import com.urlshortener.repository.UrlRepository;
 import com.urlshortener.util.UrlUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service class for URL shortening operations.
@@ -28,98 +36,84 @@ import java.util.Optional;
 @Slf4j
 public class UrlShorteningService {
     private static final int EXPIRATION_MONTHS = 3;
-    private static final int SHORT_URL_LENGTH = 6;
-    private static final Duration CACHE_EXPIRATION = Duration.ofHours(1);
+
+    private final Map<String, CompletableFuture<String>> inFlightShortenings = new ConcurrentHashMap<>();
 
     private final UrlRepository urlRepository;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final UrlJdbcRepository urlJdbcRepository;
+    private final UrlCache urlCache;
+    private final UrlNormalizationProperties normalizationProperties;
+    private final ObjectProvider<WriteBehindUrlWriter> writeBehindUrlWriter;
+    private final CacheTtlPolicy cacheTtlPolicy;
+    private final ShardingProperties shardingProperties;
 
     /**
-     * Shortens the given original URL.
+     * Shortens the given original URL. The call is recorded as a {@link ShortenEvent}.
      *
      * @param requestDto the request DTO containing the original URL
      * @return the response DTO containing the shortened URL
      */
     public UrlShortenedResponseDto shortenUrl(UrlShortenedRequestDto requestDto) {
-        String originalUrl = UrlUtil.normalizeUrl(requestDto.getOriginalUrl());
-
-        // Check if the original URL is already shortened in cache
-        String cachedShortUrl = redisTemplate.opsForValue().get(originalUrl);
-        if (cachedShortUrl != null) {
-            log.info("Original url {} found in cache.", originalUrl);
-            return new UrlShortenedResponseDto(cachedShortUrl);
-        }
+        ShortenEvent event = new ShortenEvent();
+        try (OperationProfile profile = OperationProfile.start(event)) {
+            String originalUrl = UrlUtil.normalizeUrl(requestDto.getOriginalUrl(), normalizationProperties);
 
-        // Check if the original URL is already shortened in database
-        Optional<Url> existingUrl = urlRepository.findByOriginalUrl(originalUrl);
-        if (existingUrl.isPresent()) {
-            log.info("Url {} already exists.", originalUrl);
-            String shortUrl = existingUrl.get().getShortUrl();
-            redisTemplate.opsForValue().set(originalUrl, shortUrl, CACHE_EXPIRATION);
+            // Check if the original URL is already shortened in cache
+            String cachedShortUrl = urlCache.getShortUrl(originalUrl);
+            if (cachedShortUrl != null) {
+                log.info("Original url {} found in cache.", originalUrl);
+                event.setShortCode(cachedShortUrl);
+                event.setTier(ServingTier.CACHE);
+                return new UrlShortenedResponseDto(cachedShortUrl);
+            }
 
+            event.setTier(ServingTier.DATABASE);
+            String shortUrl = createShortUrlCoalesced(originalUrl, event);
+            event.setShortCode(shortUrl);
             return new UrlShortenedResponseDto(shortUrl);
         }
-
-        String shortUrl = generateShortUrl(originalUrl);
-        LocalDateTime expiration = LocalDateTime.now().plusMonths(EXPIRATION_MONTHS);
-
-        Url url = new Url();
-        url.setOriginalUrl(originalUrl);
-        url.setShortUrl(shortUrl);
-        url.setCreatedAt(LocalDateTime.now());
-        url.setExpirationDate(expiration);
-
-        log.info("Short url {} created.", shortUrl);
-        urlRepository.save(url);
-
-        log.info("Storing url {} in cache", originalUrl);
-        redisTemplate.opsForValue().set(originalUrl, shortUrl, CACHE_EXPIRATION);
-        redisTemplate.opsForValue().set(shortUrl, originalUrl, CACHE_EXPIRATION);
-
-        return new UrlShortenedResponseDto(shortUrl);
     }
 
     /**
-     * Retrieves the original URL for the given shortened URL.
+     * Retrieves the original URL for the given shortened URL. The call is recorded as a {@link RedirectEvent}.
      *
      * @param shortUrl the shortened URL
-     * @return the original URL
+     * @return the mapping holding the original URL
      * @throws UrlNotFoundException if the shortened URL is not found
      * @throws UrlExpiredException if the shortened URL has expired
      */
-    public Url getOriginalUrl(String shortUrl) {
-        // Check Redis cache first
-        String cachedOriginalUrl = redisTemplate.opsForValue().get(shortUrl);
-        if (cachedOriginalUrl != null) {
-            log.info("Short url {} found in cache.", shortUrl);
-            incrementClickCount(shortUrl);
-            return new Url(null, cachedOriginalUrl, shortUrl, null, null, 0);
-        }
-
-        Url url = urlRepository.findByShortUrl(shortUrl)
-                .orElseThrow(() -> {
-                    log.error("Short url {} not found.", shortUrl);
-                    return new UrlNotFoundException("Short URL " + shortUrl + " not found in db.");
-                });
+    public UrlMapping getOriginalUrl(String shortUrl) {
+        RedirectEvent event = new RedirectEvent();
+        event.setShortCode(shortUrl);
+        try (OperationProfile profile = OperationProfile.start(event)) {
+            // Check Redis cache first
+            String cachedOriginalUrl = urlCache.getOriginalUrl(shortUrl);
+            if (cachedOriginalUrl != null) {
+                log.info("Short url {} found in cache.", shortUrl);
+                event.setTier(ServingTier.CACHE);
+                cacheTtlPolicy.recordAccess(shortUrl, true);
+                incrementClickCount(shortUrl);
+                return new UrlMapping(shortUrl, cachedOriginalUrl, null);
+            }
 
-        if (isUrlExpired(url)) {
-            log.error("Url {} expired.", shortUrl);
-            throw new UrlExpiredException("URL has expired for: " + shortUrl);
-        }
+            event.setTier(ServingTier.DATABASE);
+            cacheTtlPolicy.recordAccess(shortUrl, false);
+            UrlMapping url = urlRepository.findMappingByShortUrl(shortUrl)
+                    .orElseThrow(() -> {
+                        log.error("Short url {} not found.", shortUrl);
+                        return new UrlNotFoundException("Short URL " + shortUrl + " not found in db.");
+                    });
 
-        // Store the URL in cache, be sure not to store it for longer than is the url expiration date
-        Duration urlValidity = Duration.between(LocalDateTime.now(), url.getExpirationDate());
-        if (urlValidity.getSeconds() > CACHE_EXPIRATION.getSeconds()) {
-            log.info("Storing url {} in cache with default cache expiration time.", shortUrl);
-            redisTemplate.opsForValue().set(shortUrl, url.getOriginalUrl(), CACHE_EXPIRATION);
-        } else {
-            log.info("Url validity expires soon. Storing url {} in cache with shortened cache expiration time.", shortUrl);
-            redisTemplate.opsForValue().set(shortUrl, url.getOriginalUrl(), Duration.ofSeconds(urlValidity.getSeconds()));
-        }
+            if (isUrlExpired(url)) {
+                log.error("Url {} expired.", shortUrl);
+                throw new UrlExpiredException("URL has expired for: " + shortUrl);
+            }
 
-        incrementClickCount(shortUrl);
+            cacheOriginalUrl(url);
+            incrementClickCount(shortUrl);
 
-        return url;
+            return url;
+        }
     }
 
     /**
@@ -131,43 +125,246 @@ public class UrlShorteningService {
      */
     public int getClickCount(String shortUrl) {
         log.info("Retrieving click count for short url {}.", shortUrl);
-        return urlRepository.findByShortUrl(shortUrl)
-                .map(Url::getClickCount)
+        return urlRepository.findClickCountByShortUrl(shortUrl)
                 .orElseThrow(() -> new UrlNotFoundException("URL not found for: " + shortUrl));
     }
 
     /**
-     * Generates a shortened URL for the given original URL.
+     * Resolves a batch of shortened URLs without counting clicks.
+     * URLs are answered from the cache in a single round trip first and the remaining ones from the database with a single query.
+     *
+     * @param shortUrls the shortened URLs
+     * @return the response DTO with the resolution result of every shortened URL, in request order
+     */
+    public UrlResolveResponseDto resolveUrls(List<String> shortUrls) {
+        List<String> distinctShortUrls = shortUrls.stream().distinct().toList();
+        Map<String, ResolvedUrlDto> resolved = new HashMap<>();
+        List<String> missingShortUrls = new ArrayList<>();
+
+        List<String> cachedOriginalUrls = urlCache.getOriginalUrls(distinctShortUrls);
+        for (int i = 0; i < distinctShortUrls.size(); i++) {
+            String shortUrl = distinctShortUrls.get(i);
+            String cachedOriginalUrl = cachedOriginalUrls != null ? cachedOriginalUrls.get(i) : null;
+            if (cachedOriginalUrl != null) {
+                resolved.put(shortUrl, new ResolvedUrlDto(shortUrl, cachedOriginalUrl, null, ResolveStatus.FOUND));
+            } else {
+                missingShortUrls.add(shortUrl);
+            }
+        }
+
+        log.info("Resolving {} short urls, {} found in cache.", distinctShortUrls.size(), resolved.size());
+
+        if (!missingShortUrls.isEmpty()) {
+            for (UrlMapping url : urlRepository.findMappingsByShortUrlIn(missingShortUrls)) {
+                ResolveStatus status = isUrlExpired(url) ? ResolveStatus.EXPIRED : ResolveStatus.FOUND;
+                resolved.put(url.shortUrl(), new ResolvedUrlDto(url.shortUrl(), url.originalUrl(), url.expirationDate(), status));
+            }
+        }
+
+        List<ResolvedUrlDto> results = shortUrls.stream()
+                .map(shortUrl -> resolved.getOrDefault(shortUrl, new ResolvedUrlDto(shortUrl, null, null, ResolveStatus.NOT_FOUND)))
+                .toList();
+
+        return new UrlResolveResponseDto(results);
+    }
+
+    /**
+     * Creates the short URL for the given original URL. Concurrent calls for the same original URL on this node
+     * share a single creation, so they cost one database round trip between them.
      *
-     * @param originalUrl the original URL
+     * @param originalUrl the normalized original URL
+     * @param event       the event of the shortening, told when the result comes from a concurrent shortening or the journal
      * @return the shortened URL
-     * @throws UrlGenerationException if there is an error generating the shortened URL
      */
-    private String generateShortUrl(String originalUrl) {
-        try {
-            log.info("Generating short url for {}", originalUrl);
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(originalUrl.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                hexString.append(String.format("%02X", b));
+    private String createShortUrlCoalesced(String originalUrl, ShortenEvent event) {
+        CompletableFuture<String> creation = new CompletableFuture<>();
+        CompletableFuture<String> inFlightCreation = inFlightShortenings.putIfAbsent(originalUrl, creation);
+        if (inFlightCreation != null) {
+            log.info("Url {} is already being shortened, waiting for the result.", originalUrl);
+            event.setTier(ServingTier.IN_FLIGHT);
+            try {
+                return inFlightCreation.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
             }
+        }
 
-            return hexString.substring(0, SHORT_URL_LENGTH);
-        } catch (NoSuchAlgorithmException e) {
-            log.error("Failed to generate short url", e);
-            throw new UrlGenerationException("Error when generating short url", e);
+        try {
+            String shortUrl = createShortUrl(originalUrl, event);
+            creation.complete(shortUrl);
+            return shortUrl;
+        } catch (RuntimeException e) {
+            creation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightShortenings.remove(originalUrl, creation);
         }
     }
 
     /**
-     * Checks if the URL is expired.
+     * Creates the short URL for the given original URL, or returns the existing one if the URL is already shortened.
+     * The mapping is stored with an idempotent insert, so concurrent shortening of the same URL on several nodes never fails.
+     *
+     * @param originalUrl the normalized original URL
+     * @param event       the event of the shortening, told when the mapping is journaled
+     * @return the shortened URL
+     * @throws UrlGenerationException if the generated short URL is already taken by another original URL
+     */
+    private String createShortUrl(String originalUrl, ShortenEvent event) {
+        Optional<UrlMapping> loadedUrl = findLoadedMapping(originalUrl);
+        if (loadedUrl.isPresent()) {
+            log.info("Url {} already exists as loaded short url {}.", originalUrl, loadedUrl.get().shortUrl());
+            cacheShortUrl(loadedUrl.get());
+
+            return loadedUrl.get().shortUrl();
+        }
+
+        log.info("Generating short url for {}", originalUrl);
+        Url url = new Url();
+        url.setOriginalUrl(originalUrl);
+        url.setShortUrl(UrlUtil.generateShortUrl(originalUrl));
+        url.setCreatedAt(LocalDateTime.now());
+        url.setExpirationDate(LocalDateTime.now().plusMonths(EXPIRATION_MONTHS));
+
+        WriteBehindUrlWriter writer = writeBehindUrlWriter.getIfAvailable();
+        if (writer != null) {
+            return createShortUrlWriteBehind(url, writer, event);
+        }
+
+        UrlMapping storedUrl = urlJdbcRepository.insertIfAbsent(url)
+                .orElseThrow(() -> shortUrlTaken(url.getShortUrl()));
+        log.info("Short url {} stored for {}.", storedUrl.shortUrl(), originalUrl);
+
+        cacheShortUrl(storedUrl);
+        cacheOriginalUrl(storedUrl);
+
+        return storedUrl.shortUrl();
+    }
+
+    /**
+     * Creates the short URL in write-behind mode: the journal makes the mapping durable and the cache makes it visible
+     * until the background writer stores it in the database. The generated short URL is only journaled if neither the
+     * cache, the database nor the journal hold it for another original URL.
+     *
+     * @param url    the new URL entity
+     * @param writer the write-behind writer
+     * @param event  the event of the shortening, told when the mapping is journaled
+     * @return the shortened URL
+     * @throws UrlGenerationException if the generated short URL is already taken by another original URL
+     */
+    private String createShortUrlWriteBehind(Url url, WriteBehindUrlWriter writer, ShortenEvent event) {
+        String originalUrl = url.getOriginalUrl();
+
+        // Check if the original URL is already shortened in database
+        Optional<Url> existingUrl = urlRepository.findByOriginalUrl(originalUrl);
+        if (existingUrl.isPresent()) {
+            log.info("Url {} already exists.", originalUrl);
+            cacheShortUrl(toMapping(existingUrl.get()));
+
+            return existingUrl.get().getShortUrl();
+        }
+
+        // Check if the generated short URL is already taken by another url in cache, database or journal
+        if (isShortUrlTakenByAnotherUrl(url) || !writer.submit(url)) {
+            throw shortUrlTaken(url.getShortUrl());
+        }
+
+        log.info("Short url {} created, journaled for write-behind.", url.getShortUrl());
+        event.setTier(ServingTier.JOURNAL);
+
+        UrlMapping mapping = toMapping(url);
+        cacheShortUrl(mapping);
+        cacheOriginalUrl(mapping);
+
+        return url.getShortUrl();
+    }
+
+    /**
+     * Checks whether the short URL of a new URL entity is cached or stored for another original URL.
+     *
+     * @param url the new URL entity
+     * @return true if another original URL holds the short URL, false otherwise
+     */
+    private boolean isShortUrlTakenByAnotherUrl(Url url) {
+        String cachedOriginalUrl = urlCache.getOriginalUrl(url.getShortUrl());
+        if (cachedOriginalUrl != null) {
+            return !cachedOriginalUrl.equals(url.getOriginalUrl());
+        }
+
+        return urlRepository.findMappingByShortUrl(url.getShortUrl())
+                .filter(mapping -> !mapping.originalUrl().equals(url.getOriginalUrl()))
+                .isPresent();
+    }
+
+    /**
+     * Logs and creates the error of a generated short URL that is already taken by another original URL.
+     *
+     * @param shortUrl the generated short URL
+     * @return the exception to throw
+     */
+    private UrlGenerationException shortUrlTaken(String shortUrl) {
+        log.error("Short url {} is already taken by another url.", shortUrl);
+        return new UrlGenerationException("Short URL " + shortUrl + " is already taken by another url");
+    }
+
+    /**
+     * Finds the mapping of a bulk loaded original URL through the original URL index. With sharding, loaded mappings
+     * are stored on the shard of their own short URL, where looking up the original URL on the shard of the generated
+     * short URL does not find them. Without sharding, that lookup finds them and the index is not consulted.
+     *
+     * @param originalUrl the normalized original URL
+     * @return an Optional containing the loaded mapping, or empty if the original URL was not loaded under another short URL
+     */
+    private Optional<UrlMapping> findLoadedMapping(String originalUrl) {
+        if (!shardingProperties.isEnabled()) {
+            return Optional.empty();
+        }
+
+        return urlJdbcRepository.findIndexedShortUrl(originalUrl).flatMap(urlRepository::findMappingByShortUrl);
+    }
+
+    /**
+     * Stores the mapping of the shortened URL in cache, for the time to live chosen by the cache policy.
+     *
+     * @param url the URL mapping
+     */
+    private void cacheOriginalUrl(UrlMapping url) {
+        cacheTtlPolicy.ttlFor(url).ifPresent(ttl -> {
+            log.info("Storing url {} in cache for {}.", url.shortUrl(), ttl);
+            urlCache.putOriginalUrl(url.shortUrl(), url.originalUrl(), ttl);
+        });
+    }
+
+    /**
+     * Stores the shortened URL of the original URL in cache, for the time to live chosen by the cache policy.
+     *
+     * @param url the URL mapping
+     */
+    private void cacheShortUrl(UrlMapping url) {
+        cacheTtlPolicy.ttlFor(url).ifPresent(ttl -> {
+            log.info("Storing url {} in cache for {}.", url.originalUrl(), ttl);
+            urlCache.putShortUrl(url.originalUrl(), url.shortUrl(), ttl);
+        });
+    }
+
+    /**
+     * Converts a URL entity to its mapping.
      *
      * @param url the URL entity
+     * @return the URL mapping
+     */
+    private UrlMapping toMapping(Url url) {
+        return new UrlMapping(url.getShortUrl(), url.getOriginalUrl(), url.getExpirationDate());
+    }
+
+    /**
+     * Checks if the URL is expired.
+     *
+     * @param url the URL mapping
      * @return true if the URL is expired, false otherwise
      */
-    private boolean isUrlExpired(Url url) {
-        return url.getExpirationDate().isBefore(LocalDateTime.now());
+    private boolean isUrlExpired(UrlMapping url) {
+        return url.expirationDate().isBefore(LocalDateTime.now());
     }
 
     /**
@@ -177,6 +374,6 @@ public class UrlShorteningService {
      */
     private void incrementClickCount(String shortUrl) {
         log.info("Incrementing click count by 1 for short url {}.", shortUrl);
-        redisTemplate.opsForValue().increment("clicks:" + shortUrl, 1);
+        urlCache.incrementClickCount(shortUrl, 1);
     }
 }
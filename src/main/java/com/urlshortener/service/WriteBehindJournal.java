@@ -0,0 +1,186 @@
+package com.urlshortener.service;
+
+import com.urlshortener.model.Url;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Durable append-only journal of URL mappings not yet written to the database.
+ * The journal is split into numbered segment files; new entries go to the open segment, while closed segments
+ * are handed to the writer and deleted once their entries are stored.
+ */
+@Slf4j
+public class WriteBehindJournal implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private FileChannel openSegment;
+    private Path openSegmentPath;
+    private long nextSegment;
+    private boolean openSegmentEmpty = true;
+
+    /**
+     * Opens the journal in the given directory, creating it if needed.
+     *
+     * @param directory the journal directory
+     * @param fsync     whether every append is forced to disk
+     */
+    public WriteBehindJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            nextSegment = listSegments(directory).stream().mapToLong(WriteBehindJournal::segmentNumber).max().orElse(0) + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open write-behind journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the URL mapping to the open segment.
+     *
+     * @param url the URL entity
+     */
+    public synchronized void append(Url url) {
+        String entry = url.getShortUrl() + '\t' + url.getOriginalUrl() + '\t' + url.getCreatedAt() + '\t' + url.getExpirationDate() + '\n';
+        try {
+            if (openSegment == null) {
+                openSegmentPath = directory.resolve(SEGMENT_PREFIX + nextSegment++ + SEGMENT_SUFFIX);
+                openSegment = FileChannel.open(openSegmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(entry.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                openSegment.write(buffer);
+            }
+            if (fsync) {
+                openSegment.force(false);
+            }
+            openSegmentEmpty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to write-behind journal", e);
+        }
+    }
+
+    /**
+     * Closes the open segment so that new entries go to a new one, and returns all closed segments, oldest first.
+     *
+     * @return the closed segments
+     */
+    public synchronized List<Path> rotate() {
+        if (openSegment != null && !openSegmentEmpty) {
+            closeOpenSegment();
+        }
+        try {
+            return listSegments(directory).stream().filter(segment -> !segment.equals(openSegmentPath)).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list write-behind journal segments", e);
+        }
+    }
+
+    /**
+     * Reads the URL mappings of a closed segment.
+     *
+     * @param segment the segment
+     * @return the URL entities
+     */
+    public List<Url> read(Path segment) {
+        List<Url> urls = new ArrayList<>();
+        try (Stream<String> lines = Files.lines(segment, StandardCharsets.UTF_8)) {
+            lines.filter(line -> !line.isBlank()).forEach(line -> {
+                String[] fields = line.split("\t", -1);
+                if (fields.length != 4) {
+                    log.error("Skipping malformed write-behind journal entry in {}: {}", segment, line);
+                    return;
+                }
+                urls.add(new Url(null, fields[1], fields[0], LocalDateTime.parse(fields[2]), LocalDateTime.parse(fields[3]), 0));
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read write-behind journal segment " + segment, e);
+        }
+        return urls;
+    }
+
+    /**
+     * Deletes a segment whose entries have been stored.
+     *
+     * @param segment the segment
+     */
+    public void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete write-behind journal segment " + segment, e);
+        }
+    }
+
+    /**
+     * Closes the open segment.
+     */
+    @Override
+    public synchronized void close() {
+        if (openSegment != null) {
+            closeOpenSegment();
+        }
+    }
+
+    /**
+     * Closes the open segment, deleting it if nothing was written to it.
+     */
+    private void closeOpenSegment() {
+        try {
+            openSegment.close();
+            if (openSegmentEmpty) {
+                Files.deleteIfExists(openSegmentPath);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close write-behind journal segment " + openSegmentPath, e);
+        } finally {
+            openSegment = null;
+            openSegmentPath = null;
+            openSegmentEmpty = true;
+        }
+    }
+
+    /**
+     * Lists the segments in the journal directory, oldest first.
+     *
+     * @param directory the journal directory
+     * @return the segments
+     * @throws IOException if the directory cannot be listed
+     */
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted((first, second) -> Long.compare(segmentNumber(first), segmentNumber(second)))
+                    .toList();
+        }
+    }
+
+    /**
+     * Returns the sequence number of a segment.
+     *
+     * @param segment the segment
+     * @return the segment number
+     */
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.urlshortener.service;
+
+import com.urlshortener.config.WriteBehindProperties;
+import com.urlshortener.model.Url;
+import com.urlshortener.repository.UrlJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writer for the write-behind shortening mode.
+ * New URL mappings are appended to a durable local journal and written to the database in batches by a background task.
+ * Journal segments left over from a previous run are replayed on startup.
+ * The writer keeps the original URL of every journaled short URL until it is flushed, so a short URL journaled for one
+ * original URL is never journaled for another one.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "url-shortener.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindUrlWriter {
+    private final UrlJdbcRepository urlJdbcRepository;
+    private final WriteBehindJournal journal;
+    private final int batchSize;
+    private final Map<String, String> unflushedOriginalUrls = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the writer and opens its journal.
+     *
+     * @param urlJdbcRepository the JDBC repository used for batch inserts
+     * @param properties        the write-behind properties
+     */
+    public WriteBehindUrlWriter(UrlJdbcRepository urlJdbcRepository, WriteBehindProperties properties) {
+        this.urlJdbcRepository = urlJdbcRepository;
+        this.journal = new WriteBehindJournal(properties.getJournalDirectory(), properties.isFsync());
+        this.batchSize = properties.getBatchSize();
+    }
+
+    /**
+     * Durably records a new URL mapping to be written to the database, unless its short URL is already journaled.
+     *
+     * @param url the URL entity
+     * @return false if the short URL is journaled for another original URL and the mapping was not recorded, true otherwise
+     */
+    public boolean submit(Url url) {
+        String journaledOriginalUrl = unflushedOriginalUrls.putIfAbsent(url.getShortUrl(), url.getOriginalUrl());
+        if (journaledOriginalUrl != null) {
+            return journaledOriginalUrl.equals(url.getOriginalUrl());
+        }
+
+        try {
+            journal.append(url);
+        } catch (RuntimeException e) {
+            unflushedOriginalUrls.remove(url.getShortUrl(), url.getOriginalUrl());
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Replays journal segments not written to the database before the last shutdown.
+     */
+    @PostConstruct
+    public synchronized void replay() {
+        List<Path> segments = journal.rotate();
+        if (!segments.isEmpty()) {
+            log.info("Replaying {} write-behind journal segments.", segments.size());
+            flush(segments);
+        }
+    }
+
+    /**
+     * Scheduled task writing journaled URL mappings to the database.
+     * This method is executed with a fixed delay defined by the flush-interval-ms property.
+     * Flushes, the replay and the final flush on shutdown run one at a time, so a segment is never written twice at once.
+     */
+    @Scheduled(fixedDelayString = "${url-shortener.write-behind.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        flush(journal.rotate());
+    }
+
+    /**
+     * Writes the remaining URL mappings to the database and closes the journal.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        journal.close();
+    }
+
+    /**
+     * Writes the URL mappings of the given segments to the database, deleting each segment once it is stored.
+     * A segment that fails to be written is kept and retried on the next flush.
+     *
+     * @param segments the closed journal segments
+     */
+    private void flush(List<Path> segments) {
+        for (Path segment : segments) {
+            List<Url> urls = journal.read(segment);
+            int inserted = 0;
+            for (int from = 0; from < urls.size(); from += batchSize) {
+                inserted += urlJdbcRepository.insertAllIfAbsent(urls.subList(from, Math.min(from + batchSize, urls.size())));
+            }
+            journal.delete(segment);
+            urls.forEach(url -> unflushedOriginalUrls.remove(url.getShortUrl(), url.getOriginalUrl()));
+            log.info("Flushed write-behind journal segment {}: {} urls, {} inserted.", segment.getFileName(), urls.size(), inserted);
+        }
+    }
+}
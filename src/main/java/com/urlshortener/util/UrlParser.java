@@ -0,0 +1,326 @@
+package com.urlshortener.util;
+
+import java.net.IDN;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Single-pass parser validating and canonicalizing http(s) URLs.
+ * Validation does not allocate for ASCII hosts; canonicalization lowercases the scheme and host, converts
+ * internationalized host names to punycode, drops default ports and an empty path, and can strip and sort query parameters.
+ */
+public final class UrlParser {
+    private static final String HTTP_PREFIX = "http://";
+    private static final String HTTPS_PREFIX = "https://";
+    private static final int MAX_URL_LENGTH = 2048;
+    private static final int MAX_LABEL_LENGTH = 63;
+    private static final int MAX_PORT = 65535;
+
+    private UrlParser() {
+    }
+
+    /**
+     * Checks whether the given string is a valid http(s) URL. The scheme is optional.
+     *
+     * @param url the URL to check
+     * @return true if the URL is valid, false otherwise
+     */
+    public static boolean isValid(String url) {
+        return url != null && scan(url) >= 0;
+    }
+
+    /**
+     * Canonicalizes the given URL.
+     *
+     * @param url             the URL to canonicalize
+     * @param removedParams   query parameter names to remove; names ending with '*' match by prefix
+     * @param sortQueryParams whether query parameters are sorted by name
+     * @return the canonical URL, or null if the URL is not valid
+     */
+    public static String canonicalize(String url, Collection<String> removedParams, boolean sortQueryParams) {
+        if (url == null) {
+            return null;
+        }
+        long scanned = scan(url);
+        if (scanned < 0) {
+            return null;
+        }
+
+        int schemeLength = schemeLength(url);
+        int hostEnd = (int) (scanned >>> 32);
+        int authorityEnd = (int) scanned;
+
+        StringBuilder canonical = new StringBuilder(url.length() + HTTPS_PREFIX.length());
+        boolean http = schemeLength == HTTP_PREFIX.length();
+        canonical.append(http ? HTTP_PREFIX : HTTPS_PREFIX);
+
+        String host = url.substring(schemeLength, hostEnd);
+        canonical.append((isAscii(host) ? host : IDN.toASCII(host, IDN.USE_STD3_ASCII_RULES)).toLowerCase(Locale.ROOT));
+
+        if (hostEnd < authorityEnd) {
+            int port = Integer.parseInt(url, hostEnd + 1, authorityEnd, 10);
+            if (port != (http ? 80 : 443)) {
+                canonical.append(':').append(port);
+            }
+        }
+
+        int fragmentStart = url.indexOf('#', authorityEnd);
+        int end = fragmentStart < 0 ? url.length() : fragmentStart;
+        int queryStart = url.indexOf('?', authorityEnd);
+        if (queryStart > end) {
+            queryStart = -1;
+        }
+        int pathEnd = queryStart < 0 ? end : queryStart;
+
+        if (!(pathEnd - authorityEnd == 1 && url.charAt(authorityEnd) == '/')) {
+            canonical.append(url, authorityEnd, pathEnd);
+        }
+        if (queryStart >= 0) {
+            appendQuery(canonical, url, queryStart + 1, end, removedParams, sortQueryParams);
+        }
+        if (fragmentStart >= 0) {
+            canonical.append(url, fragmentStart, url.length());
+        }
+
+        return url.contentEquals(canonical) ? url : canonical.toString();
+    }
+
+    /**
+     * Scans the URL in a single pass.
+     *
+     * @param url the URL to scan
+     * @return the host end index in the upper and the authority end index in the lower 32 bits, or -1 if the URL is invalid
+     */
+    private static long scan(String url) {
+        int length = url.length();
+        if (length == 0 || length > MAX_URL_LENGTH) {
+            return -1;
+        }
+
+        int hostStart = schemeLength(url);
+        int authorityEnd = hostStart;
+        int portStart = -1;
+        boolean ascii = true;
+        while (authorityEnd < length) {
+            char c = url.charAt(authorityEnd);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            if (c == ':' && portStart < 0) {
+                portStart = authorityEnd;
+            } else if (c >= 0x80) {
+                ascii = false;
+            }
+            authorityEnd++;
+        }
+
+        int hostEnd = portStart < 0 ? authorityEnd : portStart;
+        if (portStart >= 0 && !isValidPort(url, portStart + 1, authorityEnd)) {
+            return -1;
+        }
+        if (ascii ? !isValidHost(url, hostStart, hostEnd) : !isValidInternationalHost(url.substring(hostStart, hostEnd))) {
+            return -1;
+        }
+
+        for (int i = authorityEnd; i < length; i++) {
+            char c = url.charAt(i);
+            if (c < 0x20 || c == 0x7f) {
+                return -1;
+            }
+        }
+
+        return ((long) hostEnd << 32) | authorityEnd;
+    }
+
+    /**
+     * Returns the length of the http(s) scheme prefix of the URL, matched case-insensitively.
+     *
+     * @param url the URL
+     * @return the length of the scheme prefix, or 0 if the URL has no scheme
+     */
+    private static int schemeLength(String url) {
+        if (url.regionMatches(true, 0, HTTPS_PREFIX, 0, HTTPS_PREFIX.length())) {
+            return HTTPS_PREFIX.length();
+        }
+        if (url.regionMatches(true, 0, HTTP_PREFIX, 0, HTTP_PREFIX.length())) {
+            return HTTP_PREFIX.length();
+        }
+        return 0;
+    }
+
+    /**
+     * Checks whether the characters between start and end form a valid port number.
+     *
+     * @param url   the URL
+     * @param start the index of the first port digit
+     * @param end   the index after the last port digit
+     * @return true if the port is valid, false otherwise
+     */
+    private static boolean isValidPort(String url, int start, int end) {
+        if (start == end || end - start > 5) {
+            return false;
+        }
+        int port = 0;
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            port = port * 10 + (c - '0');
+        }
+        return port > 0 && port <= MAX_PORT;
+    }
+
+    /**
+     * Checks whether the characters between start and end form a valid ASCII host name:
+     * at least two dot-separated labels of letters, digits and hyphens, ending with an alphabetic or punycode top-level domain.
+     *
+     * @param host  the string containing the host
+     * @param start the index of the first host character
+     * @param end   the index after the last host character
+     * @return true if the host is valid, false otherwise
+     */
+    private static boolean isValidHost(CharSequence host, int start, int end) {
+        int labels = 0;
+        int labelStart = start;
+        boolean alphabeticLabel = true;
+        for (int i = start; i < end; i++) {
+            char c = host.charAt(i);
+            if (c == '.') {
+                if (i == labelStart || i - labelStart > MAX_LABEL_LENGTH) {
+                    return false;
+                }
+                labels++;
+                labelStart = i + 1;
+                alphabeticLabel = true;
+            } else if (isAsciiLetter(c)) {
+                continue;
+            } else if ((c >= '0' && c <= '9') || c == '-') {
+                alphabeticLabel = false;
+            } else {
+                return false;
+            }
+        }
+
+        int tldLength = end - labelStart;
+        if (labels == 0 || tldLength < 2 || tldLength > MAX_LABEL_LENGTH) {
+            return false;
+        }
+        return alphabeticLabel || (tldLength > 4 && host.subSequence(labelStart, labelStart + 4).toString().equalsIgnoreCase("xn--"));
+    }
+
+    /**
+     * Checks whether the given internationalized host name is valid once converted to punycode.
+     *
+     * @param host the host name
+     * @return true if the host is valid, false otherwise
+     */
+    private static boolean isValidInternationalHost(String host) {
+        try {
+            String asciiHost = IDN.toASCII(host, IDN.USE_STD3_ASCII_RULES);
+            return isValidHost(asciiHost, 0, asciiHost.length());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Appends the query between start and end, without the removed parameters and optionally sorted by name.
+     *
+     * @param canonical       the canonical URL being built
+     * @param url             the URL
+     * @param start           the index after the '?'
+     * @param end             the index where the query ends
+     * @param removedParams   query parameter names to remove
+     * @param sortQueryParams whether query parameters are sorted by name
+     */
+    private static void appendQuery(StringBuilder canonical, String url, int start, int end,
+                                    Collection<String> removedParams, boolean sortQueryParams) {
+        if (removedParams.isEmpty() && !sortQueryParams) {
+            if (start < end) {
+                canonical.append('?').append(url, start, end);
+            }
+            return;
+        }
+
+        List<String> params = new ArrayList<>();
+        int paramStart = start;
+        while (paramStart < end) {
+            int paramEnd = url.indexOf('&', paramStart);
+            if (paramEnd < 0 || paramEnd > end) {
+                paramEnd = end;
+            }
+            String param = url.substring(paramStart, paramEnd);
+            if (!param.isEmpty() && !isRemoved(param, removedParams)) {
+                params.add(param);
+            }
+            paramStart = paramEnd + 1;
+        }
+
+        if (sortQueryParams) {
+            params.sort(Comparator.comparing(UrlParser::paramName));
+        }
+        if (!params.isEmpty()) {
+            canonical.append('?').append(String.join("&", params));
+        }
+    }
+
+    /**
+     * Checks whether the given query parameter is to be removed.
+     *
+     * @param param         the query parameter, name and value
+     * @param removedParams query parameter names to remove; names ending with '*' match by prefix
+     * @return true if the parameter is to be removed, false otherwise
+     */
+    private static boolean isRemoved(String param, Collection<String> removedParams) {
+        String name = paramName(param);
+        for (String removed : removedParams) {
+            boolean matches = removed.endsWith("*")
+                    ? name.startsWith(removed.substring(0, removed.length() - 1))
+                    : name.equals(removed);
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the name of a query parameter.
+     *
+     * @param param the query parameter, name and value
+     * @return the parameter name
+     */
+    private static String paramName(String param) {
+        int separator = param.indexOf('=');
+        return separator < 0 ? param : param.substring(0, separator);
+    }
+
+    /**
+     * Checks whether the given character is an ASCII letter.
+     *
+     * @param c the character
+     * @return true if the character is an ASCII letter, false otherwise
+     */
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Checks whether the given string consists of ASCII characters only.
+     *
+     * @param value the string
+     * @return true if the string is ASCII, false otherwise
+     */
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,27 +1,102 @@
 package com.urlshortener.util;
 
+import com.urlshortener.config.UrlNormalizationProperties;
+import com.urlshortener.exception.UrlGenerationException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
 /**
  * Utility class for URL-related operations.
  */
 @Slf4j
 public class UrlUtil {
+    /**
+     * The length of generated short URLs.
+     */
+    public static final int SHORT_URL_LENGTH = 6;
+
     private UrlUtil() {
     }
 
     /**
-     * Normalizes the given URL by ensuring it has a scheme (http or https).
-     * If the URL does not start with "http://" or "https://", "https://" is prepended.
+     * Normalizes the given URL to its canonical form: the scheme (https if missing) and host are lowercased,
+     * internationalized hosts are converted to punycode, and default ports and an empty path are dropped.
+     * URLs that cannot be parsed only get the missing scheme prepended.
      *
      * @param url the URL to normalize
      * @return the normalized URL with a scheme
      */
     public static String normalizeUrl(String url) {
+        return normalizeUrl(url, List.of(), false);
+    }
+
+    /**
+     * Normalizes the given URL to its canonical form, additionally removing tracking query parameters
+     * and sorting query parameters as configured.
+     *
+     * @param url        the URL to normalize
+     * @param properties the normalization properties
+     * @return the normalized URL with a scheme
+     */
+    public static String normalizeUrl(String url, UrlNormalizationProperties properties) {
+        return normalizeUrl(url, properties.isStripTrackingParams() ? properties.getTrackingParams() : List.of(),
+                properties.isSortQueryParams());
+    }
+
+    /**
+     * Normalizes the given URL to its canonical form.
+     *
+     * @param url             the URL to normalize
+     * @param removedParams   query parameter names to remove
+     * @param sortQueryParams whether query parameters are sorted by name
+     * @return the normalized URL with a scheme
+     */
+    private static String normalizeUrl(String url, List<String> removedParams, boolean sortQueryParams) {
+        String canonicalUrl = UrlParser.canonicalize(url, removedParams, sortQueryParams);
+        if (canonicalUrl != null) {
+            return canonicalUrl;
+        }
+
         if (!url.startsWith("http://") && !url.startsWith("https://")) {
             log.warn("Missing scheme in URL: {}. Prepending 'https://'", url);
             return "https://" + url;
         }
         return url;
     }
+
+    /**
+     * Generates the shortened URL for the given original URL.
+     * The short URL is derived from the SHA-256 hash of the original URL, so the same URL always yields the same code.
+     *
+     * @param originalUrl the original URL
+     * @return the shortened URL
+     * @throws UrlGenerationException if there is an error generating the shortened URL
+     */
+    public static String generateShortUrl(String originalUrl) {
+        return hashUrl(originalUrl, SHORT_URL_LENGTH);
+    }
+
+    /**
+     * Computes a hash of the given URL as uppercase hexadecimal characters of its SHA-256 digest.
+     *
+     * @param url    the URL
+     * @param length the number of hexadecimal characters, at most 64
+     * @return the hash of the URL
+     * @throws UrlGenerationException if there is an error computing the hash
+     */
+    public static String hashUrl(String url, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().withUpperCase().formatHex(hash, 0, (length + 1) / 2).substring(0, length);
+        } catch (NoSuchAlgorithmException e) {
+            log.error("Failed to generate short url", e);
+            throw new UrlGenerationException("Error when generating short url", e);
+        }
+    }
 }
@@ -1,20 +1,13 @@
 package com.urlshortener.validation;
 
+import com.urlshortener.util.UrlParser;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
-import java.util.regex.Pattern;
-
 /**
  * Validator class for validating URLs using the @ValidUrl annotation.
  */
 public class UrlValidator implements ConstraintValidator<ValidUrl, String> {
-    /**
-     * Regular expression pattern for validating URLs.
-     */
-    private static final Pattern URL_PATTERN = Pattern.compile(
-            "^(https?://)?(www\\.)?([a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,6}(/.*)?$"
-    );
 
     /**
      * Initializes the validator. No initialization needed in this case.
@@ -27,7 +20,8 @@ public class UrlValidator implements ConstraintValidator<ValidUrl, String> {
     }
 
     /**
-     * Validates the given URL.
+     * Validates the given URL: an optional http(s) scheme, a host name with an alphabetic or punycode top-level domain,
+     * an optional port and an optional path, query and fragment.
      *
      * @param url     the URL to validate
      * @param context context in which the constraint is evaluated
@@ -35,6 +29,6 @@ public class UrlValidator implements ConstraintValidator<ValidUrl, String> {
      */
     @Override
     public boolean isValid(String url, ConstraintValidatorContext context) {
-        return url != null && URL_PATTERN.matcher(url).matches();
+        return UrlParser.isValid(url);
     }
 }
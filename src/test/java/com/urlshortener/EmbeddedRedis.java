@@ -0,0 +1,126 @@
+package com.urlshortener;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * A Redis server started on a free local port for tests, with a string template connected to it.
+ */
+public class EmbeddedRedis implements AutoCloseable {
+    private static final int CLUSTER_BUS_PORT_OFFSET = 10000;
+
+    private final RedisServer server;
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisTemplate<String, String> template;
+    private final int port;
+
+    /**
+     * Starts a Redis server with the given configuration settings, e.g. {@code "hash-max-ziplist-value 1024"}.
+     *
+     * @param settings the configuration settings
+     */
+    public EmbeddedRedis(String... settings) {
+        try {
+            port = freePort();
+            var builder = RedisServer.newRedisServer().port(port).bind("127.0.0.1").setting("save \"\"").setting("appendonly no");
+            for (String setting : settings) {
+                builder.setting(setting);
+            }
+            server = builder.build();
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setHashValueSerializer(new StringRedisSerializer());
+        template.afterPropertiesSet();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Returns a template connected to the server, using string serializers like the application's template.
+     *
+     * @return the Redis template
+     */
+    public RedisTemplate<String, String> getTemplate() {
+        return template;
+    }
+
+    /**
+     * Deletes all keys.
+     */
+    public void flushAll() {
+        template.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+    }
+
+    /**
+     * Disconnects and stops the server.
+     */
+    @Override
+    public void close() {
+        connectionFactory.destroy();
+        try {
+            server.stop();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finds a free local port whose cluster bus port (the port plus 10000) is free as well.
+     *
+     * @return the port
+     * @throws IOException if no such port is found
+     */
+    private static int freePort() throws IOException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                int port = socket.getLocalPort();
+                if (port + CLUSTER_BUS_PORT_OFFSET <= 65535 && isFree(port + CLUSTER_BUS_PORT_OFFSET)) {
+                    return port;
+                }
+            }
+        }
+        throw new IOException("No free port with a free cluster bus port found");
+    }
+
+    /**
+     * Checks whether a local port is free.
+     *
+     * @param port the port
+     * @return true if the port can be opened, false otherwise
+     */
+    private static boolean isFree(int port) {
+        try (ServerSocket ignored = new ServerSocket(port)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.urlshortener;
+
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A Redis Cluster of local Redis servers for tests. The slots are spread evenly over the masters
+ * and every master gets the given number of replicas.
+ */
+public class EmbeddedRedisCluster implements AutoCloseable {
+    private static final int SLOTS = 16384;
+    private static final long STARTUP_TIMEOUT_MS = 30_000;
+
+    private final List<EmbeddedRedis> masters = new ArrayList<>();
+    private final List<EmbeddedRedis> replicas = new ArrayList<>();
+
+    /**
+     * Starts the servers and forms the cluster. Returns once the cluster is healthy and all replicas are in sync.
+     *
+     * @param masterCount       the number of masters
+     * @param replicasPerMaster the number of replicas of every master
+     */
+    public EmbeddedRedisCluster(int masterCount, int replicasPerMaster) {
+        for (int i = 0; i < masterCount; i++) {
+            masters.add(startNode());
+        }
+        for (int i = 0; i < masterCount * replicasPerMaster; i++) {
+            replicas.add(startNode());
+        }
+
+        for (int i = 0; i < masterCount; i++) {
+            List<String> slots = IntStream.range(i * SLOTS / masterCount, (i + 1) * SLOTS / masterCount).mapToObj(String::valueOf).toList();
+            command(masters.get(i), Stream.concat(Stream.of("ADDSLOTS"), slots.stream()).toArray(String[]::new));
+        }
+        EmbeddedRedis first = masters.get(0);
+        for (EmbeddedRedis node : getAllNodes()) {
+            if (node != first) {
+                command(first, "MEET", "127.0.0.1", String.valueOf(node.getPort()));
+            }
+        }
+        int nodeCount = getAllNodes().size();
+        await(() -> getAllNodes().stream().allMatch(node -> command(node, "NODES").lines().count() == nodeCount), "all nodes to meet");
+
+        for (int i = 0; i < replicas.size(); i++) {
+            command(replicas.get(i), "REPLICATE", command(masters.get(i % masterCount), "MYID"));
+        }
+        await(() -> getAllNodes().stream().allMatch(node -> command(node, "INFO").contains("cluster_state:ok")), "the cluster to be healthy");
+        await(() -> replicas.stream().allMatch(replica -> "up".equals(info(replica, "replication").getProperty("master_link_status"))),
+                "the replicas to sync");
+    }
+
+    /**
+     * Returns the addresses of the masters, as used for spring.data.redis.cluster.nodes.
+     *
+     * @return the addresses of the masters
+     */
+    public List<String> getNodes() {
+        return masters.stream().map(master -> "127.0.0.1:" + master.getPort()).toList();
+    }
+
+    /**
+     * Returns the replicas, e.g. to inspect which commands they served.
+     *
+     * @return the replicas
+     */
+    public List<EmbeddedRedis> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Deletes all keys on all masters, which the replicas replicate.
+     */
+    public void flushAll() {
+        masters.forEach(EmbeddedRedis::flushAll);
+    }
+
+    /**
+     * Counts the calls of a command served by the replicas since their statistics were last reset.
+     *
+     * @param command the lowercase command name, e.g. {@code get}
+     * @return the number of calls
+     */
+    public long getReplicaCalls(String command) {
+        long calls = 0;
+        for (EmbeddedRedis replica : replicas) {
+            String stats = info(replica, "commandstats").getProperty("cmdstat_" + command);
+            if (stats != null) {
+                calls += Long.parseLong(stats.substring("calls=".length(), stats.indexOf(',')));
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * Stops all servers.
+     */
+    @Override
+    public void close() {
+        getAllNodes().forEach(EmbeddedRedis::close);
+    }
+
+    /**
+     * Starts a cluster-enabled server with its cluster configuration file in its own directory.
+     *
+     * @return the server
+     */
+    private static EmbeddedRedis startNode() {
+        try {
+            Path directory = Files.createTempDirectory("redis-cluster");
+            directory.toFile().deleteOnExit();
+            return new EmbeddedRedis("cluster-enabled yes", "cluster-node-timeout 2000", "dir " + directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the masters followed by the replicas.
+     *
+     * @return all nodes
+     */
+    private List<EmbeddedRedis> getAllNodes() {
+        return Stream.concat(masters.stream(), replicas.stream()).toList();
+    }
+
+    /**
+     * Runs a CLUSTER subcommand on a node.
+     *
+     * @param node the node
+     * @param args the subcommand and its arguments
+     * @return the reply as a string
+     */
+    private static String command(EmbeddedRedis node, String... args) {
+        byte[][] arguments = Stream.of(args).map(arg -> arg.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        Object reply = node.getTemplate().execute((RedisCallback<Object>) connection -> connection.execute("CLUSTER", arguments));
+        return reply instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(reply);
+    }
+
+    /**
+     * Reads a section of INFO from a node.
+     *
+     * @param node    the node
+     * @param section the section
+     * @return the section
+     */
+    private static Properties info(EmbeddedRedis node, String section) {
+        return node.getTemplate().execute((RedisCallback<Properties>) connection -> connection.serverCommands().info(section));
+    }
+
+    /**
+     * Waits until the condition holds.
+     *
+     * @param condition   the condition
+     * @param description what is waited for
+     * @throws IllegalStateException if the condition does not hold within the startup timeout
+     */
+    private static void await(BooleanSupplier condition, String description) {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Timed out waiting for " + description);
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for " + description, e);
+            }
+        }
+    }
+}
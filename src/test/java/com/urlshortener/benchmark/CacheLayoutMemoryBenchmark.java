@@ -0,0 +1,115 @@
+package com.urlshortener.benchmark;
+
+import com.urlshortener.EmbeddedRedis;
+import com.urlshortener.cache.HashBucketUrlCache;
+import com.urlshortener.cache.StringKeyUrlCache;
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.config.CacheProperties;
+import com.urlshortener.util.UrlUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Redis memory per cached link of the string and hash bucket cache layouts.
+ * Every link is cached in both directions and has a pending click count, like an actively used link.
+ * Short URLs are generated from their URL as by the service. Redis runs with hash-max-listpack-value raised to 1024,
+ * as recommended for the hash bucket layout. The memory is reported as the secondary results
+ * {@code bytesPerLink} and {@code megabytesPerMillionLinks}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheLayoutMemoryBenchmark {
+    private static final int PIPELINE_SIZE = 10_000;
+
+    @Param({"STRINGS", "HASH_BUCKETS"})
+    private CacheProperties.Layout layout;
+
+    @Param({"1000000"})
+    private int links;
+
+    private EmbeddedRedis redis;
+    private UrlCache urlCache;
+
+    /**
+     * Memory used by the cached links.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memory {
+        public long bytesPerLink;
+        public long megabytesPerMillionLinks;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = new EmbeddedRedis("hash-max-ziplist-value 1024");
+        urlCache = switch (layout) {
+            case STRINGS -> new StringKeyUrlCache(redis.getTemplate());
+            case HASH_BUCKETS -> new HashBucketUrlCache(redis.getTemplate(), new CacheProperties().getBucketPrefixLength());
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redis.close();
+    }
+
+    @Benchmark
+    public void cacheLinks(Memory memory) {
+        RedisTemplate<String, String> template = redis.getTemplate();
+        redis.flushAll();
+        long usedBefore = usedMemory(template);
+
+        Set<String> shortUrls = new HashSet<>();
+        int next = 0;
+        while (shortUrls.size() < links) {
+            int batchEnd = Math.min(links, shortUrls.size() + PIPELINE_SIZE);
+            int[] counter = {next};
+            template.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    while (shortUrls.size() < batchEnd) {
+                        String originalUrl = "https://www.example.com/articles/" + counter[0] + "/a-fairly-typical-slug?ref=newsletter";
+                        counter[0]++;
+                        String shortUrl = UrlUtil.generateShortUrl(originalUrl);
+                        if (shortUrls.add(shortUrl)) {
+                            urlCache.putShortUrl(originalUrl, shortUrl, Duration.ofHours(1));
+                            urlCache.putOriginalUrl(shortUrl, originalUrl, Duration.ofHours(1));
+                            urlCache.incrementClickCount(shortUrl, 1);
+                        }
+                    }
+                    return null;
+                }
+            });
+            next = counter[0];
+        }
+
+        long usedBytes = usedMemory(template) - usedBefore;
+        memory.bytesPerLink = usedBytes / links;
+        memory.megabytesPerMillionLinks = usedBytes * 1_000_000L / links / (1024 * 1024);
+    }
+
+    /**
+     * Reads the memory used by Redis.
+     *
+     * @param template the Redis template
+     * @return the used memory in bytes
+     */
+    private static long usedMemory(RedisTemplate<String, String> template) {
+        Properties info = template.execute((RedisCallback<Properties>) connection -> connection.serverCommands().info("memory"));
+        return Long.parseLong(info.getProperty("used_memory"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.urlshortener.benchmark;
+
+import com.urlshortener.util.UrlParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the single-pass URL parser with the regular expression validation and prefix-only normalization it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlValidationBenchmark {
+    private static final Pattern LEGACY_URL_PATTERN = Pattern.compile(
+            "^(https?://)?(www\\.)?([a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,6}(/.*)?$"
+    );
+
+    private final String[] urls = {
+            "https://example.com",
+            "www.example.com/some/path",
+            "https://docs.sub.example.co.uk/articles/2024/10/how-to-shorten-urls?utm_source=newsletter&id=42",
+            "http://not-a-valid-url",
+            "HTTP://Example.COM:80/"
+    };
+
+    @Benchmark
+    public void legacyRegexValidation(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(LEGACY_URL_PATTERN.matcher(url).matches());
+        }
+    }
+
+    @Benchmark
+    public void parserValidation(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(UrlParser.isValid(url));
+        }
+    }
+
+    @Benchmark
+    public void legacyValidationAndNormalization(Blackhole blackhole) {
+        for (String url : urls) {
+            if (LEGACY_URL_PATTERN.matcher(url).matches()) {
+                blackhole.consume(url.startsWith("http://") || url.startsWith("https://") ? url : "https://" + url);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parserValidationAndCanonicalization(Blackhole blackhole) {
+        for (String url : urls) {
+            if (UrlParser.isValid(url)) {
+                blackhole.consume(UrlParser.canonicalize(url, List.of(), false));
+            }
+        }
+    }
+}
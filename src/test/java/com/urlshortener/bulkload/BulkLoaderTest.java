@@ -0,0 +1,193 @@
+package com.urlshortener.bulkload;
+
+import com.urlshortener.cache.CacheTtlPolicy;
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.config.BulkLoadProperties;
+import com.urlshortener.config.UrlNormalizationProperties;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.repository.UrlJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the bulk loader against an in-memory H2 database.
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkLoaderTest {
+    private static final String CSV = """
+            short_url,original_url,created_at,expiration_date,click_count\r
+            ABC123,https://example.com/a,2025-01-02T03:04:05,2099-01-01T00:00:00,7\r
+            "KEEP_1","https://example.com/b?q=1,2",,,\r
+            BAD!!!,https://example.com/c,,,\r
+            DEF456,not a url,,,\r
+            OLD123,https://example.com/d,2020-01-01,2020-04-01,0\r
+            GHI789,"https://example.com/e
+            ",,,\r
+            MNO345,https://example.com/g,2025-01-02 03:04:05+00:00,2099-01-01,x\r
+            JKL012,https://example.com/f,,,1\r
+            """;
+
+    @Mock
+    private UrlCache urlCache;
+
+    @Mock
+    private CacheTtlPolicy cacheTtlPolicy;
+
+    @TempDir
+    private Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private BulkLoadProperties properties;
+    private BulkLoader bulkLoader;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE urls (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "original_url VARCHAR(2048) NOT NULL UNIQUE, short_url VARCHAR(255) NOT NULL UNIQUE, "
+                + "created_at TIMESTAMP, expiration_date TIMESTAMP, click_count INT NOT NULL)");
+        properties = new BulkLoadProperties();
+        properties.setBatchSize(2);
+        bulkLoader = new BulkLoader(new UrlJdbcRepository(new NamedParameterJdbcTemplate(dataSource)), urlCache, cacheTtlPolicy,
+                new UrlNormalizationProperties(), properties, false);
+    }
+
+    @Test
+    void load_csv_shouldLoadValidLinksKeepingTheirCodesAndRejectInvalidOnes() throws IOException {
+        jdbcTemplate.update("INSERT INTO urls (original_url, short_url, click_count) VALUES ('https://example.com/f', 'JKL012', 3)");
+        StringWriter rejects = new StringWriter();
+
+        BulkLoadReport report = bulkLoader.load(csvReader(CSV), checkpoint(), rejects, false);
+
+        assertThat(report.getRecords()).isEqualTo(8);
+        assertThat(report.getLoaded()).isEqualTo(2);
+        assertThat(report.getExisting()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(4);
+        assertThat(report.getExpired()).isEqualTo(1);
+        assertThat(rejects.toString().lines()).containsExactly("3\tInvalid short URL: BAD!!!", "4\tInvalid URL format: not a url",
+                "6\tInvalid URL format: https://example.com/e ", "7\tInvalid click count: x");
+        assertThat(jdbcTemplate.queryForMap("SELECT * FROM urls WHERE short_url = 'ABC123'"))
+                .containsEntry("ORIGINAL_URL", "https://example.com/a").containsEntry("CLICK_COUNT", 7);
+        LocalDateTime expiration = jdbcTemplate.queryForObject("SELECT expiration_date FROM urls WHERE short_url = 'KEEP_1'", LocalDateTime.class);
+        assertThat(expiration).isBetween(LocalDateTime.now().plusMonths(3).minusMinutes(1), LocalDateTime.now().plusMonths(3));
+        assertThat(jdbcTemplate.queryForObject("SELECT click_count FROM urls WHERE short_url = 'JKL012'", Integer.class)).isEqualTo(3);
+        assertThat(Files.exists(directory.resolve("links.checkpoint"))).isFalse();
+    }
+
+    @Test
+    void load_oldLinkWithoutExpirationDate_shouldBeValidForDefaultValidityAfterTheLoad() throws IOException {
+        String csv = """
+                OLD456,https://example.com/old,2019-05-06T07:08:09,,4
+                """;
+
+        BulkLoadReport report = bulkLoader.load(csvReader(csv), checkpoint(), new StringWriter(), false);
+
+        assertThat(report.getLoaded()).isEqualTo(1);
+        assertThat(report.getExpired()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT created_at FROM urls WHERE short_url = 'OLD456'", LocalDateTime.class))
+                .isEqualTo(LocalDateTime.of(2019, 5, 6, 7, 8, 9));
+        LocalDateTime expiration = jdbcTemplate.queryForObject("SELECT expiration_date FROM urls WHERE short_url = 'OLD456'", LocalDateTime.class);
+        assertThat(expiration).isBetween(LocalDateTime.now().plusMonths(3).minusMinutes(1), LocalDateTime.now().plusMonths(3));
+    }
+
+    @Test
+    void load_interrupted_shouldResumeAfterLastCommittedBatch() throws IOException {
+        LinkRecordReader reader = csvReader(CSV);
+        LinkRecordReader failingReader = new LinkRecordReader() {
+            @Override
+            public LinkRecord next() throws IOException {
+                LinkRecord linkRecord = reader.next();
+                if (linkRecord != null && linkRecord.number() == 6) {
+                    throw new IOException("disk error");
+                }
+                return linkRecord;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+
+        assertThatThrownBy(() -> bulkLoader.load(failingReader, checkpoint(), new StringWriter(), false)).isInstanceOf(IOException.class);
+        assertThat(checkpoint().read().getRecords()).isEqualTo(2);
+
+        BulkLoadReport report = bulkLoader.load(csvReader(CSV), checkpoint(), new StringWriter(), false);
+
+        assertThat(report.getRecords()).isEqualTo(8);
+        assertThat(report.getLoaded()).isEqualTo(3);
+        assertThat(report.getRejected()).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM urls", Long.class)).isEqualTo(3);
+    }
+
+    @Test
+    void load_ndjsonWithPrimeCache_shouldCacheInsertedLinksOnly() throws IOException {
+        jdbcTemplate.update("INSERT INTO urls (original_url, short_url, click_count) VALUES ('https://example.com/b', 'STORED', 0)");
+        when(cacheTtlPolicy.ttlFor(any())).thenReturn(Optional.of(Duration.ofHours(1)));
+        String ndjson = """
+                {"code":"NEW123","url":"example.com/a","expires":"2099-01-01T00:00:00Z","clicks":2}
+
+                {"shortUrl":"STORED","originalUrl":"https://example.com/b"}
+                {"shortUrl":
+                """;
+
+        BulkLoadReport report = bulkLoader.load(new NdjsonLinkRecordReader(new BufferedReader(new StringReader(ndjson))),
+                checkpoint(), new StringWriter(), true);
+
+        assertThat(report.getLoaded()).isEqualTo(1);
+        assertThat(report.getExisting()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<UrlMapping, Duration>> mappings = ArgumentCaptor.forClass(Map.class);
+        verify(urlCache).putAll(mappings.capture());
+        assertThat(mappings.getValue().keySet()).extracting(UrlMapping::shortUrl, UrlMapping::originalUrl)
+                .containsExactly(tuple("NEW123", "https://example.com/a"));
+    }
+
+    /**
+     * Creates a reader of CSV text.
+     *
+     * @param csv the CSV text
+     * @return the reader
+     */
+    private LinkRecordReader csvReader(String csv) {
+        return new CsvLinkRecordReader(new StringReader(csv));
+    }
+
+    /**
+     * Creates the checkpoint of the test load.
+     *
+     * @return the checkpoint
+     */
+    private BulkLoadCheckpoint checkpoint() {
+        return new BulkLoadCheckpoint(directory.resolve("links.checkpoint"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.urlshortener.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessFrequencySketchTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final AccessFrequencySketch sketch = new AccessFrequencySketch(Duration.ofMinutes(10), nanoTime::get);
+
+    @Test
+    void increment_shouldCountAccessesPerShortUrl() {
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("AAAAAA");
+        }
+
+        assertThat(sketch.increment("AAAAAA")).isEqualTo(6);
+        assertThat(sketch.estimate("AAAAAA")).isEqualTo(6);
+        assertThat(sketch.estimate("BBBBBB")).isZero();
+    }
+
+    @Test
+    void estimate_manyShortUrls_shouldNeverUndercount() {
+        for (int i = 0; i < 10_000; i++) {
+            sketch.increment(String.format("%06X", i));
+        }
+        for (int i = 0; i < 50; i++) {
+            sketch.increment("HOT000");
+        }
+
+        assertThat(sketch.estimate("HOT000")).isBetween(50, 52);
+        assertThat(sketch.estimate("000001")).isBetween(1, 3);
+    }
+
+    @Test
+    void estimate_afterHalfLife_shouldHalveCounts() {
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("AAAAAA");
+        }
+
+        nanoTime.addAndGet(Duration.ofMinutes(10).toNanos());
+
+        assertThat(sketch.estimate("AAAAAA")).isEqualTo(4);
+        assertThat(sketch.estimate("AAAAAA")).isEqualTo(4);
+    }
+}
@@ -0,0 +1,67 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.EmbeddedRedis;
+import com.urlshortener.util.UrlUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheLayoutMigratorTest {
+    private static EmbeddedRedis redis;
+    private RedisTemplate<String, String> redisTemplate;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new EmbeddedRedis();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        redisTemplate = redis.getTemplate();
+    }
+
+    @Test
+    void migrate_shouldMoveStringLayoutIntoBucketsAndDeleteIt() {
+        String originalUrl = "https://example.com/a";
+        String shortUrl = UrlUtil.generateShortUrl(originalUrl);
+        StringKeyUrlCache source = new StringKeyUrlCache(redisTemplate);
+        source.putOriginalUrl(shortUrl, originalUrl, Duration.ofMinutes(30));
+        source.putShortUrl(originalUrl, shortUrl, Duration.ofMinutes(30));
+        source.incrementClickCount(shortUrl, 7);
+        redisTemplate.opsForValue().set("lease:job:1:0", "instance");
+        HashBucketUrlCache target = new HashBucketUrlCache(redisTemplate, 4);
+        target.incrementClickCount(shortUrl, 1);
+
+        Map<String, Long> migrated = new CacheLayoutMigrator(redisTemplate, target).migrate();
+
+        assertThat(migrated).containsEntry("mappings", 1L).containsEntry("reverse-mappings", 1L).containsEntry("click-counts", 1L);
+        assertThat(target.getOriginalUrl(shortUrl)).isEqualTo(originalUrl);
+        assertThat(target.getShortUrl(originalUrl)).isEqualTo(shortUrl);
+        assertThat(redisTemplate.getExpire("u:{" + shortUrl.substring(0, 4) + "}")).isBetween(1790L, 1800L);
+        assertThat(redisTemplate.opsForHash().get("k:{" + shortUrl.substring(0, 4) + "}", shortUrl.substring(4))).isEqualTo("8");
+        assertThat(redisTemplate.hasKey(shortUrl)).isFalse();
+        assertThat(redisTemplate.hasKey(originalUrl)).isFalse();
+        assertThat(redisTemplate.hasKey("lease:job:1:0")).isTrue();
+    }
+
+    @Test
+    void migrate_targetIsStringLayout_shouldThrowException() {
+        CacheLayoutMigrator migrator = new CacheLayoutMigrator(redisTemplate, new StringKeyUrlCache(redisTemplate));
+
+        assertThatThrownBy(migrator::migrate).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,123 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.config.CacheProperties;
+import com.urlshortener.model.UrlMapping;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheTtlPolicyTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheProperties properties = new CacheProperties();
+    private CacheMetrics cacheMetrics;
+    private CacheTtlPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        properties.getAdaptive().setEnabled(true);
+        cacheMetrics = new CacheMetrics(meterRegistry);
+        policy = new CacheTtlPolicy(properties, cacheMetrics);
+    }
+
+    @Test
+    void ttlFor_adaptiveDisabled_shouldUseFixedTtl() {
+        properties.getAdaptive().setEnabled(false);
+        policy = new CacheTtlPolicy(properties, cacheMetrics);
+
+        assertThat(policy.ttlFor(mapping("AAAAAA", LocalDateTime.now().plusMonths(3)))).contains(Duration.ofHours(1));
+    }
+
+    @Test
+    void ttlFor_shouldFollowAccessFrequency() {
+        access("COLD00", 1);
+        access("WARM00", 3);
+        access("HOT000", 100);
+        LocalDateTime expiration = LocalDateTime.now().plusMonths(3);
+
+        assertThat(policy.ttlFor(mapping("COLD00", expiration))).contains(Duration.ofMinutes(5));
+        assertThat(policy.ttlFor(mapping("WARM00", expiration))).contains(Duration.ofHours(1));
+        assertThat(policy.ttlFor(mapping("HOT000", expiration))).contains(Duration.ofHours(24));
+        assertThat(meterRegistry.get("url.cache.fills").tag("tier", "hot").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void ttlFor_hotUrlExpiringSoon_shouldBeCappedByExpiration() {
+        access("HOT000", 100);
+
+        assertThat(policy.ttlFor(mapping("HOT000", LocalDateTime.now().plusMinutes(30))))
+                .hasValueSatisfying(ttl -> assertThat(ttl).isLessThanOrEqualTo(Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void ttlFor_expiredUrl_shouldReturnEmpty() {
+        assertThat(policy.ttlFor(mapping("AAAAAA", LocalDateTime.now().minusMinutes(1)))).isEmpty();
+    }
+
+    @Test
+    void adjustToMemoryUsage_overBudget_shouldShortenTtlDownToColdTtlAndRecoverBelowBudget() {
+        access("HOT000", 100);
+        access("WARM00", 3);
+        LocalDateTime expiration = LocalDateTime.now().plusMonths(3);
+
+        policy.adjustToMemoryUsage(2000, 1000);
+        assertThat(policy.ttlFor(mapping("HOT000", expiration))).contains(Duration.ofHours(24).multipliedBy(45).dividedBy(100));
+
+        for (int i = 0; i < 10; i++) {
+            policy.adjustToMemoryUsage(2000, 1000);
+        }
+        assertThat(policy.ttlFor(mapping("WARM00", expiration))).contains(Duration.ofMinutes(5));
+
+        for (int i = 0; i < 100; i++) {
+            policy.adjustToMemoryUsage(500, 1000);
+        }
+        assertThat(policy.getTtlScale()).isEqualTo(1);
+    }
+
+    @Test
+    void recordAccess_shouldReportHitRatio() {
+        policy.recordAccess("AAAAAA", true);
+        policy.recordAccess("AAAAAA", true);
+        policy.recordAccess("AAAAAA", true);
+        policy.recordAccess("BBBBBB", false);
+
+        assertThat(meterRegistry.get("url.cache.hit.ratio").gauge().value()).isEqualTo(0.75);
+    }
+
+    @Test
+    void sampleMemorySaved_coldFills_shouldReportSavedMemory() {
+        access("COLD00", 1);
+
+        policy.ttlFor(mapping("COLD00", LocalDateTime.now().plusMonths(3)));
+        cacheMetrics.sampleMemorySaved();
+
+        assertThat(meterRegistry.get("url.cache.memory.saved").gauge().value()).isPositive();
+    }
+
+    /**
+     * Records redirect lookups of a shortened URL.
+     *
+     * @param shortUrl the shortened URL
+     * @param times    the number of lookups
+     */
+    private void access(String shortUrl, int times) {
+        for (int i = 0; i < times; i++) {
+            policy.recordAccess(shortUrl, true);
+        }
+    }
+
+    /**
+     * Creates a mapping of a shortened URL.
+     *
+     * @param shortUrl       the shortened URL
+     * @param expirationDate the expiration date
+     * @return the URL mapping
+     */
+    private UrlMapping mapping(String shortUrl, LocalDateTime expirationDate) {
+        return new UrlMapping(shortUrl, "https://example.com/" + shortUrl, expirationDate);
+    }
+}
@@ -0,0 +1,193 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.EmbeddedRedis;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.scheduling.CodeRange;
+import com.urlshortener.util.UrlUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashBucketUrlCacheTest {
+    private static EmbeddedRedis redis;
+    private RedisTemplate<String, String> redisTemplate;
+    private HashBucketUrlCache urlCache;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new EmbeddedRedis("hash-max-ziplist-value 1024");
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        redisTemplate = redis.getTemplate();
+        urlCache = new HashBucketUrlCache(redisTemplate, 4);
+    }
+
+    @Test
+    void putOriginalUrl_shouldStoreMappingInCompactBucket() {
+        urlCache.putOriginalUrl("ABCD12", "https://example.com/a", Duration.ofHours(1));
+        urlCache.putOriginalUrl("ABCD34", "https://example.com/b", Duration.ofHours(1));
+
+        assertThat(urlCache.getOriginalUrl("ABCD12")).isEqualTo("https://example.com/a");
+        assertThat(urlCache.getOriginalUrl("ABCD34")).isEqualTo("https://example.com/b");
+        assertThat(urlCache.getOriginalUrl("ABCD56")).isNull();
+        assertThat(redisTemplate.keys("*")).containsExactly("u:{ABCD}");
+        assertThat(encoding("u:{ABCD}")).isIn("ziplist", "listpack");
+        assertThat(redisTemplate.getExpire("u:{ABCD}")).isBetween(3590L, 3600L);
+    }
+
+    @Test
+    void getOriginalUrl_entryExpired_shouldReturnNull() {
+        urlCache.putOriginalUrl("ABCD12", "https://example.com/a", Duration.ofMinutes(5));
+        urlCache.putOriginalUrl("ABCD34", "https://example.com/b", Duration.ofHours(1));
+
+        HashBucketUrlCache later = new HashBucketUrlCache(redisTemplate, redisTemplate, 4, Clock.offset(Clock.systemUTC(), Duration.ofMinutes(10)));
+
+        assertThat(later.getOriginalUrl("ABCD12")).isNull();
+        assertThat(later.getOriginalUrl("ABCD34")).isEqualTo("https://example.com/b");
+    }
+
+    @Test
+    void putOriginalUrl_largeBucket_shouldSweepExpiredEntries() {
+        HashBucketUrlCache earlier = new HashBucketUrlCache(redisTemplate, redisTemplate, 4, Clock.offset(Clock.systemUTC(), Duration.ofHours(-1)));
+        for (int i = 0; i < 40; i++) {
+            earlier.putOriginalUrl(String.format("ABCD%02d", i), "https://example.com/" + i, Duration.ofMinutes(1));
+        }
+
+        urlCache.putOriginalUrl("ABCDXX", "https://example.com/live", Duration.ofHours(1));
+
+        assertThat(redisTemplate.opsForHash().size("u:{ABCD}")).isEqualTo(1);
+    }
+
+    @Test
+    void getOriginalUrls_shouldLookUpAcrossBucketsInRequestOrder() {
+        urlCache.putOriginalUrl("ABCD12", "https://example.com/a", Duration.ofHours(1));
+        urlCache.putOriginalUrl("EF0112", "https://example.com/b", Duration.ofHours(1));
+        urlCache.putOriginalUrl("ABCD34", "https://example.com/c", Duration.ofHours(1));
+
+        assertThat(urlCache.getOriginalUrls(List.of("ABCD34", "MISSING", "EF0112", "ABCD12")))
+                .isEqualTo(Arrays.asList("https://example.com/c", null, "https://example.com/b", "https://example.com/a"));
+    }
+
+    @Test
+    void getShortUrl_generatedShortUrl_shouldUseMappingWithoutReverseEntry() {
+        String originalUrl = "https://example.com/generated";
+        String shortUrl = UrlUtil.generateShortUrl(originalUrl);
+
+        urlCache.putShortUrl(originalUrl, shortUrl, Duration.ofHours(1));
+
+        assertThat(urlCache.getShortUrl(originalUrl)).isEqualTo(shortUrl);
+        assertThat(urlCache.getOriginalUrl(shortUrl)).isEqualTo(originalUrl);
+        assertThat(redisTemplate.keys("r:*")).isEmpty();
+    }
+
+    @Test
+    void getShortUrl_customShortUrl_shouldUseVerifiedReverseEntry() {
+        urlCache.putShortUrl("https://example.com/custom", "custom1", Duration.ofHours(1));
+
+        assertThat(urlCache.getShortUrl("https://example.com/custom")).isEqualTo("custom1");
+        assertThat(redisTemplate.keys("r:*")).hasSize(1);
+
+        urlCache.putOriginalUrl("custom1", "https://example.com/other", Duration.ofHours(1));
+        assertThat(urlCache.getShortUrl("https://example.com/custom")).isNull();
+        assertThat(urlCache.getShortUrl("https://example.com/unknown")).isNull();
+    }
+
+    @Test
+    void putAll_shouldStoreMappingsAndReverseEntriesOfCustomShortUrlsOnly() {
+        String generatedShortUrl = UrlUtil.generateShortUrl("https://example.com/a");
+        LocalDateTime expiration = LocalDateTime.now().plusDays(1);
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+
+        urlCache.putAll(Map.of(
+                new UrlMapping(generatedShortUrl, "https://example.com/a", expiration), Duration.ofHours(1),
+                new UrlMapping("CUSTOM", "https://example.com/b", expiration), Duration.ofHours(1)));
+
+        assertThat(urlCache.getOriginalUrls(List.of(generatedShortUrl, "CUSTOM"))).containsExactly("https://example.com/a", "https://example.com/b");
+        assertThat(urlCache.getShortUrl("https://example.com/a")).isEqualTo(generatedShortUrl);
+        assertThat(urlCache.getShortUrl("https://example.com/b")).isEqualTo("CUSTOM");
+        assertThat(redisTemplate.keys("r:*")).hasSize(1);
+    }
+
+    @Test
+    void drainClickCounts_shouldTakeCountsOfRangeOnly() {
+        urlCache.incrementClickCount("1AAAAA", 1);
+        urlCache.incrementClickCount("1AAAAA", 2);
+        urlCache.incrementClickCount("1AAABB", 4);
+        urlCache.incrementClickCount("FAAAAA", 5);
+        Map<String, Integer> drained = new HashMap<>();
+
+        int count = urlCache.drainClickCounts(new CodeRange("10", "20"), drained::put);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(drained).containsExactlyInAnyOrderEntriesOf(Map.of("1AAAAA", 3, "1AAABB", 4));
+        assertThat(redisTemplate.keys("k:*")).containsExactly("k:{FAAA}");
+        assertThat(redisTemplate.keys("pending-click-buckets*")).containsExactly("pending-click-buckets:{F}");
+        assertThat(redisTemplate.opsForZSet().range("pending-click-buckets:{F}", 0, -1)).containsExactly("FAAA");
+    }
+
+    @Test
+    void drainClickCounts_bucketsOfEarlierVersionsIndexed_shouldBeDrained() {
+        redisTemplate.opsForHash().put("k:1AAA", "AA", "3");
+        redisTemplate.opsForHash().put("k:{2AAA}", "AA", "4");
+        Map<String, Integer> drained = new HashMap<>();
+
+        urlCache.indexClickCounts();
+        urlCache.drainClickCounts(new CodeRange(null, null), drained::put);
+
+        assertThat(drained).isEqualTo(Map.of("1AAAAA", 3, "2AAAAA", 4));
+        assertThat(redisTemplate.keys("*")).isEmpty();
+    }
+
+    @Test
+    void drainClickCounts_consumerFails_shouldRestoreRemainingCounts() {
+        urlCache.incrementClickCount("1AAAAA", 3);
+        urlCache.incrementClickCount("1AAABB", 4);
+
+        assertThatThrownBy(() -> urlCache.drainClickCounts(new CodeRange(null, null), (shortUrl, clicks) -> {
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(redisTemplate.<String, String>opsForHash().entries("k:{1AAA}")).isEqualTo(Map.of("AA", "3", "BB", "4"));
+        assertThat(redisTemplate.opsForZSet().range("pending-click-buckets:{1}", 0, -1)).containsExactly("1AAA");
+    }
+
+    @Test
+    void constructor_prefixTooShort_shouldThrowException() {
+        assertThatThrownBy(() -> new HashBucketUrlCache(redisTemplate, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Reads the internal encoding Redis uses for a key.
+     *
+     * @param key the key
+     * @return the encoding name
+     */
+    private String encoding(String key) {
+        return redisTemplate.execute(connection -> connection.keyCommands().encodingOf(key.getBytes()).raw(), true);
+    }
+}
@@ -0,0 +1,198 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.EmbeddedRedisCluster;
+import com.urlshortener.config.CacheProperties;
+import com.urlshortener.config.RedisConfig;
+import com.urlshortener.config.RedisTopologyProperties;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.scheduling.CodeRange;
+import com.urlshortener.util.UrlUtil;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.SlotHash;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisClusterUrlCacheTest {
+    private static EmbeddedRedisCluster cluster;
+    private static LettuceConnectionFactory connectionFactory;
+    private static LettuceConnectionFactory redirectConnectionFactory;
+    private static RedisTemplate<String, String> redisTemplate;
+    private static RedisTemplate<String, String> redirectRedisTemplate;
+
+    @BeforeAll
+    static void startCluster() {
+        cluster = new EmbeddedRedisCluster(3, 1);
+
+        RedisProperties redisProperties = new RedisProperties();
+        RedisProperties.Cluster clusterProperties = new RedisProperties.Cluster();
+        clusterProperties.setNodes(cluster.getNodes());
+        redisProperties.setCluster(clusterProperties);
+        redisProperties.getLettuce().getCluster().getRefresh().setPeriod(Duration.ofSeconds(30));
+        redisProperties.getLettuce().getCluster().getRefresh().setAdaptive(true);
+
+        RedisConfig redisConfig = new RedisConfig();
+        connectionFactory = redisConfig.redisConnectionFactory(redisProperties);
+        redirectConnectionFactory = redisConfig.redirectRedisConnectionFactory(redisProperties, new RedisTopologyProperties());
+        for (LettuceConnectionFactory factory : List.of(connectionFactory, redirectConnectionFactory)) {
+            factory.afterPropertiesSet();
+            factory.start();
+        }
+        redisTemplate = redisConfig.redisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redirectRedisTemplate = redisConfig.redisTemplate(redirectConnectionFactory);
+        redirectRedisTemplate.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        redirectConnectionFactory.destroy();
+        connectionFactory.destroy();
+        cluster.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        cluster.flushAll();
+    }
+
+    @Test
+    void connectionFactory_shouldRefreshTopologyPeriodicallyAndOnRedirects() {
+        ClusterClientOptions options = (ClusterClientOptions) connectionFactory.getClientConfiguration().getClientOptions().orElseThrow();
+
+        assertThat(options.getTopologyRefreshOptions().isPeriodicRefreshEnabled()).isTrue();
+        assertThat(options.getTopologyRefreshOptions().getRefreshPeriod()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(options.getTopologyRefreshOptions().getAdaptiveRefreshTriggers()).isNotEmpty();
+        assertThat(redirectConnectionFactory.getClientConfiguration().getReadFrom()).isPresent();
+    }
+
+    @Test
+    void stringLayout_shouldKeepClickCountsInTheSlotOfTheirMappingAndDrainAllNodes() {
+        StringKeyUrlCache urlCache = new StringKeyUrlCache(redisTemplate, redirectRedisTemplate);
+        List<String> shortUrls = cacheLinks(urlCache);
+
+        assertThat(SlotHash.getSlot("clicks:" + RedisKeys.hashTag("ABC123"))).isEqualTo(SlotHash.getSlot("ABC123"));
+        assertThat(urlCache.getShortUrl(originalUrl(7))).isEqualTo(shortUrls.get(7));
+        assertDrainsAllLinks(urlCache, shortUrls);
+    }
+
+    @Test
+    void hashBucketLayout_shouldKeepBucketsOfAPrefixInOneSlotAndDrainAllNodes() {
+        HashBucketUrlCache urlCache = new HashBucketUrlCache(redisTemplate, redirectRedisTemplate, 2);
+        List<String> shortUrls = cacheLinks(urlCache);
+
+        assertThat(SlotHash.getSlot("u:" + RedisKeys.hashTag("AB"))).isEqualTo(SlotHash.getSlot("k:" + RedisKeys.hashTag("AB")));
+        assertThat(urlCache.getShortUrl(originalUrl(7))).isEqualTo(shortUrls.get(7));
+        assertDrainsAllLinks(urlCache, shortUrls);
+    }
+
+    @Test
+    void putAll_shouldPipelineWritesToAllMasters() {
+        Map<UrlMapping, Duration> mappings = new LinkedHashMap<>();
+        IntStream.range(0, 100).forEach(i -> mappings.put(
+                new UrlMapping("CODE" + i, originalUrl(i), LocalDateTime.now().plusDays(1)), Duration.ofHours(1)));
+
+        for (UrlCache urlCache : List.of(new StringKeyUrlCache(redisTemplate), new HashBucketUrlCache(redisTemplate, 2))) {
+            urlCache.putAll(mappings);
+
+            assertThat(urlCache.getOriginalUrls(List.of("CODE0", "CODE99"))).containsExactly(originalUrl(0), originalUrl(99));
+            assertThat(urlCache.getShortUrl(originalUrl(42))).isEqualTo("CODE42");
+        }
+    }
+
+    @Test
+    void redirectLookups_shouldBeServedByReplicas() {
+        StringKeyUrlCache urlCache = new StringKeyUrlCache(redisTemplate, redirectRedisTemplate);
+        urlCache.putOriginalUrl("ABC123", "https://example.com", Duration.ofHours(1));
+        long replicaGets = cluster.getReplicaCalls("get");
+
+        String originalUrl = null;
+        for (int attempt = 0; attempt < 50 && originalUrl == null; attempt++) {
+            originalUrl = urlCache.getOriginalUrl("ABC123");
+        }
+
+        assertThat(originalUrl).isEqualTo("https://example.com");
+        assertThat(cluster.getReplicaCalls("get")).isGreaterThan(replicaGets);
+    }
+
+    @Test
+    void checkMemory_shouldSumMemoryOfAllMasters() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setMemoryBudget(DataSize.ofGigabytes(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CacheMetrics cacheMetrics = new CacheMetrics(meterRegistry);
+        CacheMemoryMonitor monitor = new CacheMemoryMonitor(redisTemplate, cacheProperties,
+                new CacheTtlPolicy(cacheProperties, cacheMetrics), cacheMetrics);
+
+        monitor.checkMemory();
+
+        Properties replicaMemory = cluster.getReplicas().get(0).getTemplate().execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("memory"));
+        assertThat(meterRegistry.get("url.cache.memory.used").gauge().value())
+                .isGreaterThan(2.0 * Long.parseLong(replicaMemory.getProperty("used_memory")));
+    }
+
+    /**
+     * Caches 100 links, whose short URLs are spread over all masters, in both directions with a pending click count.
+     *
+     * @param urlCache the cache
+     * @return the short URLs in the order of their original URLs
+     */
+    private List<String> cacheLinks(UrlCache urlCache) {
+        List<String> shortUrls = IntStream.range(0, 100).mapToObj(i -> UrlUtil.generateShortUrl(originalUrl(i))).toList();
+        for (int i = 0; i < shortUrls.size(); i++) {
+            urlCache.putShortUrl(originalUrl(i), shortUrls.get(i), Duration.ofHours(1));
+            urlCache.putOriginalUrl(shortUrls.get(i), originalUrl(i), Duration.ofHours(1));
+            urlCache.incrementClickCount(shortUrls.get(i), i + 1);
+        }
+        return shortUrls;
+    }
+
+    /**
+     * Checks that a batch lookup spanning all masters finds every link and that draining returns every click count.
+     *
+     * @param urlCache  the cache
+     * @param shortUrls the cached short URLs
+     */
+    private void assertDrainsAllLinks(UrlCache urlCache, List<String> shortUrls) {
+        List<String> originalUrls = null;
+        for (int attempt = 0; attempt < 50 && (originalUrls == null || originalUrls.contains(null)); attempt++) {
+            originalUrls = urlCache.getOriginalUrls(shortUrls);
+        }
+        assertThat(originalUrls).isEqualTo(IntStream.range(0, 100).mapToObj(this::originalUrl).toList());
+
+        Map<String, Integer> drained = new HashMap<>();
+        int count = urlCache.drainClickCounts(new CodeRange(null, null), drained::put);
+
+        assertThat(count).isEqualTo(100);
+        assertThat(drained).hasSize(100).containsEntry(shortUrls.get(0), 1).containsEntry(shortUrls.get(99), 100);
+    }
+
+    /**
+     * Builds the original URL of the i-th test link.
+     *
+     * @param i the index of the link
+     * @return the original URL
+     */
+    private String originalUrl(int i) {
+        return "https://example.com/" + i;
+    }
+}
@@ -0,0 +1,128 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.EmbeddedRedis;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.scheduling.CodeRange;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StringKeyUrlCacheTest {
+    private static EmbeddedRedis redis;
+    private RedisTemplate<String, String> redisTemplate;
+    private StringKeyUrlCache urlCache;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new EmbeddedRedis();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        redisTemplate = redis.getTemplate();
+        urlCache = new StringKeyUrlCache(redisTemplate);
+    }
+
+    @Test
+    void putOriginalUrlAndPutShortUrl_shouldStoreOneKeyPerDirection() {
+        urlCache.putOriginalUrl("ABC123", "https://example.com", Duration.ofHours(1));
+        urlCache.putShortUrl("https://example.com", "ABC123", Duration.ofHours(1));
+
+        assertThat(urlCache.getOriginalUrl("ABC123")).isEqualTo("https://example.com");
+        assertThat(urlCache.getShortUrl("https://example.com")).isEqualTo("ABC123");
+        assertThat(urlCache.getOriginalUrls(List.of("ABC123", "MISSING"))).isEqualTo(Arrays.asList("https://example.com", null));
+        assertThat(redisTemplate.keys("*")).containsExactlyInAnyOrder("ABC123", "https://example.com");
+    }
+
+    @Test
+    void putAll_shouldStoreBothDirectionsOfEveryMapping() {
+        LocalDateTime expiration = LocalDateTime.now().plusDays(1);
+        urlCache.putAll(Map.of(
+                new UrlMapping("ABC123", "https://example.com/a", expiration), Duration.ofHours(1),
+                new UrlMapping("DEF456", "https://example.com/b", expiration), Duration.ofMinutes(5)));
+
+        assertThat(urlCache.getOriginalUrls(List.of("ABC123", "DEF456"))).containsExactly("https://example.com/a", "https://example.com/b");
+        assertThat(urlCache.getShortUrl("https://example.com/b")).isEqualTo("DEF456");
+        assertThat(redisTemplate.getExpire("DEF456")).isBetween(290L, 300L);
+    }
+
+    @Test
+    void drainClickCounts_shouldTakeCountsOfRangeOnly() {
+        urlCache.incrementClickCount("1AAAAA", 5);
+        urlCache.incrementClickCount("FAAAAA", 2);
+        Map<String, Integer> drained = new HashMap<>();
+
+        int count = urlCache.drainClickCounts(new CodeRange("10", "20"), drained::put);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(drained).isEqualTo(Map.of("1AAAAA", 5));
+        assertThat(redisTemplate.keys("clicks:*")).containsExactly("clicks:{FAAAAA}");
+        assertThat(redisTemplate.keys("pending-clicks*")).containsExactly("pending-clicks:{F}");
+        assertThat(redisTemplate.opsForZSet().range("pending-clicks:{F}", 0, -1)).containsExactly("FAAAAA");
+    }
+
+    @Test
+    void incrementClickCount_shouldIndexShortUrlWhenItsCountIsCreated() {
+        urlCache.incrementClickCount("1AAAAA", 1);
+        redisTemplate.opsForZSet().remove("pending-clicks:{1}", "1AAAAA");
+        urlCache.incrementClickCount("1AAAAA", 1);
+        urlCache.incrementClickCount("2AAAAA", 1);
+
+        assertThat(redisTemplate.keys("pending-clicks*")).containsExactly("pending-clicks:{2}");
+    }
+
+    @Test
+    void drainClickCounts_keysOfEarlierVersionsIndexed_shouldBeDrained() {
+        redisTemplate.opsForValue().set("clicks:1AAAAA", "3");
+        redisTemplate.opsForValue().set("clicks:{2AAAAA}", "4");
+        Map<String, Integer> drained = new HashMap<>();
+
+        urlCache.indexClickCounts();
+        urlCache.drainClickCounts(new CodeRange(null, null), drained::put);
+
+        assertThat(drained).isEqualTo(Map.of("1AAAAA", 3, "2AAAAA", 4));
+        assertThat(redisTemplate.keys("*")).isEmpty();
+    }
+
+    @Test
+    void drainClickCounts_shortUrlInUnshardedIndexOfEarlierVersion_shouldBeDrained() {
+        redisTemplate.opsForValue().set("clicks:{1AAAAA}", "3");
+        redisTemplate.opsForZSet().add(StringKeyUrlCache.PENDING_CLICKS_KEY, "1AAAAA", 0);
+        Map<String, Integer> drained = new HashMap<>();
+
+        urlCache.drainClickCounts(new CodeRange("10", "20"), drained::put);
+
+        assertThat(drained).isEqualTo(Map.of("1AAAAA", 3));
+        assertThat(redisTemplate.keys("*")).isEmpty();
+    }
+
+    @Test
+    void drainClickCounts_consumerFails_shouldRestoreCount() {
+        urlCache.incrementClickCount("1AAAAA", 5);
+
+        assertThatThrownBy(() -> urlCache.drainClickCounts(new CodeRange(null, null), (shortUrl, clicks) -> {
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(redisTemplate.opsForValue().get("clicks:{1AAAAA}")).isEqualTo("5");
+        assertThat(redisTemplate.opsForZSet().range("pending-clicks:{1}", 0, -1)).containsExactly("1AAAAA");
+    }
+}
@@ -0,0 +1,95 @@
+package com.urlshortener.config;
+
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.repository.UrlJdbcRepository;
+import com.urlshortener.repository.UrlRepository;
+import com.urlshortener.scheduling.CodeRange;
+import com.urlshortener.scheduling.PartitionedJobRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerConfigTest {
+    @Mock
+    private UrlCache urlCache;
+    @Mock
+    private UrlRepository urlRepository;
+    @Mock
+    private UrlJdbcRepository urlJdbcRepository;
+    @Mock
+    private PartitionedJobRunner partitionedJobRunner;
+
+    private final SchedulerProperties schedulerProperties = new SchedulerProperties();
+    private SchedulerConfig schedulerConfig;
+
+    @BeforeEach
+    void setUp() {
+        schedulerConfig = new SchedulerConfig(urlCache, urlRepository, urlJdbcRepository, partitionedJobRunner, schedulerProperties);
+    }
+
+    @Test
+    void cleanupExpiredUrls_shouldDeleteExpiredUrlsOfClaimedRanges() {
+        CodeRange range = new CodeRange("10", "20");
+        runWithRange(SchedulerConfig.CLEANUP_JOB, range);
+
+        schedulerConfig.cleanupExpiredUrls();
+
+        verify(urlJdbcRepository).deleteExpiredInRange(any(LocalDateTime.class), eq(range), eq(schedulerProperties.getCleanupBatchSize()));
+    }
+
+    @Test
+    void flushClickCountsToDatabase_shouldStoreDrainedCountsOfClaimedRange() {
+        CodeRange range = new CodeRange("10", "20");
+        runWithRange(SchedulerConfig.CLICK_FLUSH_JOB, range);
+        when(urlCache.drainClickCounts(eq(range), any())).thenAnswer(invocation -> {
+            invocation.<ObjIntConsumer<String>>getArgument(1).accept("1AAAAA", 5);
+            return 1;
+        });
+
+        schedulerConfig.flushClickCountsToDatabase();
+
+        verify(urlRepository).incrementClickCount("1AAAAA", 5);
+    }
+
+    @Test
+    void flushClickCountsToDatabase_urlCachedButNotStoredYet_shouldPutCountBack() {
+        CodeRange range = new CodeRange("10", "20");
+        runWithRange(SchedulerConfig.CLICK_FLUSH_JOB, range);
+        when(urlCache.drainClickCounts(eq(range), any())).thenAnswer(invocation -> {
+            invocation.<ObjIntConsumer<String>>getArgument(1).accept("1AAAAA", 5);
+            invocation.<ObjIntConsumer<String>>getArgument(1).accept("1BBBBB", 2);
+            return 2;
+        });
+        when(urlRepository.incrementClickCount(anyString(), anyInt())).thenReturn(0);
+        when(urlCache.getOriginalUrl("1AAAAA")).thenReturn("https://example.com");
+
+        schedulerConfig.flushClickCountsToDatabase();
+
+        verify(urlCache).incrementClickCount("1AAAAA", 5);
+        verify(urlCache, never()).incrementClickCount(eq("1BBBBB"), anyLong());
+    }
+
+    /**
+     * Makes the mocked job runner run the work of the given job for a single range.
+     *
+     * @param job   the name of the job
+     * @param range the range handed to the work
+     */
+    @SuppressWarnings("unchecked")
+    private void runWithRange(String job, CodeRange range) {
+        when(partitionedJobRunner.run(eq(job), any(SchedulerProperties.Job.class), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<CodeRange>>getArgument(2).accept(range);
+            return 1;
+        });
+    }
+}
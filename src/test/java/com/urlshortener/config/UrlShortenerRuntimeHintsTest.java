@@ -0,0 +1,30 @@
+package com.urlshortener.config;
+
+import com.urlshortener.dto.UrlShortenedRequestDto;
+import com.urlshortener.dto.UrlShortenedResponseDto;
+import com.urlshortener.model.Url;
+import com.urlshortener.validation.UrlValidator;
+import com.urlshortener.validation.ValidUrl;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UrlShortenerRuntimeHintsTest {
+
+    @Test
+    void registerHints_shouldCoverEntityBodiesAndValidator() {
+        RuntimeHints hints = new RuntimeHints();
+
+        new UrlShortenerRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(Url.class).withMemberCategory(MemberCategory.DECLARED_FIELDS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(UrlShortenedRequestDto.class, "setOriginalUrl")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(UrlShortenedResponseDto.class, "getShortUrl")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(UrlValidator.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(ValidUrl.class)).accepts(hints);
+    }
+}
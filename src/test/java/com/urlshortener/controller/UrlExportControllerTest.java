@@ -0,0 +1,95 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.config.ExportProperties;
+import com.urlshortener.exception.GlobalExceptionHandler;
+import com.urlshortener.export.ExportFilter;
+import com.urlshortener.export.ExportFormat;
+import com.urlshortener.export.UrlExporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class UrlExportControllerTest {
+    private static final String BASE_URL = "/api/admin";
+    private static final String ADMIN_TOKEN = "s3cret-token";
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private UrlExporter urlExporter;
+
+    @BeforeEach
+    void setup() {
+        ExportProperties exportProperties = new ExportProperties();
+        exportProperties.setAdminToken(ADMIN_TOKEN);
+        mockMvc = MockMvcBuilders.standaloneSetup(new UrlExportController(urlExporter, exportProperties))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void exportUrls_csvWithFilter_streamsCsv() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/export")
+                        .param("format", "csv")
+                        .param("createdFrom", "2025-01-01T00:00:00")
+                        .param("includeExpired", "true")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(MockMvcResultMatchers.header().string("Content-Disposition", "attachment; filename=\"urls.csv\""));
+
+        verify(urlExporter).export(eq(new ExportFilter(LocalDateTime.of(2025, 1, 1, 0, 0), null, null, null, true)),
+                eq(ExportFormat.CSV), any());
+    }
+
+    @Test
+    void exportUrls_unknownFormat_returnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/export").param("format", "xml")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(urlExporter);
+    }
+
+    @Test
+    void exportUrls_malformedDate_returnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/export").param("expiresTo", "tomorrow")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(urlExporter);
+    }
+
+    @Test
+    void exportUrls_missingOrWrongToken_returnsUnauthorized() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/export"))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/export").header(HttpHeaders.AUTHORIZATION, "Bearer wrong"))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+        verifyNoInteractions(urlExporter);
+    }
+
+    @Test
+    void constructor_noAdminToken_shouldThrowException() {
+        assertThatThrownBy(() -> new UrlExportController(urlExporter, new ExportProperties()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -1,11 +1,14 @@
 package com.urlshortener.controller;
 
-import com.urlshortener.dto.UrlShortenedRequestDto;
-import com.urlshortener.dto.UrlShortenedResponseDto;
+import com.urlshortener.config.RateLimitProperties;
+import com.urlshortener.dto.*;
 import com.urlshortener.exception.GlobalExceptionHandler;
 import com.urlshortener.exception.UrlExpiredException;
 import com.urlshortener.exception.UrlNotFoundException;
-import com.urlshortener.model.Url;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.ratelimit.ClientRateLimiter;
+import com.urlshortener.ratelimit.RateLimitClient;
+import com.urlshortener.ratelimit.RateLimitInterceptor;
 import com.urlshortener.service.UrlShorteningService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,7 +23,14 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -63,9 +73,34 @@ class UrlShorteningControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
 
+    @Test
+    void shortenUrl_rateLimited_returnsTooManyRequestsWithRetryAfter() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.ApiKey apiKey = new RateLimitProperties.ApiKey();
+        apiKey.setName("partner-a");
+        apiKey.setKey("secret");
+        properties.setApiKeys(List.of(apiKey));
+        ClientRateLimiter rateLimiter = mock(ClientRateLimiter.class);
+        when(rateLimiter.tryAcquire(any(RateLimitClient.class))).thenReturn(Duration.ofMillis(1500));
+        MockMvc rateLimitedMockMvc = MockMvcBuilders.standaloneSetup(urlShorteningController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addMappedInterceptors(new String[]{BASE_URL + "/shorten"}, new RateLimitInterceptor(rateLimiter, properties))
+                .build();
+
+        rateLimitedMockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/shorten")
+                        .header("X-API-Key", "secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"originalUrl\": \"https://example.com\"}"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "2"));
+
+        verify(rateLimiter).tryAcquire(argThat(client -> client.id().equals("api-key:partner-a")));
+        verifyNoInteractions(urlShorteningService);
+    }
+
     @Test
     void redirectToOriginalUrl_redirectsToOriginalUrl() throws Exception {
-        when(urlShorteningService.getOriginalUrl("abc123")).thenReturn(new Url(null, "http://example.com", "abc123", null, null, 0));
+        when(urlShorteningService.getOriginalUrl("abc123")).thenReturn(new UrlMapping("abc123", "http://example.com", null));
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/abc123"))
                 .andExpect(MockMvcResultMatchers.status().isFound())
@@ -109,4 +144,27 @@ class UrlShorteningControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isNotFound())
                 .andExpect(MockMvcResultMatchers.content().string("URL not found"));
     }
+
+    @Test
+    void resolveUrls_returnsResolutionResults() throws Exception {
+        when(urlShorteningService.resolveUrls(List.of("abc123", "nonexistent"))).thenReturn(new UrlResolveResponseDto(List.of(
+                new ResolvedUrlDto("abc123", "http://example.com", null, ResolveStatus.FOUND),
+                new ResolvedUrlDto("nonexistent", null, null, ResolveStatus.NOT_FOUND))));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shortUrls\": [\"abc123\", \"nonexistent\"]}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].originalUrl").value("http://example.com"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].status").value("FOUND"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    void resolveUrls_emptyShortUrls_returnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shortUrls\": []}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
 }
@@ -0,0 +1,117 @@
+package com.urlshortener.datasource;
+
+import com.urlshortener.util.UrlUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the rebalancer against in-memory H2 databases standing in for the shards.
+ */
+class ShardRebalancerTest {
+    private static final List<String> SHARDS = List.of("shard-a", "shard-b", "shard-c");
+
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+    private final ShardResolver shardResolver = new ShardResolver(SHARDS, 160);
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        for (String shard : SHARDS) {
+            DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + shard + "-" + run + ";DB_CLOSE_DELAY=-1");
+            new JdbcTemplate(dataSource).execute("CREATE TABLE urls (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "original_url VARCHAR(2048) NOT NULL UNIQUE, short_url VARCHAR(255) NOT NULL UNIQUE, "
+                    + "created_at TIMESTAMP, expiration_date TIMESTAMP, click_count INT NOT NULL)");
+            new JdbcTemplate(dataSource).execute("CREATE TABLE original_url_index (original_url VARCHAR(2048) PRIMARY KEY, "
+                    + "short_url VARCHAR(255) NOT NULL)");
+            shards.put(shard, dataSource);
+        }
+    }
+
+    @Test
+    void rebalance_urlsOnWrongShard_shouldMoveThemToOwningShard() {
+        for (int i = 0; i < 300; i++) {
+            String originalUrl = "https://example.com/" + i;
+            insert("shard-a", originalUrl, UrlUtil.generateShortUrl(originalUrl), i);
+        }
+
+        Map<String, Long> moved = new ShardRebalancer(shards, shardResolver, 50).rebalance();
+
+        assertThat(moved.get("shard-a")).isEqualTo(300 - count("shard-a"));
+        assertThat(count("shard-a") + count("shard-b") + count("shard-c")).isEqualTo(300);
+        for (String shard : SHARDS) {
+            assertThat(jdbc(shard).queryForList("SELECT short_url FROM urls", String.class))
+                    .allSatisfy(shortUrl -> assertThat(shardResolver.resolve(shortUrl)).isEqualTo(shard));
+        }
+    }
+
+    @Test
+    void rebalance_movedUrl_shouldKeepClickCount() {
+        String originalUrl = findOriginalUrlOwnedBy("shard-b");
+        String shortUrl = UrlUtil.generateShortUrl(originalUrl);
+        insert("shard-a", originalUrl, shortUrl, 42);
+
+        new ShardRebalancer(shards, shardResolver, 50).rebalance();
+
+        assertThat(count("shard-a")).isZero();
+        assertThat(jdbc("shard-b").queryForObject("SELECT click_count FROM urls WHERE short_url = ?", Integer.class, shortUrl))
+                .isEqualTo(42);
+    }
+
+    @Test
+    void rebalance_urlAlreadyCopiedToOwningShard_shouldOnlyDeleteStaleCopy() {
+        String originalUrl = findOriginalUrlOwnedBy("shard-c");
+        String shortUrl = UrlUtil.generateShortUrl(originalUrl);
+        insert("shard-a", originalUrl, shortUrl, 1);
+        insert("shard-c", originalUrl, shortUrl, 1);
+
+        new ShardRebalancer(shards, shardResolver, 50).rebalance();
+
+        assertThat(count("shard-a")).isZero();
+        assertThat(count("shard-c")).isEqualTo(1);
+    }
+
+    @Test
+    void rebalance_indexEntryOnWrongShard_shouldMoveItToShardOfOriginalUrl() {
+        String originalUrl = findOriginalUrlOwnedBy("shard-b");
+        jdbc("shard-a").update("INSERT INTO original_url_index (original_url, short_url) VALUES (?, ?)", originalUrl, "LEGACY");
+
+        new ShardRebalancer(shards, shardResolver, 50).rebalance();
+
+        assertThat(jdbc("shard-a").queryForObject("SELECT COUNT(*) FROM original_url_index", Long.class)).isZero();
+        assertThat(jdbc("shard-b").queryForObject("SELECT short_url FROM original_url_index WHERE original_url = ?", String.class, originalUrl))
+                .isEqualTo("LEGACY");
+    }
+
+    private String findOriginalUrlOwnedBy(String shard) {
+        for (int i = 0; ; i++) {
+            String originalUrl = "https://example.com/" + i;
+            if (shardResolver.resolveOriginalUrl(originalUrl).equals(shard)) {
+                return originalUrl;
+            }
+        }
+    }
+
+    private void insert(String shard, String originalUrl, String shortUrl, int clickCount) {
+        jdbc(shard).update("INSERT INTO urls (original_url, short_url, created_at, expiration_date, click_count) VALUES (?, ?, ?, ?, ?)",
+                originalUrl, shortUrl, LocalDateTime.now(), LocalDateTime.now().plusMonths(3), clickCount);
+    }
+
+    private long count(String shard) {
+        return jdbc(shard).queryForObject("SELECT COUNT(*) FROM urls", Long.class);
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(shards.get(shard));
+    }
+}
@@ -0,0 +1,60 @@
+package com.urlshortener.datasource;
+
+import com.urlshortener.util.UrlUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardResolverTest {
+    private final ShardResolver shardResolver = new ShardResolver(List.of("shard-a", "shard-b", "shard-c"), 160);
+
+    @Test
+    void resolve_sameShortUrl_shouldAlwaysReturnSameShard() {
+        assertThat(shardResolver.resolve("ABC123")).isEqualTo(shardResolver.resolve("ABC123"));
+    }
+
+    @Test
+    void resolve_manyShortUrls_shouldSpreadAcrossAllShards() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30000; i++) {
+            counts.merge(shardResolver.resolve(UrlUtil.generateShortUrl("https://example.com/" + i)), 1, Integer::sum);
+        }
+
+        assertThat(counts).containsOnlyKeys("shard-a", "shard-b", "shard-c");
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(7000, 13000));
+    }
+
+    @Test
+    void resolve_shardAdded_shouldOnlyMoveKeysToNewShard() {
+        ShardResolver extended = new ShardResolver(List.of("shard-a", "shard-b", "shard-c", "shard-d"), 160);
+
+        for (int i = 0; i < 10000; i++) {
+            String shortUrl = UrlUtil.generateShortUrl("https://example.com/" + i);
+            String after = extended.resolve(shortUrl);
+            if (!after.equals(shardResolver.resolve(shortUrl))) {
+                assertThat(after).isEqualTo("shard-d");
+            }
+        }
+    }
+
+    @Test
+    void resolveOriginalUrl_shouldReturnShardOfGeneratedShortUrl() {
+        String originalUrl = "https://example.com/page";
+
+        assertThat(shardResolver.resolveOriginalUrl(originalUrl))
+                .isEqualTo(shardResolver.resolve(UrlUtil.generateShortUrl(originalUrl)));
+    }
+
+    @Test
+    void constructor_noShards_shouldThrowIllegalArgumentException() {
+        List<String> shards = List.of();
+
+        assertThatThrownBy(() -> new ShardResolver(shards, 160))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
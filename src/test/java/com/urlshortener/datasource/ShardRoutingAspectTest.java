@@ -0,0 +1,89 @@
+package com.urlshortener.datasource;
+
+import com.urlshortener.model.Url;
+import com.urlshortener.repository.UrlRepository;
+import com.urlshortener.util.UrlUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShardRoutingAspectTest {
+    private final ShardResolver shardResolver = new ShardResolver(List.of("shard-a", "shard-b", "shard-c"), 160);
+    private final List<String> routedShards = new ArrayList<>();
+
+    @Mock
+    private UrlRepository urlRepository;
+
+    private UrlRepository routedRepository;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(urlRepository);
+        proxyFactory.addAspect(new ShardRoutingAspect(shardResolver));
+        routedRepository = proxyFactory.getProxy();
+    }
+
+    @Test
+    void findMappingByShortUrl_shouldRouteToOwningShard() {
+        when(urlRepository.findMappingByShortUrl(anyString())).thenAnswer(invocation -> recordShard(Optional.empty()));
+
+        routedRepository.findMappingByShortUrl("ABC123");
+
+        assertThat(routedShards).containsExactly(shardResolver.resolve("ABC123"));
+    }
+
+    @Test
+    void findByOriginalUrl_shouldRouteToShardOfGeneratedShortUrl() {
+        when(urlRepository.findByOriginalUrl(anyString())).thenAnswer(invocation -> recordShard(Optional.empty()));
+
+        routedRepository.findByOriginalUrl("https://example.com");
+
+        assertThat(routedShards).containsExactly(shardResolver.resolve(UrlUtil.generateShortUrl("https://example.com")));
+    }
+
+    @Test
+    void save_shouldRouteByShortUrlOfEntity() {
+        Url url = new Url(null, "https://example.com", "ABC123", LocalDateTime.now(), LocalDateTime.now(), 0);
+        when(urlRepository.save(any(Url.class))).thenAnswer(invocation -> recordShard(invocation.getArgument(0)));
+
+        routedRepository.save(url);
+
+        assertThat(routedShards).containsExactly(shardResolver.resolve("ABC123"));
+    }
+
+    @Test
+    void deleteAll_withoutShardKey_shouldRunOnAllShards() {
+        doAnswer(invocation -> recordShard(null)).when(urlRepository).deleteAll();
+
+        routedRepository.deleteAll();
+
+        assertThat(routedShards).containsExactly("shard-a", "shard-b", "shard-c");
+    }
+
+    @Test
+    void count_withoutShardKey_shouldSumResultsOfAllShards() {
+        when(urlRepository.count()).thenAnswer(invocation -> recordShard(2L));
+
+        assertThat(routedRepository.count()).isEqualTo(6L);
+    }
+
+    private <T> T recordShard(T result) {
+        routedShards.add(ShardContext.current());
+        return result;
+    }
+}
@@ -0,0 +1,216 @@
+package com.urlshortener.datasource;
+
+import com.urlshortener.bulkload.BulkLoadCheckpoint;
+import com.urlshortener.bulkload.BulkLoadReport;
+import com.urlshortener.bulkload.BulkLoader;
+import com.urlshortener.bulkload.NdjsonLinkRecordReader;
+import com.urlshortener.cache.CacheTtlPolicy;
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.config.BulkLoadProperties;
+import com.urlshortener.config.ShardingDataSourceConfig;
+import com.urlshortener.config.UrlNormalizationProperties;
+import com.urlshortener.export.ExportFilter;
+import com.urlshortener.export.ExportFormat;
+import com.urlshortener.export.UrlExporter;
+import com.urlshortener.model.Url;
+import com.urlshortener.repository.UrlJdbcRepository;
+import com.urlshortener.repository.UrlRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the repositories through the real Spring proxies over two in-memory H2 shards, so the shard routing aspect
+ * is combined with the transaction advice the way it is in the application.
+ */
+class ShardRoutingContextTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, DataSourceAutoConfiguration.class,
+                    JdbcTemplateAutoConfiguration.class, HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class))
+            .withUserConfiguration(ShardingDataSourceConfig.class, RepositoryConfig.class)
+            .withPropertyValues(
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.jpa.hibernate.ddl-auto=none",
+                    "url-shortener.datasource.sharding.enabled=true",
+                    "url-shortener.datasource.sharding.shards[0].name=shard-a",
+                    "url-shortener.datasource.sharding.shards[0].url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                    "url-shortener.datasource.sharding.shards[1].name=shard-b",
+                    "url-shortener.datasource.sharding.shards[1].url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+
+    @Test
+    void save_shouldStoreEveryEntityOnItsOwningShardAndFindItThere() {
+        contextRunner.run(context -> {
+            createSchema(context);
+            UrlRepository urlRepository = context.getBean(UrlRepository.class);
+
+            urls().forEach(urlRepository::save);
+
+            assertThat(countRowsPerShard(context)).isEqualTo(expectedRowsPerShard(context));
+            assertThat(urlRepository.findMappingByShortUrl("CODE7")).get().extracting("originalUrl").isEqualTo("https://example.com/7");
+            assertThat(urlRepository.count()).isEqualTo(20);
+        });
+    }
+
+    @Test
+    void insertAllIfAbsent_shouldSplitRowsAcrossShards() {
+        contextRunner.run(context -> {
+            createSchema(context);
+
+            int inserted = context.getBean(UrlJdbcRepository.class).insertAllIfAbsent(urls());
+
+            assertThat(inserted).isEqualTo(20);
+            assertThat(countRowsPerShard(context)).isEqualTo(expectedRowsPerShard(context));
+        });
+    }
+
+    @Test
+    void bulkInsertIfAbsent_shouldCommitEveryPartitionOnItsOwnShard() {
+        contextRunner.run(context -> {
+            createSchema(context);
+
+            List<String> inserted = context.getBean(UrlJdbcRepository.class).bulkInsertIfAbsent(urls());
+
+            assertThat(inserted).hasSize(20);
+            assertThat(countRowsPerShard(context)).isEqualTo(expectedRowsPerShard(context));
+        });
+    }
+
+    @Test
+    void bulkLoad_shouldPlaceEveryLinkOnTheShardOfItsShortUrlAndIndexItsOriginalUrl(@TempDir Path directory) {
+        contextRunner.run(context -> {
+            createSchema(context);
+            BulkLoadProperties properties = new BulkLoadProperties();
+            properties.setBatchSize(7);
+            BulkLoader bulkLoader = new BulkLoader(context.getBean(UrlJdbcRepository.class), mock(UrlCache.class),
+                    mock(CacheTtlPolicy.class), new UrlNormalizationProperties(), properties, true);
+            String ndjson = urls().stream()
+                    .map(url -> "{\"code\":\"" + url.getShortUrl() + "\",\"url\":\"" + url.getOriginalUrl() + "\",\"expires\":\"2099-01-01T00:00:00Z\"}")
+                    .collect(Collectors.joining("\n"));
+
+            BulkLoadReport report = bulkLoader.load(new NdjsonLinkRecordReader(new BufferedReader(new StringReader(ndjson))),
+                    new BulkLoadCheckpoint(directory.resolve("links.checkpoint")), new StringWriter(), false);
+
+            assertThat(report.getLoaded()).isEqualTo(20);
+            assertThat(countRowsPerShard(context)).isEqualTo(expectedRowsPerShard(context));
+            UrlJdbcRepository urlJdbcRepository = context.getBean(UrlJdbcRepository.class);
+            ShardResolver shardResolver = context.getBean(ShardResolver.class);
+            Url misplaced = urls().stream()
+                    .filter(url -> !shardResolver.resolve(url.getShortUrl()).equals(shardResolver.resolveOriginalUrl(url.getOriginalUrl())))
+                    .findFirst()
+                    .orElseThrow();
+            assertThat(context.getBean(UrlRepository.class).findByOriginalUrl(misplaced.getOriginalUrl())).isEmpty();
+            assertThat(urlJdbcRepository.findIndexedShortUrl(misplaced.getOriginalUrl())).contains(misplaced.getShortUrl());
+        });
+    }
+
+    @Test
+    void export_shouldStreamTheRowsOfEveryShardInATransactionOfItsOwn() {
+        contextRunner.run(context -> {
+            createSchema(context);
+            context.getBean(UrlJdbcRepository.class).insertAllIfAbsent(urls());
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            long exported = new UrlExporter(context.getBean(UrlJdbcRepository.class), 3).export(ExportFilter.ACTIVE, ExportFormat.NDJSON, output);
+
+            assertThat(exported).isEqualTo(20);
+            assertThat(output.toString(StandardCharsets.UTF_8).lines())
+                    .hasSize(20)
+                    .anySatisfy(line -> assertThat(line).contains("\"shortUrl\":\"CODE0\""))
+                    .anySatisfy(line -> assertThat(line).contains("\"shortUrl\":\"CODE19\""));
+        });
+    }
+
+    /**
+     * Creates the urls table and the original URL index on every shard.
+     *
+     * @param context the application context
+     */
+    static void createSchema(ApplicationContext context) {
+        for (DataSource shard : context.getBean(ShardRoutingDataSource.class).getShards().values()) {
+            new JdbcTemplate(shard).execute("CREATE TABLE urls (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "original_url VARCHAR(2048) NOT NULL UNIQUE, short_url VARCHAR(255) NOT NULL UNIQUE, "
+                    + "created_at TIMESTAMP, expiration_date TIMESTAMP, click_count INT NOT NULL)");
+            new JdbcTemplate(shard).execute("CREATE TABLE original_url_index (original_url VARCHAR(2048) PRIMARY KEY, "
+                    + "short_url VARCHAR(255) NOT NULL)");
+        }
+    }
+
+    /**
+     * Builds 20 URL entities whose short URLs are spread over both shards.
+     *
+     * @return the URL entities
+     */
+    static List<Url> urls() {
+        return IntStream.range(0, 20)
+                .mapToObj(i -> new Url(null, "https://example.com/" + i, "CODE" + i, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 0))
+                .toList();
+    }
+
+    /**
+     * Counts the rows stored on each shard, read directly from the shard data sources.
+     *
+     * @param context the application context
+     * @return the number of rows by shard name
+     */
+    static Map<String, Integer> countRowsPerShard(ApplicationContext context) {
+        Map<String, Integer> rows = new HashMap<>();
+        context.getBean(ShardRoutingDataSource.class).getShards().forEach((name, shard) ->
+                rows.put(name, new JdbcTemplate(shard).queryForObject("SELECT COUNT(*) FROM urls", Integer.class)));
+        return rows;
+    }
+
+    /**
+     * Counts the rows of {@link #urls()} each shard owns.
+     *
+     * @param context the application context
+     * @return the number of owned rows by shard name
+     */
+    static Map<String, Integer> expectedRowsPerShard(ApplicationContext context) {
+        ShardResolver shardResolver = context.getBean(ShardResolver.class);
+        Map<String, Integer> rows = new HashMap<>(Map.of("shard-a", 0, "shard-b", 0));
+        urls().forEach(url -> rows.merge(shardResolver.resolve(url.getShortUrl()), 1, Integer::sum));
+        return rows;
+    }
+
+    /**
+     * Registers the JPA repository and the JDBC repository the way component scanning does in the application.
+     */
+    @Configuration
+    @EntityScan(basePackageClasses = Url.class)
+    @EnableJpaRepositories(basePackageClasses = UrlRepository.class)
+    @Import(UrlJdbcRepository.class)
+    static class RepositoryConfig {
+    }
+}
@@ -0,0 +1,75 @@
+package com.urlshortener.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.model.Url;
+import com.urlshortener.repository.UrlJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UrlExporterTest {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+
+    @Mock
+    private UrlJdbcRepository urlJdbcRepository;
+
+    private UrlExporter urlExporter;
+
+    @BeforeEach
+    void setUp() {
+        urlExporter = new UrlExporter(urlJdbcRepository, 500);
+        List<Url> urls = List.of(
+                new Url(null, "https://example.com/a?q=1,2", "ABC123", CREATED_AT, null, 7),
+                new Url(null, "https://example.com/\"quoted\"\n", "DEF456", CREATED_AT, CREATED_AT.plusDays(1), 0));
+        when(urlJdbcRepository.streamAll(eq(ExportFilter.ACTIVE), eq(500), any())).thenAnswer(invocation -> {
+            Consumer<Url> consumer = invocation.getArgument(2);
+            urls.forEach(consumer);
+            return (long) urls.size();
+        });
+    }
+
+    @Test
+    void export_ndjson_shouldWriteOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = urlExporter.export(ExportFilter.ACTIVE, ExportFormat.NDJSON, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(exported).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode first = new ObjectMapper().readTree(lines.get(0));
+        assertThat(first.get("shortUrl").asText()).isEqualTo("ABC123");
+        assertThat(first.get("originalUrl").asText()).isEqualTo("https://example.com/a?q=1,2");
+        assertThat(first.get("createdAt").asText()).isEqualTo("2025-01-02T03:04:05");
+        assertThat(first.get("expirationDate").isNull()).isTrue();
+        assertThat(first.get("clickCount").asInt()).isEqualTo(7);
+        assertThat(new ObjectMapper().readTree(lines.get(1)).get("originalUrl").asText()).isEqualTo("https://example.com/\"quoted\"\n");
+    }
+
+    @Test
+    void export_csv_shouldWriteHeaderAndQuoteFields() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        urlExporter.export(ExportFilter.ACTIVE, ExportFormat.CSV, output);
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "short_url,original_url,created_at,expiration_date,click_count\r\n"
+                        + "ABC123,\"https://example.com/a?q=1,2\",2025-01-02T03:04:05,,7\r\n"
+                        + "DEF456,\"https://example.com/\"\"quoted\"\"\n\",2025-01-02T03:04:05,2025-01-03T03:04:05,0\r\n");
+    }
+}
@@ -0,0 +1,131 @@
+package com.urlshortener.profiling;
+
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.repository.UrlRepository;
+import com.urlshortener.scheduling.CodeRange;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.ObjIntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OperationTimingAspectTest {
+    private static final long REDIS_MILLIS = 40;
+    private static final long DATABASE_MILLIS = 60;
+
+    @Mock
+    private UrlCache urlCache;
+
+    @Mock
+    private UrlRepository urlRepository;
+
+    private UrlCache timedUrlCache;
+    private UrlRepository timedUrlRepository;
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() {
+        timedUrlCache = timed(urlCache);
+        timedUrlRepository = timed(urlRepository);
+        recording = new Recording();
+        recording.enable(ScheduledJobEvent.NAME);
+        recording.enable(RedirectEvent.NAME);
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void time_repositoryCallsNestedInCacheCall_shouldCountOnlyForTheDatabase() {
+        when(urlRepository.incrementClickCount(anyString(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(DATABASE_MILLIS);
+            return 1;
+        });
+        when(urlCache.drainClickCounts(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(REDIS_MILLIS);
+            ObjIntConsumer<String> consumer = invocation.getArgument(1);
+            consumer.accept("ABC123", 2);
+            consumer.accept("DEF456", 1);
+            return 2;
+        });
+        ScheduledJobEvent event = new ScheduledJobEvent("flush-click-counts", new CodeRange(null, null));
+
+        try (OperationProfile profile = OperationProfile.start(event)) {
+            timedUrlCache.drainClickCounts(new CodeRange(null, null), timedUrlRepository::incrementClickCount);
+        }
+
+        assertThat(event.redisCalls).isEqualTo(1);
+        assertThat(event.databaseCalls).isEqualTo(2);
+        assertThat(Duration.ofNanos(event.databaseTime)).isBetween(Duration.ofMillis(2 * DATABASE_MILLIS), Duration.ofMillis(3 * DATABASE_MILLIS));
+        assertThat(Duration.ofNanos(event.redisTime)).isBetween(Duration.ofMillis(REDIS_MILLIS), Duration.ofMillis(REDIS_MILLIS + DATABASE_MILLIS));
+        assertThat(OperationProfile.current()).isNull();
+    }
+
+    @Test
+    void time_operationNestedInOperation_shouldTimeCallsForTheInnerOneAndRestoreTheOuterOne() {
+        when(urlCache.getOriginalUrl("ABC123")).thenReturn(null);
+        when(urlRepository.findMappingByShortUrl("ABC123"))
+                .thenReturn(Optional.of(new UrlMapping("ABC123", "https://example.com", LocalDateTime.now().plusDays(1))));
+        ScheduledJobEvent job = new ScheduledJobEvent("flush-click-counts", new CodeRange(null, null));
+        RedirectEvent redirect = new RedirectEvent();
+
+        try (OperationProfile jobProfile = OperationProfile.start(job)) {
+            try (OperationProfile redirectProfile = OperationProfile.start(redirect)) {
+                timedUrlCache.getOriginalUrl("ABC123");
+                timedUrlRepository.findMappingByShortUrl("ABC123");
+            }
+            assertThat(OperationProfile.current()).isSameAs(jobProfile);
+            timedUrlCache.getOriginalUrl("ABC123");
+        }
+
+        assertThat(redirect.redisCalls).isEqualTo(1);
+        assertThat(redirect.databaseCalls).isEqualTo(1);
+        assertThat(job.redisCalls).isEqualTo(1);
+        assertThat(job.databaseCalls).isZero();
+    }
+
+    @Test
+    void time_eventNotRecorded_shouldNotTimeCalls() {
+        recording.close();
+        RedirectEvent event = new RedirectEvent();
+
+        try (OperationProfile profile = OperationProfile.start(event)) {
+            timedUrlCache.getOriginalUrl("ABC123");
+            assertThat(OperationProfile.current()).isNull();
+        }
+
+        assertThat(event.redisCalls).isZero();
+    }
+
+    /**
+     * Wraps a target in a proxy applying the timing aspect.
+     *
+     * @param target the cache or repository
+     * @param <T>    the type of the target
+     * @return the proxy
+     */
+    private static <T> T timed(T target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new OperationTimingAspect());
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,167 @@
+package com.urlshortener.profiling;
+
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.repository.UrlRepository;
+import com.urlshortener.scheduling.CodeRange;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ObjIntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecordingSummaryTest {
+    private static final long DATABASE_MILLIS = 50;
+
+    @Mock
+    private UrlCache urlCache;
+
+    @Mock
+    private UrlRepository urlRepository;
+
+    @TempDir
+    private Path directory;
+
+    private UrlCache timedUrlCache;
+    private UrlRepository timedUrlRepository;
+
+    @BeforeEach
+    void setUp() {
+        timedUrlCache = timed(urlCache);
+        timedUrlRepository = timed(urlRepository);
+    }
+
+    @Test
+    void read_redirects_shouldSummarizeLatencyPerTierWithSubDurations() throws Exception {
+        when(urlCache.getOriginalUrl("CACHED")).thenReturn("https://example.com");
+        when(urlRepository.findMappingByShortUrl("STORED")).thenAnswer(invocation -> {
+            Thread.sleep(DATABASE_MILLIS);
+            return Optional.of(new UrlMapping("STORED", "https://example.com", LocalDateTime.now().plusDays(1)));
+        });
+
+        RecordingSummary summary = record(() -> {
+            for (int i = 0; i < 3; i++) {
+                redirect("CACHED");
+            }
+            redirect("STORED");
+        });
+
+        List<RecordingSummary.GroupSummary> groups = summary.groups();
+        assertThat(groups).extracting(RecordingSummary.GroupSummary::group, RecordingSummary.GroupSummary::count)
+                .containsExactly(tuple("Redirect Lookup / CACHE", 3),
+                        tuple("Redirect Lookup / DATABASE", 1));
+        assertThat(groups.get(0).mean().databaseMillis()).isZero();
+        assertThat(groups.get(1).mean().databaseMillis()).isGreaterThanOrEqualTo(DATABASE_MILLIS);
+        assertThat(groups.get(1).tail().databaseMillis()).isGreaterThanOrEqualTo(DATABASE_MILLIS);
+        assertThat(groups.get(1).p99Millis()).isGreaterThanOrEqualTo(DATABASE_MILLIS);
+    }
+
+    @Test
+    void read_databaseCallsNestedInRedisCall_shouldCountOnlyForTheDatabase() throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(DATABASE_MILLIS);
+            return 1;
+        }).when(urlRepository).incrementClickCount(anyString(), anyInt());
+        when(urlCache.drainClickCounts(any(), any())).thenAnswer(invocation -> {
+            ObjIntConsumer<String> consumer = invocation.getArgument(1);
+            consumer.accept("ABC123", 2);
+            consumer.accept("DEF456", 1);
+            return 2;
+        });
+
+        RecordingSummary summary = record(() -> {
+            ScheduledJobEvent event = new ScheduledJobEvent("flush-click-counts", new CodeRange(null, "8"));
+            try (OperationProfile profile = OperationProfile.start(event)) {
+                event.setItems(timedUrlCache.drainClickCounts(new CodeRange(null, "8"), timedUrlRepository::incrementClickCount));
+            }
+        });
+
+        RecordingSummary.GroupSummary job = summary.groups().getFirst();
+        assertThat(job.group()).isEqualTo("Scheduled Job / flush-click-counts");
+        assertThat(job.mean().databaseMillis()).isGreaterThanOrEqualTo(2 * DATABASE_MILLIS);
+        assertThat(job.mean().redisMillis()).isLessThan(2 * DATABASE_MILLIS);
+    }
+
+    /**
+     * Runs the given operations while recording the events of the URL shortener and summarizes the recording.
+     *
+     * @param operations the operations
+     * @return the summary of the recording
+     * @throws Exception if recording fails
+     */
+    private RecordingSummary record(ThrowingRunnable operations) throws Exception {
+        Path file = directory.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : List.of(ShortenEvent.NAME, RedirectEvent.NAME, ScheduledJobEvent.NAME)) {
+                recording.enable(event).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            operations.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingSummary.read(file);
+    }
+
+    /**
+     * Looks up a short URL the way the service does: in the cache, and in the database if not cached.
+     *
+     * @param shortUrl the short URL
+     */
+    private void redirect(String shortUrl) {
+        RedirectEvent event = new RedirectEvent();
+        event.setShortCode(shortUrl);
+        try (OperationProfile profile = OperationProfile.start(event)) {
+            event.setTier(ServingTier.CACHE);
+            if (timedUrlCache.getOriginalUrl(shortUrl) == null) {
+                event.setTier(ServingTier.DATABASE);
+                timedUrlRepository.findMappingByShortUrl(shortUrl);
+            }
+        }
+    }
+
+    /**
+     * Wraps a target in the operation timing aspect.
+     *
+     * @param target the target
+     * @param <T>    the type of the target
+     * @return the timed proxy
+     */
+    private static <T> T timed(T target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new OperationTimingAspect());
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * Operations that may throw checked exceptions.
+     */
+    private interface ThrowingRunnable {
+
+        /**
+         * Runs the operations.
+         *
+         * @throws Exception if an operation fails
+         */
+        void run() throws Exception;
+    }
+}
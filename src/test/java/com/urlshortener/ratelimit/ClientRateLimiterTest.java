@@ -0,0 +1,111 @@
+package com.urlshortener.ratelimit;
+
+import com.urlshortener.EmbeddedRedis;
+import com.urlshortener.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClientRateLimiterTest {
+    private static EmbeddedRedis redis;
+    private final Clock clock = mock(Clock.class);
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private long now = 1_000_000;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new EmbeddedRedis();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        when(clock.millis()).thenAnswer(invocation -> now);
+        properties.setStripes(4);
+    }
+
+    @Test
+    void tryAcquire_bucketEmpty_shouldReturnTimeUntilNextToken() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(redis.getTemplate(), properties, meterRegistry, clock);
+        RateLimitClient client = client(2, 1);
+
+        assertThat(rateLimiter.tryAcquire(client)).isZero();
+        assertThat(rateLimiter.tryAcquire(client)).isZero();
+        assertThat(rateLimiter.tryAcquire(client)).isEqualTo(Duration.ofSeconds(1));
+        now += 400;
+        assertThat(rateLimiter.tryAcquire(client)).isEqualTo(Duration.ofMillis(600));
+
+        assertThat(rateLimiter.getBucket("ip:192.0.2.1")).hasValueSatisfying(bucket -> assertThat(bucket.unsynced()).isEqualTo(2));
+        assertThat(meterRegistry.get("url.ratelimit.requests").tag("client", "ip").tag("result", "rejected").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void reconcile_shouldShareTokensOfAClientAcrossInstances() {
+        ClientRateLimiter first = new ClientRateLimiter(redis.getTemplate(), properties, new SimpleMeterRegistry(), clock);
+        ClientRateLimiter second = new ClientRateLimiter(redis.getTemplate(), properties, new SimpleMeterRegistry(), clock);
+        RateLimitClient client = client(3, 0.001);
+
+        first.tryAcquire(client);
+        first.tryAcquire(client);
+        first.reconcile();
+        second.tryAcquire(client);
+        second.reconcile();
+
+        assertThat(second.tryAcquire(client)).isPositive();
+        first.reconcile();
+        assertThat(first.tryAcquire(client)).isPositive();
+        assertThat(first.getEmptiestBuckets(10)).singleElement().satisfies(bucket -> assertThat(bucket.tokens()).isZero());
+        assertThat(redis.getTemplate().opsForHash().get(ClientRateLimiter.KEY_PREFIX + "ip:192.0.2.1", "tokens")).isEqualTo("0");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_redisUnavailable_shouldKeepUnsyncedTokensForTheNextReconciliation() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new RedisConnectionFailureException("Redis is down"));
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(redisTemplate, properties, new SimpleMeterRegistry(), clock);
+        RateLimitClient client = client(3, 1);
+
+        rateLimiter.tryAcquire(client);
+        rateLimiter.reconcile();
+
+        assertThat(rateLimiter.getBucket("ip:192.0.2.1")).hasValueSatisfying(bucket -> {
+            assertThat(bucket.tokens()).isEqualTo(2);
+            assertThat(bucket.unsynced()).isEqualTo(1);
+        });
+    }
+
+    /**
+     * Builds a client of an IP address with the given limit.
+     *
+     * @param capacity        the capacity of its bucket
+     * @param refillPerSecond the refill rate of its bucket
+     * @return the client
+     */
+    private RateLimitClient client(int capacity, double refillPerSecond) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setRefillPerSecond(refillPerSecond);
+        return new RateLimitClient(RateLimitClient.IP, "192.0.2.1", limit);
+    }
+}
@@ -0,0 +1,176 @@
+package com.urlshortener.repository;
+
+import com.urlshortener.export.ExportFilter;
+import com.urlshortener.model.Url;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.scheduling.CodeRange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the JDBC repository against an in-memory H2 database, which uses the portable insert statements.
+ */
+class UrlJdbcRepositoryTest {
+    private JdbcTemplate jdbcTemplate;
+    private UrlJdbcRepository urlJdbcRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE urls (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "original_url VARCHAR(2048) NOT NULL UNIQUE, short_url VARCHAR(255) NOT NULL UNIQUE, "
+                + "created_at TIMESTAMP, expiration_date TIMESTAMP, click_count INT NOT NULL)");
+        urlJdbcRepository = new UrlJdbcRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @Test
+    void insertIfAbsent_newUrl_shouldInsertAndReturnMapping() {
+        Url url = url("ABC123", "https://example.com");
+
+        Optional<UrlMapping> mapping = urlJdbcRepository.insertIfAbsent(url);
+
+        assertThat(mapping).get().extracting(UrlMapping::shortUrl).isEqualTo("ABC123");
+        assertThat(countUrls()).isEqualTo(1);
+    }
+
+    @Test
+    void insertIfAbsent_existingUrl_shouldReturnStoredMappingWithoutInserting() {
+        LocalDateTime storedExpiration = LocalDateTime.now().plusDays(1).withNano(0);
+        jdbcTemplate.update("INSERT INTO urls (original_url, short_url, expiration_date, click_count) VALUES (?, ?, ?, 3)",
+                "https://example.com", "ABC123", storedExpiration);
+
+        Optional<UrlMapping> mapping = urlJdbcRepository.insertIfAbsent(url("ABC123", "https://example.com"));
+
+        assertThat(mapping).contains(new UrlMapping("ABC123", "https://example.com", storedExpiration));
+        assertThat(countUrls()).isEqualTo(1);
+    }
+
+    @Test
+    void insertIfAbsent_shortUrlTakenByAnotherUrl_shouldReturnEmpty() {
+        urlJdbcRepository.insertIfAbsent(url("ABC123", "https://example.com"));
+
+        assertThat(urlJdbcRepository.insertIfAbsent(url("ABC123", "https://other.com"))).isEmpty();
+    }
+
+    @Test
+    void insertIfAbsent_sameUrlConcurrently_shouldNeverFail() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<UrlMapping>>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(() -> urlJdbcRepository.insertIfAbsent(url("ABC123", "https://viral.com"))));
+            }
+            for (Future<Optional<UrlMapping>> result : results) {
+                assertThat(result.get()).get().extracting(UrlMapping::shortUrl).isEqualTo("ABC123");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(countUrls()).isEqualTo(1);
+    }
+
+    @Test
+    void insertAllIfAbsent_someUrlsStored_shouldInsertOnlyMissingOnes() {
+        urlJdbcRepository.insertIfAbsent(url("SHORT1", "https://example.com/1"));
+
+        int inserted = urlJdbcRepository.insertAllIfAbsent(List.of(
+                url("SHORT1", "https://example.com/1"),
+                url("SHORT2", "https://example.com/2"),
+                url("SHORT3", "https://example.com/3")));
+
+        assertThat(inserted).isEqualTo(2);
+        assertThat(countUrls()).isEqualTo(3);
+    }
+
+    @Test
+    void bulkInsertIfAbsent_shortOrOriginalUrlStored_shouldReturnShortUrlsOfInsertedUrls() {
+        urlJdbcRepository.insertIfAbsent(url("SHORT1", "https://example.com/1"));
+        urlJdbcRepository.insertIfAbsent(url("SHORT9", "https://example.com/2"));
+
+        List<String> inserted = urlJdbcRepository.bulkInsertIfAbsent(List.of(
+                url("SHORT1", "https://example.com/1"),
+                url("SHORT2", "https://example.com/2"),
+                url("SHORT3", "https://example.com/3")));
+
+        assertThat(inserted).containsExactly("SHORT3");
+        assertThat(countUrls()).isEqualTo(3);
+    }
+
+    @Test
+    void deleteExpiredInRange_shouldDeleteOnlyExpiredUrlsOfTheRangeInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (String shortUrl : List.of("00AAAA", "11AAAA", "12AAAA", "13AAAA", "F0AAAA")) {
+            jdbcTemplate.update("INSERT INTO urls (original_url, short_url, expiration_date, click_count) VALUES (?, ?, ?, 0)",
+                    "https://example.com/" + shortUrl, shortUrl, now.minusDays(1));
+        }
+        jdbcTemplate.update("INSERT INTO urls (original_url, short_url, expiration_date, click_count) VALUES (?, ?, ?, 0)",
+                "https://example.com/live", "14AAAA", now.plusDays(1));
+
+        int deleted = urlJdbcRepository.deleteExpiredInRange(now, new CodeRange("10", "20"), 2);
+
+        assertThat(deleted).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT short_url FROM urls ORDER BY short_url", String.class))
+                .containsExactly("00AAAA", "14AAAA", "F0AAAA");
+    }
+
+    @Test
+    void streamAll_shouldStreamActiveUrlsMatchingTheFilter() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        insert("OLD111", now.minusDays(10), now.plusDays(1), 4);
+        insert("NEW111", now.minusDays(1), now.plusDays(1), 2);
+        insert("NEW222", now.minusDays(1), now.plusDays(30), 0);
+        insert("GONE11", now.minusDays(1), now.minusHours(1), 9);
+        List<Url> streamed = new ArrayList<>();
+
+        long rows = urlJdbcRepository.streamAll(new ExportFilter(now.minusDays(2), null, null, now.plusDays(7), false), 2, streamed::add);
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(streamed).singleElement().satisfies(url -> {
+            assertThat(url.getShortUrl()).isEqualTo("NEW111");
+            assertThat(url.getOriginalUrl()).isEqualTo("https://example.com/NEW111");
+            assertThat(url.getCreatedAt()).isEqualTo(now.minusDays(1));
+            assertThat(url.getClickCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void streamAll_includeExpired_shouldStreamAllUrls() {
+        LocalDateTime now = LocalDateTime.now();
+        insert("LIVE11", now, now.plusDays(1), 0);
+        insert("GONE11", now, now.minusDays(1), 0);
+        List<String> streamed = new ArrayList<>();
+
+        long rows = urlJdbcRepository.streamAll(new ExportFilter(null, null, null, null, true), 1, url -> streamed.add(url.getShortUrl()));
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(streamed).containsExactlyInAnyOrder("LIVE11", "GONE11");
+    }
+
+    private void insert(String shortUrl, LocalDateTime createdAt, LocalDateTime expirationDate, int clickCount) {
+        jdbcTemplate.update("INSERT INTO urls (original_url, short_url, created_at, expiration_date, click_count) VALUES (?, ?, ?, ?, ?)",
+                "https://example.com/" + shortUrl, shortUrl, createdAt, expirationDate, clickCount);
+    }
+
+    private Url url(String shortUrl, String originalUrl) {
+        return new Url(null, originalUrl, shortUrl, LocalDateTime.now(), LocalDateTime.now().plusMonths(3), 0);
+    }
+
+    private long countUrls() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM urls", Long.class);
+    }
+}
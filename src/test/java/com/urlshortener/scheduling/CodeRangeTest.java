@@ -0,0 +1,42 @@
+package com.urlshortener.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodeRangeTest {
+
+    @Test
+    void partition_single_shouldCoverEverything() {
+        assertThat(CodeRange.partition(1)).containsExactly(new CodeRange(null, null));
+    }
+
+    @Test
+    void partition_sixteen_shouldSplitByFirstHexCharacter() {
+        List<CodeRange> ranges = CodeRange.partition(16);
+
+        assertThat(ranges).hasSize(16);
+        assertThat(ranges.get(0)).isEqualTo(new CodeRange(null, "10"));
+        assertThat(ranges.get(10)).isEqualTo(new CodeRange("A0", "B0"));
+        assertThat(ranges.get(15)).isEqualTo(new CodeRange("F0", null));
+    }
+
+    @Test
+    void partition_anyCount_shouldPlaceEveryShortUrlInExactlyOneRange() {
+        for (int count : new int[]{3, 7, 100, CodeRange.MAX_PARTITIONS}) {
+            List<CodeRange> ranges = CodeRange.partition(count);
+            for (String shortUrl : List.of("000000", "0A1B2C", "7FFFFF", "A1B2C3", "FFFFFF", "custom", "")) {
+                assertThat(ranges.stream().filter(range -> range.contains(shortUrl))).hasSize(1);
+            }
+        }
+    }
+
+    @Test
+    void partition_invalidCount_shouldThrowException() {
+        assertThatThrownBy(() -> CodeRange.partition(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CodeRange.partition(CodeRange.MAX_PARTITIONS + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
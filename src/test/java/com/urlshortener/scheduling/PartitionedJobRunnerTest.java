@@ -0,0 +1,89 @@
+package com.urlshortener.scheduling;
+
+import com.urlshortener.config.SchedulerProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionedJobRunnerTest {
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(125_000), ZoneOffset.UTC);
+    private final SchedulerProperties.Job settings = new SchedulerProperties.Job(60_000, 4);
+
+    @Test
+    void run_allLeasesFree_shouldProcessEveryRangeWithCycleLeases() {
+        List<String> leases = new ArrayList<>();
+        List<CodeRange> processed = new ArrayList<>();
+        PartitionedJobRunner runner = new PartitionedJobRunner((lease, timeToLive) -> {
+            assertThat(timeToLive).isEqualTo(Duration.ofMinutes(1));
+            return leases.add(lease);
+        }, clock);
+
+        int count = runner.run("job", settings, processed::add);
+
+        assertThat(count).isEqualTo(4);
+        assertThat(processed).containsExactlyInAnyOrderElementsOf(CodeRange.partition(4));
+        assertThat(leases).containsExactlyInAnyOrder("job:2:0", "job:2:1", "job:2:2", "job:2:3");
+    }
+
+    @Test
+    void run_leasesHeldElsewhere_shouldSkipTheirRanges() {
+        List<CodeRange> processed = new ArrayList<>();
+        PartitionedJobRunner runner = new PartitionedJobRunner((lease, timeToLive) -> lease.endsWith(":1"), clock);
+
+        int count = runner.run("job", settings, processed::add);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(processed).containsExactly(CodeRange.partition(4).get(1));
+    }
+
+    @Test
+    void run_twoInstancesSharingCoordinator_shouldProcessEachRangeOnce() {
+        Set<String> held = new HashSet<>();
+        JobCoordinator coordinator = (lease, timeToLive) -> held.add(lease);
+        List<CodeRange> processed = new ArrayList<>();
+
+        int first = new PartitionedJobRunner(coordinator, clock).run("job", settings, processed::add);
+        int second = new PartitionedJobRunner(coordinator, clock).run("job", settings, processed::add);
+
+        assertThat(first + second).isEqualTo(4);
+        assertThat(processed).doesNotHaveDuplicates().hasSize(4);
+    }
+
+    @Test
+    void run_failingRange_shouldContinueWithOtherRanges() {
+        CodeRange failing = CodeRange.partition(4).get(2);
+        List<CodeRange> processed = new ArrayList<>();
+        PartitionedJobRunner runner = new PartitionedJobRunner((lease, timeToLive) -> true, clock);
+
+        int count = runner.run("job", settings, range -> {
+            if (range.equals(failing)) {
+                throw new IllegalStateException("database unavailable");
+            }
+            processed.add(range);
+        });
+
+        assertThat(count).isEqualTo(3);
+        assertThat(processed).hasSize(3).doesNotContain(failing);
+    }
+
+    @Test
+    void cycleAlignedTrigger_shouldFireAtStartupAndThenAtCycleStarts() {
+        CycleAlignedTrigger trigger = new CycleAlignedTrigger(60_000);
+        SimpleTriggerContext context = new SimpleTriggerContext(clock);
+
+        assertThat(trigger.nextExecution(context)).isEqualTo(clock.instant());
+
+        context.update(clock.instant(), clock.instant(), clock.instant());
+        assertThat(trigger.nextExecution(context)).isEqualTo(Instant.ofEpochMilli(180_000));
+    }
+}
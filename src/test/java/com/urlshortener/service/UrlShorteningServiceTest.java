@@ -1,23 +1,39 @@
 package com.urlshortener.service;
 
-import com.urlshortener.dto.UrlShortenedRequestDto;
-import com.urlshortener.dto.UrlShortenedResponseDto;
+import com.urlshortener.cache.CacheMetrics;
+import com.urlshortener.cache.CacheTtlPolicy;
+import com.urlshortener.cache.UrlCache;
+import com.urlshortener.config.CacheProperties;
+import com.urlshortener.config.ShardingProperties;
+import com.urlshortener.config.UrlNormalizationProperties;
+import com.urlshortener.dto.*;
 import com.urlshortener.exception.UrlExpiredException;
+import com.urlshortener.exception.UrlGenerationException;
 import com.urlshortener.exception.UrlNotFoundException;
 import com.urlshortener.model.Url;
+import com.urlshortener.model.UrlMapping;
+import com.urlshortener.repository.UrlJdbcRepository;
 import com.urlshortener.repository.UrlRepository;
-import org.junit.jupiter.api.BeforeEach;
+import com.urlshortener.util.UrlUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.beans.factory.ObjectProvider;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -29,84 +45,218 @@ class UrlShorteningServiceTest {
     private UrlRepository urlRepository;
 
     @Mock
-    private RedisTemplate<String, String> redisTemplate;
+    private UrlJdbcRepository urlJdbcRepository;
 
     @Mock
-    private ValueOperations<String, String> valueOperations;
+    private UrlCache urlCache;
+
+    @Spy
+    private UrlNormalizationProperties normalizationProperties = new UrlNormalizationProperties();
+
+    @Mock
+    private ObjectProvider<WriteBehindUrlWriter> writeBehindUrlWriterProvider;
+
+    @Mock
+    private WriteBehindUrlWriter writeBehindUrlWriter;
+
+    @Spy
+    private CacheTtlPolicy cacheTtlPolicy = new CacheTtlPolicy(new CacheProperties(), new CacheMetrics(new SimpleMeterRegistry()));
+
+    @Spy
+    private ShardingProperties shardingProperties = new ShardingProperties();
 
     @InjectMocks
     private UrlShorteningService urlShorteningService;
 
-    @BeforeEach
-    void setUp() {
-        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-    }
-
     UrlShortenedRequestDto requestDto = new UrlShortenedRequestDto();
 
     @Test
     void shortenUrl_originalUrlIsNotCachedOrInDatabase_shouldReturnShortenedUrl() {
         requestDto.setOriginalUrl("https://google.com");
 
-        when(valueOperations.get(anyString())).thenReturn(null);
-        when(urlRepository.findByOriginalUrl(anyString())).thenReturn(Optional.empty());
-        when(urlRepository.save(any(Url.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(urlJdbcRepository.insertIfAbsent(any(Url.class))).thenAnswer(invocation -> Optional.of(toMapping(invocation.getArgument(0))));
 
         UrlShortenedResponseDto responseDto = urlShorteningService.shortenUrl(requestDto);
 
         assertThat(responseDto).isNotNull();
         assertThat(responseDto.getShortUrl()).isInstanceOf(String.class);
         assertThat(responseDto.getShortUrl()).hasSize(6);
-        verify(valueOperations, times(2)).set(anyString(), anyString(), any(Duration.class));
+        verify(urlCache).putShortUrl(eq("https://google.com"), eq(responseDto.getShortUrl()), any(Duration.class));
+        verify(urlCache).putOriginalUrl(eq(responseDto.getShortUrl()), eq("https://google.com"), any(Duration.class));
+        verifyNoInteractions(urlRepository);
+    }
+
+    @Test
+    void shortenUrl_writeBehindEnabled_shouldJournalInsteadOfSaving() {
+        requestDto.setOriginalUrl("https://google.com");
+
+        when(writeBehindUrlWriterProvider.getIfAvailable()).thenReturn(writeBehindUrlWriter);
+        when(urlRepository.findByOriginalUrl(anyString())).thenReturn(Optional.empty());
+        when(writeBehindUrlWriter.submit(any(Url.class))).thenReturn(true);
+
+        UrlShortenedResponseDto responseDto = urlShorteningService.shortenUrl(requestDto);
+
+        assertThat(responseDto.getShortUrl()).hasSize(6);
+        verify(writeBehindUrlWriter).submit(any(Url.class));
+        verify(urlRepository, never()).save(any(Url.class));
+        verify(urlCache).putShortUrl("https://google.com", responseDto.getShortUrl(), Duration.ofHours(1));
+        verify(urlCache).putOriginalUrl(responseDto.getShortUrl(), "https://google.com", Duration.ofHours(1));
+    }
+
+    @Test
+    void shortenUrl_writeBehindShortUrlStoredForAnotherUrl_shouldThrowUrlGenerationException() {
+        requestDto.setOriginalUrl("https://google.com");
+        String shortUrl = UrlUtil.generateShortUrl("https://google.com");
+
+        when(writeBehindUrlWriterProvider.getIfAvailable()).thenReturn(writeBehindUrlWriter);
+        when(urlRepository.findByOriginalUrl(anyString())).thenReturn(Optional.empty());
+        when(urlRepository.findMappingByShortUrl(shortUrl))
+                .thenReturn(Optional.of(new UrlMapping(shortUrl, "https://example.com", LocalDateTime.now().plusDays(1))));
+
+        assertThatThrownBy(() -> urlShorteningService.shortenUrl(requestDto))
+                .isInstanceOf(UrlGenerationException.class);
+        verify(writeBehindUrlWriter, never()).submit(any(Url.class));
+        verify(urlCache, never()).putOriginalUrl(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void shortenUrl_writeBehindShortUrlJournaledForAnotherUrl_shouldThrowUrlGenerationException() {
+        requestDto.setOriginalUrl("https://google.com");
+
+        when(writeBehindUrlWriterProvider.getIfAvailable()).thenReturn(writeBehindUrlWriter);
+        when(urlRepository.findByOriginalUrl(anyString())).thenReturn(Optional.empty());
+        when(writeBehindUrlWriter.submit(any(Url.class))).thenReturn(false);
+
+        assertThatThrownBy(() -> urlShorteningService.shortenUrl(requestDto))
+                .isInstanceOf(UrlGenerationException.class);
+        verify(urlCache, never()).putOriginalUrl(anyString(), anyString(), any(Duration.class));
     }
 
     @Test
     void shortenUrl_originalUrlIsCached_shouldReturnShortenedUrl() {
         requestDto.setOriginalUrl("http://example.com");
 
-        when(valueOperations.get(anyString())).thenReturn("abc123");
+        when(urlCache.getShortUrl(anyString())).thenReturn("abc123");
 
         UrlShortenedResponseDto responseDto = urlShorteningService.shortenUrl(requestDto);
 
         assertThat(responseDto).isNotNull();
         assertThat(responseDto.getShortUrl()).isEqualTo("abc123");
-        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
-        verifyNoInteractions(urlRepository);
+        verify(urlCache, never()).putShortUrl(anyString(), anyString(), any(Duration.class));
+        verifyNoInteractions(urlRepository, urlJdbcRepository);
     }
 
     @Test
     void shortenUrl_originalUrlIsInDatabase_shouldReturnShortenedUrl() {
         requestDto.setOriginalUrl("http://example.com");
 
-        Url url = new Url();
-        url.setShortUrl("abc123");
-        url.setOriginalUrl("http://example.com");
+        UrlMapping url = new UrlMapping("abc123", "http://example.com", LocalDateTime.now().plusMinutes(10));
 
-        when(valueOperations.get(anyString())).thenReturn(null);
-        when(urlRepository.findByOriginalUrl(anyString())).thenReturn(Optional.of(url));
+        when(urlJdbcRepository.insertIfAbsent(any(Url.class))).thenReturn(Optional.of(url));
 
         UrlShortenedResponseDto responseDto = urlShorteningService.shortenUrl(requestDto);
 
         assertThat(responseDto).isNotNull();
         assertThat(responseDto.getShortUrl()).isEqualTo("abc123");
-        verify(valueOperations, times(1)).set(anyString(), anyString(), any(Duration.class));
+        verify(urlCache).putShortUrl(eq("http://example.com"), eq("abc123"), argThat(ttl -> ttl.compareTo(Duration.ofMinutes(10)) <= 0));
+        verify(urlCache).putOriginalUrl(eq("abc123"), eq("http://example.com"), argThat(ttl -> ttl.compareTo(Duration.ofMinutes(10)) <= 0));
+    }
+
+    @Test
+    void shortenUrl_originalUrlLoadedOnAnotherShard_shouldReturnLoadedShortUrl() {
+        requestDto.setOriginalUrl("http://example.com");
+        shardingProperties.setEnabled(true);
+
+        when(urlJdbcRepository.findIndexedShortUrl("http://example.com")).thenReturn(Optional.of("LEGACY"));
+        when(urlRepository.findMappingByShortUrl("LEGACY"))
+                .thenReturn(Optional.of(new UrlMapping("LEGACY", "http://example.com", LocalDateTime.now().plusDays(1))));
+
+        UrlShortenedResponseDto responseDto = urlShorteningService.shortenUrl(requestDto);
+
+        assertThat(responseDto.getShortUrl()).isEqualTo("LEGACY");
+        verify(urlJdbcRepository, never()).insertIfAbsent(any(Url.class));
+        verify(urlCache).putShortUrl(eq("http://example.com"), eq("LEGACY"), any(Duration.class));
+    }
+
+    @Test
+    void shortenUrl_shortUrlTakenByAnotherUrl_shouldThrowUrlGenerationException() {
+        requestDto.setOriginalUrl("http://example.com");
+
+        when(urlJdbcRepository.insertIfAbsent(any(Url.class))).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> urlShorteningService.shortenUrl(requestDto))
+                .isInstanceOf(UrlGenerationException.class);
+    }
+
+    @Test
+    void shortenUrl_sameUrlShortenedConcurrently_shouldStoreItOnce() throws Exception {
+        CountDownLatch insertStarted = new CountDownLatch(1);
+        CountDownLatch releaseInsert = new CountDownLatch(1);
+        when(urlJdbcRepository.insertIfAbsent(any(Url.class))).thenAnswer(invocation -> {
+            insertStarted.countDown();
+            releaseInsert.await();
+            return Optional.of(toMapping(invocation.getArgument(0)));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<UrlShortenedResponseDto> first = executor.submit(() -> urlShorteningService.shortenUrl(request("https://viral.com")));
+            insertStarted.await();
+            AtomicReference<Thread> waiter = new AtomicReference<>();
+            Future<UrlShortenedResponseDto> second = executor.submit(() -> {
+                waiter.set(Thread.currentThread());
+                return urlShorteningService.shortenUrl(request("https://viral.com"));
+            });
+            while (waiter.get() == null || waiter.get().getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+            releaseInsert.countDown();
+
+            assertThat(second.get().getShortUrl()).isEqualTo(first.get().getShortUrl());
+            verify(urlJdbcRepository, times(1)).insertIfAbsent(any(Url.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shortenUrl_equivalentUrlIsCached_shouldLookUpCanonicalUrl() {
+        requestDto.setOriginalUrl("HTTP://Example.com:80/");
+
+        when(urlCache.getShortUrl("http://example.com")).thenReturn("abc123");
+
+        UrlShortenedResponseDto responseDto = urlShorteningService.shortenUrl(requestDto);
+
+        assertThat(responseDto.getShortUrl()).isEqualTo("abc123");
     }
 
     @Test
     void getOriginalUrl_shortUrlIsCached_shouldReturnOriginalUrl() {
-        when(valueOperations.get(anyString())).thenReturn("http://example.com");
+        when(urlCache.getOriginalUrl(anyString())).thenReturn("http://example.com");
 
-        Url url = urlShorteningService.getOriginalUrl("abc123");
+        UrlMapping url = urlShorteningService.getOriginalUrl("abc123");
 
         assertThat(url).isNotNull();
-        assertThat(url.getOriginalUrl()).isEqualTo("http://example.com");
-        verify(valueOperations, times(1)).increment(anyString(), eq(1L));
+        assertThat(url.originalUrl()).isEqualTo("http://example.com");
+        verify(urlCache, times(1)).incrementClickCount("abc123", 1);
+    }
+
+    @Test
+    void getOriginalUrl_shortUrlIsInDatabase_shouldReturnMappingAndCacheIt() {
+        UrlMapping mapping = new UrlMapping("abc123", "http://example.com", LocalDateTime.now().plusDays(30));
+
+        when(urlRepository.findMappingByShortUrl("abc123")).thenReturn(Optional.of(mapping));
+
+        UrlMapping url = urlShorteningService.getOriginalUrl("abc123");
+
+        assertThat(url).isEqualTo(mapping);
+        verify(urlCache).putOriginalUrl("abc123", "http://example.com", Duration.ofHours(1));
+        verify(urlCache, times(1)).incrementClickCount("abc123", 1);
     }
 
     @Test
     void getOriginalUrl_shortUrlIsNotFound_shouldThrowUrlNotFoundException() {
-        when(valueOperations.get(anyString())).thenReturn(null);
-        when(urlRepository.findByShortUrl(anyString())).thenReturn(Optional.empty());
+        when(urlRepository.findMappingByShortUrl(anyString())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> urlShorteningService.getOriginalUrl("nonexistent"))
                 .isInstanceOf(UrlNotFoundException.class);
@@ -114,11 +264,9 @@ class UrlShorteningServiceTest {
 
     @Test
     void getOriginalUrl_shortUrlIsExpired_shouldThrowUrlExpiredException() {
-        Url url = new Url();
-        url.setExpirationDate(LocalDateTime.now().minusDays(1));
+        UrlMapping url = new UrlMapping("expired", "http://example.com", LocalDateTime.now().minusDays(1));
 
-        when(valueOperations.get(anyString())).thenReturn(null);
-        when(urlRepository.findByShortUrl(anyString())).thenReturn(Optional.of(url));
+        when(urlRepository.findMappingByShortUrl(anyString())).thenReturn(Optional.of(url));
 
         assertThatThrownBy(() -> urlShorteningService.getOriginalUrl("expired"))
                 .isInstanceOf(UrlExpiredException.class);
@@ -126,10 +274,7 @@ class UrlShorteningServiceTest {
 
     @Test
     void getClickCount_shortUrlExists_shouldReturnClickCount() {
-        Url url = new Url();
-        url.setClickCount(5);
-
-        when(urlRepository.findByShortUrl(anyString())).thenReturn(Optional.of(url));
+        when(urlRepository.findClickCountByShortUrl(anyString())).thenReturn(Optional.of(5));
 
         int clickCount = urlShorteningService.getClickCount("abc123");
 
@@ -138,9 +283,48 @@ class UrlShorteningServiceTest {
 
     @Test
     void getClickCount_shortUrlDoesNotExist_shouldThrowUrlNotFoundException() {
-        when(urlRepository.findByShortUrl(anyString())).thenReturn(Optional.empty());
+        when(urlRepository.findClickCountByShortUrl(anyString())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> urlShorteningService.getClickCount("nonexistent"))
                 .isInstanceOf(UrlNotFoundException.class);
     }
+
+    @Test
+    void resolveUrls_shouldAnswerFromCacheThenDatabaseInRequestOrder() {
+        when(urlCache.getOriginalUrls(List.of("cached", "stored", "expired", "missing")))
+                .thenReturn(Arrays.asList("http://cached.com", null, null, null));
+        when(urlRepository.findMappingsByShortUrlIn(List.of("stored", "expired", "missing"))).thenReturn(List.of(
+                new UrlMapping("stored", "http://stored.com", LocalDateTime.now().plusDays(1)),
+                new UrlMapping("expired", "http://expired.com", LocalDateTime.now().minusDays(1))));
+
+        UrlResolveResponseDto responseDto = urlShorteningService.resolveUrls(List.of("cached", "stored", "expired", "missing", "cached"));
+
+        assertThat(responseDto.getResults()).extracting(ResolvedUrlDto::getShortUrl)
+                .containsExactly("cached", "stored", "expired", "missing", "cached");
+        assertThat(responseDto.getResults()).extracting(ResolvedUrlDto::getStatus)
+                .containsExactly(ResolveStatus.FOUND, ResolveStatus.FOUND, ResolveStatus.EXPIRED, ResolveStatus.NOT_FOUND, ResolveStatus.FOUND);
+        assertThat(responseDto.getResults().get(1).getOriginalUrl()).isEqualTo("http://stored.com");
+        verify(urlCache, never()).incrementClickCount(anyString(), anyLong());
+    }
+
+    @Test
+    void resolveUrls_allShortUrlsCached_shouldNotQueryDatabase() {
+        when(urlCache.getOriginalUrls(List.of("abc123"))).thenReturn(List.of("http://example.com"));
+
+        UrlResolveResponseDto responseDto = urlShorteningService.resolveUrls(List.of("abc123"));
+
+        assertThat(responseDto.getResults()).singleElement()
+                .satisfies(result -> assertThat(result.getOriginalUrl()).isEqualTo("http://example.com"));
+        verifyNoInteractions(urlRepository);
+    }
+
+    private UrlShortenedRequestDto request(String originalUrl) {
+        UrlShortenedRequestDto request = new UrlShortenedRequestDto();
+        request.setOriginalUrl(originalUrl);
+        return request;
+    }
+
+    private UrlMapping toMapping(Url url) {
+        return new UrlMapping(url.getShortUrl(), url.getOriginalUrl(), url.getExpirationDate());
+    }
 }
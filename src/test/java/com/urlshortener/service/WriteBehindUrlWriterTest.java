@@ -0,0 +1,144 @@
+package com.urlshortener.service;
+
+import com.urlshortener.config.WriteBehindProperties;
+import com.urlshortener.model.Url;
+import com.urlshortener.repository.UrlJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the write-behind writer against an in-memory H2 database and a temporary journal directory.
+ */
+class WriteBehindUrlWriterTest {
+    @TempDir
+    private Path journalDirectory;
+
+    private JdbcTemplate jdbcTemplate;
+    private UrlJdbcRepository urlJdbcRepository;
+    private WriteBehindProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE urls (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "original_url VARCHAR(2048) NOT NULL UNIQUE, short_url VARCHAR(255) NOT NULL UNIQUE, "
+                + "created_at TIMESTAMP, expiration_date TIMESTAMP, click_count INT NOT NULL)");
+        urlJdbcRepository = new UrlJdbcRepository(new NamedParameterJdbcTemplate(dataSource));
+
+        properties = new WriteBehindProperties();
+        properties.setJournalDirectory(journalDirectory);
+        properties.setBatchSize(2);
+    }
+
+    @Test
+    void flush_submittedUrls_shouldInsertThemAndDeleteJournal() throws Exception {
+        WriteBehindUrlWriter writer = new WriteBehindUrlWriter(urlJdbcRepository, properties);
+        for (int i = 0; i < 5; i++) {
+            writer.submit(url("SHORT" + i, "https://example.com/" + i));
+        }
+
+        writer.flush();
+
+        assertThat(countUrls()).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT original_url FROM urls WHERE short_url = 'SHORT3'", String.class))
+                .isEqualTo("https://example.com/3");
+        try (var files = Files.list(journalDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void replay_journalLeftByPreviousRun_shouldInsertUnflushedUrls() {
+        WriteBehindUrlWriter crashedWriter = new WriteBehindUrlWriter(urlJdbcRepository, properties);
+        crashedWriter.submit(url("SHORT1", "https://example.com/1"));
+        crashedWriter.submit(url("SHORT2", "https://example.com/2"));
+
+        new WriteBehindUrlWriter(urlJdbcRepository, properties).replay();
+
+        assertThat(countUrls()).isEqualTo(2);
+    }
+
+    @Test
+    void flush_urlAlreadyStored_shouldSkipItAndInsertTheRest() {
+        urlJdbcRepository.insertAllIfAbsent(List.of(url("SHORT1", "https://example.com/1")));
+        WriteBehindUrlWriter writer = new WriteBehindUrlWriter(urlJdbcRepository, properties);
+        writer.submit(url("SHORT1", "https://example.com/1"));
+        writer.submit(url("SHORT2", "https://example.com/2"));
+
+        writer.flush();
+
+        assertThat(countUrls()).isEqualTo(2);
+    }
+
+    @Test
+    void submit_shortUrlJournaledForAnotherUrl_shouldRefuseItUntilFlushed() {
+        WriteBehindUrlWriter writer = new WriteBehindUrlWriter(urlJdbcRepository, properties);
+
+        assertThat(writer.submit(url("SHORT1", "https://example.com/1"))).isTrue();
+        assertThat(writer.submit(url("SHORT1", "https://example.com/1"))).isTrue();
+        assertThat(writer.submit(url("SHORT1", "https://example.com/2"))).isFalse();
+
+        writer.flush();
+
+        assertThat(countUrls()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT original_url FROM urls WHERE short_url = 'SHORT1'", String.class))
+                .isEqualTo("https://example.com/1");
+        assertThat(writer.submit(url("SHORT1", "https://example.com/2"))).isTrue();
+    }
+
+    @Test
+    void flush_calledConcurrently_shouldWriteEverySegmentOnce() {
+        AtomicInteger submitted = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        UrlJdbcRepository slowRepository = new UrlJdbcRepository(new NamedParameterJdbcTemplate(jdbcTemplate)) {
+            @Override
+            public int insertAllIfAbsent(List<Url> urls) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                submitted.addAndGet(urls.size());
+                try {
+                    Thread.sleep(50);
+                    return super.insertAllIfAbsent(urls);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+        WriteBehindUrlWriter writer = new WriteBehindUrlWriter(slowRepository, properties);
+        for (int i = 0; i < 4; i++) {
+            writer.submit(url("SHORT" + i, "https://example.com/" + i));
+        }
+
+        CompletableFuture.allOf(CompletableFuture.runAsync(writer::flush), CompletableFuture.runAsync(writer::shutdown)).join();
+
+        assertThat(maxRunning).hasValue(1);
+        assertThat(submitted).hasValue(4);
+        assertThat(countUrls()).isEqualTo(4);
+    }
+
+    private Url url(String shortUrl, String originalUrl) {
+        return new Url(null, originalUrl, shortUrl, LocalDateTime.now(), LocalDateTime.now().plusMonths(3), 0);
+    }
+
+    private long countUrls() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM urls", Long.class);
+    }
+}
@@ -0,0 +1,80 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UrlParserTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "example.com",
+            "www.example.com",
+            "https://example.com",
+            "HTTP://Example.COM/Path",
+            "https://sub.example.co.uk/path?query=1#fragment",
+            "https://example.com:8443/path",
+            "example.com?query=1",
+            "https://münchen.de/stadt",
+            "https://example.xn--p1ai",
+            "https://example.photography"
+    })
+    void isValid_validUrl_shouldReturnTrue(String url) {
+        assertThat(UrlParser.isValid(url)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "invalid-url",
+            "ftp://example.com",
+            "https://",
+            "https://example",
+            "https://example.c",
+            "https://example.123",
+            "https://.example.com",
+            "https://example..com",
+            "https://example.com.",
+            "https://user@example.com",
+            "https://example.com:0",
+            "https://example.com:65536",
+            "https://example.com:port",
+            "https://exa mple.com",
+            "https://example.com/path\nheader"
+    })
+    void isValid_invalidUrl_shouldReturnFalse(String url) {
+        assertThat(UrlParser.isValid(url)).isFalse();
+    }
+
+    @Test
+    void isValid_null_shouldReturnFalse() {
+        assertThat(UrlParser.isValid(null)).isFalse();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "https://example.com?utm_source=mail&b=2&fbclid=x&a=1#top, https://example.com?a=1&b=2#top",
+            "https://example.com/?utm_source=mail, https://example.com",
+            "https://example.com/path?b=2&a=1&b=1, https://example.com/path?a=1&b=2&b=1"
+    })
+    void canonicalize_stripAndSortQueryParams_shouldRemoveTrackingParamsAndSortByName(String url, String expected) {
+        assertThat(UrlParser.canonicalize(url, List.of("utm_*", "fbclid"), true)).isEqualTo(expected);
+    }
+
+    @Test
+    void canonicalize_alreadyCanonicalUrl_shouldReturnSameInstance() {
+        String url = "https://example.com/path?b=2&a=1";
+
+        assertThat(UrlParser.canonicalize(url, List.of(), false)).isSameAs(url);
+    }
+
+    @Test
+    void canonicalize_invalidUrl_shouldReturnNull() {
+        assertThat(UrlParser.canonicalize("invalid-url", List.of(), false)).isNull();
+    }
+}
@@ -14,7 +14,12 @@ class UrlUtilTest {
             "http://example.com, http://example.com",
             "https://example.com, https://example.com",
             "example.com, https://example.com",
-            "www.example.com, https://www.example.com"
+            "www.example.com, https://www.example.com",
+            "HTTP://Example.com/, http://example.com",
+            "https://EXAMPLE.com:443/Path?Query=1, https://example.com/Path?Query=1",
+            "http://example.com:80, http://example.com",
+            "https://example.com:8080/, https://example.com:8080",
+            "https://bücher.example/, https://xn--bcher-kva.example"
     })
     void normalizeUrl(String input, String expected) {
         String normalizedUrl = UrlUtil.normalizeUrl(input);